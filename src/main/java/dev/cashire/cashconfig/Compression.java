@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compression of a config file.
+ * Compressed files are detected by their first bytes when reading, whatever compression
+ * is set on the {@link Config}.
+ *
+ * @see Config#setCompression(Compression, int)
+ */
+public enum Compression {
+  /**
+   * Plain pretty printed json.
+   */
+  NONE,
+  /**
+   * Gzip (RFC 1952) compressed json, used for files ending in {@code .gz}.
+   */
+  GZIP,
+  /**
+   * Zlib (RFC 1950) compressed json, used for files ending in {@code .deflate} or {@code .zz}.
+   */
+  DEFLATE;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Gets the compression matching the extension of a file.
+   *
+   * @param file file to check
+   * @return compression for the extension, {@link #NONE} if there is no known one
+   */
+  public static Compression forFile(@NotNull File file) {
+    var name = file.getName().toLowerCase(Locale.ROOT);
+    if (name.endsWith(".gz")) {
+      return GZIP;
+    }
+    if (name.endsWith(".deflate") || name.endsWith(".zz")) {
+      return DEFLATE;
+    }
+    return NONE;
+  }
+
+  /**
+   * Wraps a stream so the data written to it is compressed.
+   * Closing the returned stream finishes the compressed data and closes the given stream.
+   *
+   * @param stream stream to write the compressed data to
+   * @param level compression level from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @return stream to write the json to
+   * @throws IOException if writing the header fails
+   */
+  OutputStream compress(@NotNull OutputStream stream, int level) throws IOException {
+    switch (this) {
+      case GZIP:
+        return new GZIPOutputStream(stream, BUFFER_SIZE) {
+          {
+            def.setLevel(level);
+          }
+        };
+      case DEFLATE:
+        var deflater = new Deflater(level);
+        return new DeflaterOutputStream(stream, deflater, BUFFER_SIZE) {
+          @Override
+          public void close() throws IOException {
+            try {
+              super.close();
+            } finally {
+              deflater.end();
+            }
+          }
+        };
+      default:
+        return stream;
+    }
+  }
+
+  /**
+   * Wraps a stream so compressed data read from it is decompressed.
+   * The compression is detected from the first bytes of the stream.
+   *
+   * @param stream stream of a config file
+   * @return stream of the json in the file
+   * @throws IOException if reading fails
+   */
+  static InputStream decompress(@NotNull InputStream stream) throws IOException {
+    var buffered = new BufferedInputStream(stream, BUFFER_SIZE);
+    buffered.mark(2);
+    int first = buffered.read();
+    int second = buffered.read();
+    buffered.reset();
+    if (first == 0x1f && second == 0x8b) {
+      return new GZIPInputStream(buffered, BUFFER_SIZE);
+    }
+    // zlib header: deflate method, and both bytes together are a multiple of 31
+    if (first >= 0 && second >= 0 && (first & 0x0f) == 8 && (first << 8 | second) % 31 == 0) {
+      return new InflaterInputStream(buffered);
+    }
+    return buffered;
+  }
+}
@@ -26,23 +26,64 @@ package dev.cashire.cashconfig;
 
 import static com.google.common.collect.ImmutableList.of;
 import static dev.cashire.cashconfig.Constants.LOGGER;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import dev.cashire.cashconfig.diff.ConfigDiff;
+import dev.cashire.cashconfig.diff.PatchOperation;
 import dev.cashire.cashconfig.items.BaseConfigItem;
 import dev.cashire.cashconfig.items.BaseConfigItem.Type;
 import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ItemInterner;
+import dev.cashire.cashconfig.items.ItemObserver;
+import dev.cashire.cashconfig.items.ParallelCodec;
+import dev.cashire.cashconfig.items.StringPool;
+import dev.cashire.cashconfig.items.ValidationException;
+import dev.cashire.cashconfig.jfr.ConfigAllocationEvent;
+import dev.cashire.cashconfig.jfr.ConfigEvents;
+import dev.cashire.cashconfig.jfr.ConfigFileEvent;
+import dev.cashire.cashconfig.jfr.ConfigLoadEvent;
+import dev.cashire.cashconfig.jfr.ConfigLookupEvent;
+import dev.cashire.cashconfig.jfr.ConfigReloadEvent;
+import dev.cashire.cashconfig.jfr.ConfigSaveEvent;
+import dev.cashire.cashconfig.query.ConfigQuery;
+import dev.cashire.cashconfig.query.QueryCursor;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
 import net.fabricmc.loader.api.FabricLoader;
 import org.jetbrains.annotations.NotNull;
 
@@ -52,8 +93,29 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class Config {
   private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+  private static final Gson COMPACT_GSON = new Gson();
   private final ConfigGroup items;
+  private final ConfigDefaults defaults;
   private final File file;
+  private boolean loaded;
+  private ParallelCodec codec;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  // held while writing files, inside the lock so writes happen in the order of the content
+  private final Object saveLock = new Object();
+  private final List<ConfigListener> listeners = new CopyOnWriteArrayList<>();
+  private volatile boolean dirty;
+  private List<BaseConfigItem<?>> pending;
+  private ConfigJournal journal;
+  private ConfigShards shards;
+  private boolean deduplicateOnLoad;
+  private List<JsonObject> pendingRecords;
+  private JsonObject staged;
+  private BaseConfigItem<?> stagedOrigin;
+  private boolean loading;
+  private volatile boolean frozen;
+  private volatile Merged merged;
+  private Compression compression;
+  private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
 
   /**
    * Create new Configuration Instance.
@@ -115,33 +177,710 @@ public final class Config {
    * @param file  file to read/save to.
    */ 
   public Config(List<BaseConfigItem<?>> items, @NotNull File file) {
+    this(new ConfigGroup("root", items), null, file);
+  }
+
+  /**
+   * Create new Configuration Instance that only stores the items changed from shared defaults.
+   * Loads/Saves file with given name from {@link FabricLoader#getConfigDir()}
+   *
+   * @param defaults defaults shared with other configs
+   * @param fileName filename of config file.
+   * @see ConfigDefaults
+   */
+  public Config(@NotNull ConfigDefaults defaults, @NotNull String fileName) {
+    this(defaults, new File(
+        FabricLoader.getInstance().getConfigDir().toFile(), 
+        Objects.requireNonNull(fileName)));
+  }
+
+  /**
+   * Create new Configuration Instance that only stores the items changed from shared defaults.
+   *
+   * @param defaults defaults shared with other configs
+   * @param file file to read/save to.
+   * @see ConfigDefaults
+   */
+  public Config(@NotNull ConfigDefaults defaults, @NotNull File file) {
+    this(new ConfigGroup("root"), Objects.requireNonNull(defaults), file);
+  }
+
+  private Config(ConfigGroup items, ConfigDefaults defaults, @NotNull File file) {
     Objects.requireNonNull(file);
-    this.items = new ConfigGroup("root", items);
+    this.items = items;
+    this.items.setObserver(new Observer());
+    this.defaults = defaults;
     this.file = file;
   }
 
   /**
    * Get list of Configuration items in this configuration.
    * If {@link #readFile()} hasn't been called, this will contain the defaults given.
+   * With {@link ConfigDefaults}, top-level items that weren't changed are returned like
+   * {@link #getItem(String)} returns them.
    *
    * @see #getItem(String, Type) for retrieving an individual item
    * @return list of {@link BaseConfigItem}'s containing configuration data.
    */
   public List<BaseConfigItem<?>> getItems() {
-    return items.getValue();
+    loadShards();
+    lock.readLock().lock();
+    try {
+      if (defaults == null) {
+        return items.getValue();
+      }
+      var merged = new ArrayList<BaseConfigItem<?>>();
+      for (var shared : defaults.root()) {
+        var own = items.getItem(shared.getKey());
+        merged.add(own != null ? own : fromDefaults(shared.getKey()));
+      }
+      for (var own : items) {
+        if (!defaults.root().hasItem(own.getKey())) {
+          merged.add(own);
+        }
+      }
+      return Collections.unmodifiableList(merged);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the defaults this config falls back to.
+   *
+   * @return shared defaults, null if every item is stored in this config
+   */
+  public ConfigDefaults getDefaults() {
+    return defaults;
+  }
+
+  /**
+   * Gets the file this configuration reads from and saves to.
+   *
+   * @return file of this configuration
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Enables parallel loading and saving for large groups and lists.
+   * Groups and lists with at least threshold items are split across the common
+   * {@link java.util.concurrent.ForkJoinPool}, smaller ones stay single-threaded.
+   *
+   * @param threshold minimum amount of items before splitting, 0 to disable.
+   * @throws IllegalArgumentException if threshold is negative or 1
+   * @see ParallelCodec
+   */
+  public void setParallelThreshold(int threshold) {
+    codec = threshold == 0 ? null : new ParallelCodec(threshold);
+  }
+
+  /**
+   * Gets the minimum amount of items before a group or list is processed in parallel.
+   *
+   * @return the threshold, 0 if parallel mode is disabled
+   */
+  public int getParallelThreshold() {
+    return codec == null ? 0 : codec.getThreshold();
+  }
+
+  /**
+   * Shares equal keys, strings and numbers between the items of this config to save memory.
+   * Repeated groups and lists share the keys and values of the first one found.
+   *
+   * @see ItemInterner
+   */
+  public void deduplicate() {
+    deduplicate(new ItemInterner());
+  }
+
+  /**
+   * Shares equal keys, strings and numbers between the items of this config and every
+   * item the interner saw before, for example items of other configs.
+   *
+   * @param interner interner to use
+   * @see ItemInterner
+   */
+  public void deduplicate(@NotNull ItemInterner interner) {
+    Objects.requireNonNull(interner);
+    loadShards();
+    lock.writeLock().lock();
+    try {
+      interner.intern(items);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Packs the values of every string item of this config into a new pool.
+   *
+   * @return the pool holding the values
+   * @see StringPool
+   */
+  public StringPool packStrings() {
+    var pool = new StringPool();
+    packStrings(pool);
+    return pool;
+  }
+
+  /**
+   * Packs the values of every string item of this config into the given pool,
+   * which may hold values of other configs as well.
+   *
+   * @param pool pool to store the values in
+   * @see StringPool
+   */
+  public void packStrings(@NotNull StringPool pool) {
+    Objects.requireNonNull(pool);
+    loadShards();
+    lock.writeLock().lock();
+    try {
+      pool.pack(items);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Deduplicates the items every time they are read from the file.
+   *
+   * @param deduplicate true to deduplicate when loading
+   * @see #deduplicate()
+   */
+  public void setDeduplicateOnLoad(boolean deduplicate) {
+    deduplicateOnLoad = deduplicate;
+  }
+
+  /**
+   * Sets the compression used when saving the file, with the default level.
+   *
+   * @param compression compression to use, null to pick it by the extension of the file
+   * @see #setCompression(Compression, int)
+   */
+  public void setCompression(Compression compression) {
+    setCompression(compression, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Sets the compression used when saving the file.
+   * Files are streamed through the compressor, so the uncompressed json is never held
+   * in memory as a whole. Compressed files are written without pretty printing.
+   * Reading detects compressed files by their first bytes, whatever is set here.
+   *
+   * @param compression compression to use, null to pick it by the extension of the file
+   * @param level compression level from 0 (fastest) to 9 (smallest), 
+   *        or {@link Deflater#DEFAULT_COMPRESSION}
+   * @throws IllegalArgumentException if level is out of range
+   * @see Compression#forFile(File)
+   */
+  public void setCompression(Compression compression, int level) {
+    if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid compression level: " + level);
+    }
+    this.compression = compression;
+    this.compressionLevel = level;
+  }
+
+  /**
+   * Gets the compression used when saving the file.
+   *
+   * @return the compression set, or the one matching the extension of the file
+   */
+  public Compression getCompression() {
+    return compression != null ? compression : Compression.forFile(file);
+  }
+
+  /**
+   * Gets the compression level used when saving the file.
+   *
+   * @return level from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   */
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Records changes in a journal next to the config file instead of rewriting the whole file.
+   * Every change is appended to the journal as it happens, and the file is only rewritten
+   * by {@link #saveFile()} or once 1000 changes were recorded.
+   *
+   * @see #enableJournal(int)
+   */
+  public void enableJournal() {
+    enableJournal(1000);
+  }
+
+  /**
+   * Records changes in a journal next to the config file instead of rewriting the whole file.
+   * Every change is appended to {@code <file>.journal} as it happens, so persisting it costs
+   * the size of the change rather than the size of the config. {@link #saveFile()} compacts
+   * the journal into the file, which also happens once maxRecords changes were recorded.
+   * {@link #readFile()} replays the journal after loading the file.
+   *
+   * <p>Enable the journal before calling {@link #readFile()}, so changes recorded by a
+   * previous run are recovered. If the config is loaded already, the file is compacted
+   * right away to start with an empty journal.
+   *
+   * @param maxRecords amount of changes after which the file is rewritten
+   * @throws IllegalArgumentException if maxRecords is less than 1
+   * @throws IllegalStateException if the config is sharded
+   */
+  public void enableJournal(int maxRecords) {
+    if (maxRecords < 1) {
+      throw new IllegalArgumentException("Max records must be positive: " + maxRecords);
+    }
+    lock.writeLock().lock();
+    try {
+      if (shards != null) {
+        throw new IllegalStateException("A sharded config can't use a journal");
+      }
+      if (journal != null) {
+        journal.close();
+      }
+      journal = new ConfigJournal(file, maxRecords);
+      if (loaded) {
+        saveFile();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Stops recording changes in a journal.
+   * If the config is loaded, the journal is compacted into the file and deleted.
+   */
+  public void disableJournal() {
+    lock.writeLock().lock();
+    try {
+      if (journal == null) {
+        return;
+      }
+      if (loaded) {
+        saveFile();
+        journal.delete();
+      } else {
+        journal.close();
+      }
+      journal = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Checks if changes are recorded in a journal.
+   *
+   * @return true if the journal is enabled, false otherwise
+   * @see #enableJournal(int)
+   */
+  public boolean isJournaled() {
+    return journal != null;
+  }
+
+  /**
+   * Stores every top-level group in its own file in the given directory, named after the key
+   * of the group. Other top-level items stay in the config file.
+   * Groups are read when they are first used and only written when they changed,
+   * so a change doesn't rewrite the whole configuration.
+   * If the config is loaded already, every group is written to the directory.
+   * Sharded configs can't use a journal or stream lists.
+   *
+   * @param directory directory of the group files
+   * @throws IllegalStateException if the journal is enabled
+   */
+  public void enableSharding(@NotNull File directory) {
+    Objects.requireNonNull(directory);
+    lock.writeLock().lock();
+    try {
+      if (journal != null) {
+        throw new IllegalStateException("A journaled config can't be sharded");
+      }
+      loadShards();
+      shards = new ConfigShards(directory);
+      if (loaded) {
+        shards.markAll(items);
+        saveFile();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Checks if top-level groups are stored in their own files.
+   *
+   * @return true if sharded
+   * @see #enableSharding(File)
+   */
+  public boolean isSharded() {
+    return shards != null;
+  }
+
+  /**
+   * Makes every item of this config read-only, for configs that are only read after loading.
+   * Large groups index their items with a perfect hash instead of a map, which makes lookups
+   * cheaper. Changing, adding or removing items or reading the file afterwards throws
+   * an {@link IllegalStateException}, changing a frozen item directly throws an
+   * {@link UnsupportedOperationException}.
+   * Shards are loaded first.
+   *
+   * @see #unfreeze()
+   */
+  public void freeze() {
+    loadShards();
+    lock.writeLock().lock();
+    try {
+      items.freeze();
+      frozen = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Makes the items of this config changeable again.
+   *
+   * @see #freeze()
+   */
+  public void unfreeze() {
+    lock.writeLock().lock();
+    try {
+      items.unfreeze();
+      frozen = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Checks if the items of this config are read-only.
+   *
+   * @return true if frozen
+   * @see #freeze()
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Rejects changes to a frozen config.
+   *
+   * @throws IllegalStateException if this config is frozen
+   */
+  private void ensureMutable() {
+    if (frozen) {
+      throw new IllegalStateException("Config " + file + " is frozen");
+    }
   }
 
   /**
    * Saves current configuration to a file.
+   * If the journal is enabled, this compacts the journal into the file.
    */
   public void saveFile() {
-    JsonObject object = new JsonObject();
-    items.toJson(object);
+    if (shards != null) {
+      saveShards();
+      return;
+    }
+    var event = new ConfigSaveEvent();
+    event.begin();
+    // the file is written while reading, so an older save can't overwrite a newer one
+    lock.readLock().lock();
+    try {
+      synchronized (saveLock) {
+        JsonElement root;
+        if (codec != null) {
+          root = codec.toJson(items);
+        } else {
+          JsonObject object = new JsonObject();
+          items.toJson(object);
+          root = object.get("root");
+        }
+        dirty = false;
+        var journal = this.journal;
+        if (journal != null) {
+          // no change is recorded between serializing and emptying the journal
+          journal.compact(file, stream -> write(root, stream));
+        } else {
+          write(root, new FileOutputStream(file));
+        }
+      }
+      event.end();
+      if (event.shouldCommit()) {
+        commitFileEvent(event, file.length());
+      }
+    } catch (IOException | RuntimeException e) {
+      dirty = true;
+      e.printStackTrace();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Writes json to a stream with the compression of this config, then closes the stream.
+   *
+   * @param root json to write
+   * @param stream stream to write to
+   * @throws IOException if writing fails
+   */
+  private void write(JsonElement root, OutputStream stream) throws IOException {
+    try (var writer = newJsonWriter(stream)) {
+      GSON.toJson(root, writer);
+    }
+  }
+
+  /**
+   * Writes the changed groups to their files, and the config file if another
+   * top-level item changed.
+   */
+  private void saveShards() {
+    var event = new ConfigSaveEvent();
+    event.begin();
+    var shards = this.shards;
+    JsonObject main = null;
+    var written = new ArrayList<File>();
+    var json = new ArrayList<JsonElement>();
+    var deleted = new ArrayList<File>();
+    // written while reading like saveFile()
+    lock.readLock().lock();
+    try {
+      if (shards.takeMainDirty() || !file.exists()) {
+        main = new JsonObject();
+        for (var item : items) {
+          if (!item.isGroup()) {
+            item.toJson(main);
+            // the group stored under this key was replaced
+            deleted.add(shards.file(item.getKey()));
+          }
+        }
+      }
+      for (var key : shards.takeDirty()) {
+        var item = items.getItem(key);
+        if (item != null && item.isGroup()) {
+          written.add(shards.file(key));
+          json.add(codec != null ? codec.toJson(item) : toJson(item));
+        }
+      }
+      for (var key : shards.takeRemoved()) {
+        var item = items.getItem(key);
+        if (item == null || !item.isGroup()) {
+          deleted.add(shards.file(key));
+        }
+      }
+      dirty = false;
+
+      synchronized (saveLock) {
+        long bytes = 0;
+        Files.createDirectories(shards.getDirectory().toPath());
+        for (int i = 0; i < written.size(); i++) {
+          write(json.get(i), new FileOutputStream(written.get(i)));
+          bytes += written.get(i).length();
+        }
+        for (var shard : deleted) {
+          Files.deleteIfExists(shard.toPath());
+        }
+        if (main != null) {
+          write(main, new FileOutputStream(file));
+          bytes += file.length();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+          commitFileEvent(event, bytes);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // write everything again next time
+      shards.markAll(items);
+      dirty = true;
+      e.printStackTrace();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static JsonElement toJson(BaseConfigItem<?> item) {
+    var array = new JsonArray();
+    item.toJson(array);
+    return array.get(0);
+  }
 
-    try (var stream = new FileOutputStream(file)) {
-      stream.write(GSON.toJson(object.get("root")).getBytes());
+  /**
+   * Reads the group with the given key from its shard file, if it wasn't read yet.
+   *
+   * @param key key of a top-level item
+   */
+  private void loadShard(String key) {
+    var shards = this.shards;
+    if (shards == null || !shards.isUnloaded(key)) {
+      return;
+    }
+    if (lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+      throw new IllegalStateException("Group " + key + " can't be loaded while reading");
+    }
+    lock.writeLock().lock();
+    var wasLoading = loading;
+    loading = true;
+    try {
+      if (!shards.markLoaded(key)) {
+        return;
+      }
+      var shard = new JsonObject();
+      try (var reader = new InputStreamReader(Compression.decompress(
+          new FileInputStream(shards.file(key))), StandardCharsets.UTF_8)) {
+        shard.add(key, new JsonParser().parse(reader));
+      }
+      items.validate(shard);
+      if (defaults != null) {
+        defaults.root().validate(shard);
+        copyDefaults(items, defaults.root(), shard);
+      }
+      var wasDirty = dirty;
+      items.fromJson(shard);
+      dirty = wasDirty;
+      var group = items.getItem(key);
+      if (deduplicateOnLoad && group != null) {
+        new ItemInterner().intern(group);
+      }
+    } catch (ValidationException e) {
+      LOGGER.error("Group " + key + " of config file " + file + " was not loaded. " 
+          + e.getMessage());
     } catch (Exception e) {
       e.printStackTrace();
+    } finally {
+      loading = wasLoading;
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Reads the shard of the first key of the path, if it wasn't read yet.
+   *
+   * @param path path to item in format: group.item
+   */
+  private void loadShardOf(String path) {
+    if (shards != null) {
+      var dot = path.indexOf('.');
+      loadShard(dot < 0 ? path : path.substring(0, dot));
+    }
+  }
+
+  /**
+   * Reads every shard that wasn't read yet.
+   */
+  private void loadShards() {
+    var shards = this.shards;
+    if (shards != null) {
+      for (var key : shards.getUnloaded()) {
+        loadShard(key);
+      }
+    }
+  }
+
+  /**
+   * Creates a writer of json with the compression and formatting of this config.
+   *
+   * @param stream stream to write to, closed with the writer
+   * @return the writer
+   * @throws IOException if writing the compression header fails
+   */
+  JsonWriter newJsonWriter(OutputStream stream) throws IOException {
+    var compression = getCompression();
+    OutputStream compressed;
+    try {
+      compressed = compression.compress(stream, compressionLevel);
+    } catch (IOException e) {
+      stream.close();
+      throw e;
+    }
+    var gson = compression == Compression.NONE ? GSON : COMPACT_GSON;
+    return gson.newJsonWriter(new BufferedWriter(
+        new OutputStreamWriter(compressed, StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Replaces the file of this config with a new one.
+   *
+   * @param temp new file, in the same directory
+   * @param crc CRC32 of the new file
+   * @throws IOException if moving the file fails
+   */
+  void install(File temp, long crc) throws IOException {
+    lock.writeLock().lock();
+    try {
+      var journal = this.journal;
+      if (journal != null) {
+        journal.install(file, temp, crc);
+      } else {
+        Files.move(temp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Reads the list at the end of the path from the file one element at a time,
+   * without loading the file. Memory use doesn't depend on the size of the list.
+   * The file is read as it was last saved, changes that are only in memory or in the
+   * journal aren't included.
+   *
+   * <pre>{@code
+   * try (var reader = config.streamList("world.blocks")) {
+   *   while (reader.hasNext()) {
+   *     var block = reader.next().asGroup();
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param path path to a list in format: group.item
+   * @return reader positioned before the first element
+   * @throws IOException if the file can't be read
+   * @throws IllegalStateException if the config is sharded
+   * @throws IllegalArgumentException if there is no list at the path
+   */
+  public ListReader streamList(@NotNull String path) throws IOException {
+    Objects.requireNonNull(path);
+    if (shards != null) {
+      throw new IllegalStateException("Lists can't be streamed from a sharded config");
+    }
+    return new ListReader(new FileInputStream(file), path);
+  }
+
+  /**
+   * Writes the file with the list at the end of the path streamed one element at a time.
+   * Every other item is written from memory when the writer is created. The new file
+   * replaces the current one when the writer is closed. The streamed elements aren't
+   * loaded into this config, so read the file again before saving it.
+   *
+   * <pre>{@code
+   * try (var writer = config.writeList("world.blocks")) {
+   *   for (var block : blocks) {
+   *     writer.add(block);
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param path path to a list in format: group.item
+   * @return writer to add the elements of the list to
+   * @throws IOException if the file can't be written
+   * @throws IllegalStateException if the config is sharded
+   * @throws IllegalArgumentException if an item on the path isn't a group, or the last isn't a list
+   */
+  public ListWriter writeList(@NotNull String path) throws IOException {
+    Objects.requireNonNull(path);
+    if (shards != null) {
+      throw new IllegalStateException("Lists can't be streamed into a sharded config");
+    }
+    var temp = new File(file.getPath() + ".tmp");
+    lock.readLock().lock();
+    try {
+      return new ListWriter(this, items, temp, path);
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
@@ -161,21 +900,93 @@ public final class Config {
   /**
    * Reads configuration from file.
    * Values can be retrieved via {@link #getItem(String, Type)} or {@link #getItems()}
+   * If a value in the file breaks a {@link dev.cashire.cashconfig.items.Constraint},
+   * nothing is loaded and the path of the value is logged.
    */
   public void readFile() {
-    try (FileInputStream stream = new FileInputStream(file)) {
-      byte[] bytes = new byte[stream.available()];
-      stream.read(bytes);
-      String file = new String(bytes);
-      JsonObject parsed = new JsonParser().parse(file).getAsJsonObject();
-      items.fromJson(parsed);
-    } catch (FileNotFoundException e) {
-      saveFile();
+    ensureMutable();
+    try {
+      readFileOrThrow();
+    } catch (ValidationException e) {
+      LOGGER.error("Config file " + file + " was not loaded. " + e.getMessage());
     } catch (Exception e) {
       e.printStackTrace();
     }
   }
 
+  /**
+   * Reads configuration from file like {@link #readFile()}, but throws the error
+   * instead of logging it, for callers that report failures themselves.
+   *
+   * @throws IOException if the file exists but can't be read
+   * @throws ValidationException if a value in the file breaks a constraint
+   * @throws IllegalStateException if the config is frozen or the file isn't a json object
+   */
+  void readFileOrThrow() throws IOException {
+    ensureMutable();
+    ConfigFileEvent event = loaded ? new ConfigReloadEvent() : new ConfigLoadEvent();
+    var allocation = new ConfigAllocationEvent();
+    var allocatedBefore = allocation.isEnabled() ? ConfigEvents.allocatedBytes() : -1;
+    event.begin();
+    lock.writeLock().lock();
+    loading = true;
+    try (var stream = new CheckedInputStream(new FileInputStream(file), new CRC32());
+        var reader = new InputStreamReader(Compression.decompress(stream), 
+            StandardCharsets.UTF_8)) {
+      JsonObject parsed = new JsonParser().parse(reader).getAsJsonObject();
+      items.validate(parsed);
+      if (defaults != null) {
+        defaults.root().validate(parsed);
+        copyDefaults(items, defaults.root(), parsed);
+      }
+      if (codec != null) {
+        codec.fromJson(items, parsed);
+      } else {
+        items.fromJson(parsed);
+      }
+      if (shards != null) {
+        shards.scan(items);
+      }
+      if (journal != null) {
+        // the journal knows the checksum of the whole file it was compacted into
+        stream.transferTo(OutputStream.nullOutputStream());
+        replayJournal(file.length(), stream.getChecksum().getValue());
+      }
+      if (deduplicateOnLoad) {
+        new ItemInterner().intern(items);
+      }
+      loaded = true;
+      dirty = false;
+      event.end();
+      if (event.shouldCommit()) {
+        commitFileEvent(event, file.length());
+      }
+      if (allocatedBefore >= 0) {
+        var allocated = ConfigEvents.allocatedBytes() - allocatedBefore;
+        if (allocated >= ConfigEvents.getAllocationThreshold() && allocation.shouldCommit()) {
+          allocation.path = this.file.getPath();
+          allocation.allocated = allocated;
+          allocation.itemCount = ConfigEvents.countItems(items);
+          allocation.commit();
+        }
+      }
+    } catch (FileNotFoundException e) {
+      try {
+        replayJournal(-1, 0);
+      } catch (IOException ex) {
+        ex.printStackTrace();
+      }
+      if (shards != null) {
+        shards.scan(items);
+      }
+      loaded = true;
+      saveFile();
+    } finally {
+      loading = false;
+      lock.writeLock().unlock();
+    }
+  }
+
   /**
    * Retrieves an Item from the configuration structure.
    *
@@ -193,28 +1004,127 @@ public final class Config {
       throw new IllegalArgumentException(
         "Incorrect type " + type + " for " + path + ". Correct type: " + selectedItem.getType());
     }
-    return selectedItem;
+    return selectedItem;
+  }
+
+  /**
+   * Retrieves an Item from the configuration structure.
+   * With {@link ConfigDefaults}, an item that wasn't changed is a copy of its default
+   * that is stored in this config once it's changed.
+   *
+   * @param path path to item in format: group.item
+   * @return item if found, null otherwise
+   */
+  public BaseConfigItem<?> getItem(@NotNull String path) {
+    Objects.requireNonNull(path);
+    loadShardOf(path);
+    var event = new ConfigLookupEvent();
+    event.begin();
+    var paths = new LinkedList<>(Arrays.asList(path.split("\\.")));
+    BaseConfigItem<?> selectedItem = null;
+    lock.readLock().lock();
+    try {
+      var parent = getParent(items, paths);
+      selectedItem = parent.getItem(paths.getLast());
+    } catch (NoSuchElementException e) {
+      selectedItem = fromDefaults(path);
+      if (selectedItem == null) {
+        LOGGER.error("Item " + paths.getFirst() + " in path " + path + " was not found");
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.file = file.getPath();
+      event.path = path;
+      event.found = selectedItem != null;
+      event.commit();
+    }
+    return selectedItem;
+  }
+
+  /**
+   * Retrieves an item without logging when it's missing.
+   *
+   * @param path path to item in format: group.item
+   * @return item if found, null otherwise
+   */
+  BaseConfigItem<?> findItem(@NotNull String path) {
+    loadShardOf(path);
+    var paths = new LinkedList<>(Arrays.asList(path.split("\\.")));
+    lock.readLock().lock();
+    try {
+      return getParent(items, paths).getItem(paths.getLast());
+    } catch (NoSuchElementException e) {
+      return defaults != null ? defaults.find(path) : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Runs the reader on the root group under the read lock, once every shard is loaded,
+   * so it sees no partial changes. With {@link ConfigDefaults} the reader gets the
+   * {@link #merged() merged} content.
+   *
+   * @param reader reads the items, must not change them
+   * @param <R> type of the result
+   * @return result of the reader
+   */
+  <R> R read(@NotNull Function<ConfigGroup, R> reader) {
+    loadShards();
+    lock.readLock().lock();
+    try {
+      return reader.apply(merged());
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
   /**
-   * Retrieves an Item from the configuration structure.
+   * Serializes the items of this config.
    *
-   * @param path path to item in format: group.item
-   * @return item if found, null otherwise
+   * @return json object holding every item
    */
-  public BaseConfigItem<?> getItem(@NotNull String path) {
-    Objects.requireNonNull(path);
-    var paths = new LinkedList<>(Arrays.asList(path.split("\\.")));
+  JsonObject toJson() {
+    loadShards();
+    lock.readLock().lock();
     try {
-      var parent = getParent(items, paths);
-      var selectedItem = parent.getItem(paths.getLast());
-      return selectedItem;
-    } catch (NoSuchElementException e) {
-      LOGGER.error("Item " + paths.getFirst() + " in path " + path + " was not found");
-      return null;
+      var object = new JsonObject();
+      items.toJson(object);
+      return object.getAsJsonObject(items.getKey());
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
+  /**
+   * Runs a query over the configuration.
+   * Compile queries that are run often once with {@link ConfigQuery#compile(String)}
+   * and use {@link #query(ConfigQuery)} instead.
+   *
+   * @param query query in the format: group.list[*].item
+   * @return cursor over the items found
+   * @throws IllegalArgumentException if the query is malformed
+   * @see ConfigQuery
+   */
+  public QueryCursor query(@NotNull String query) {
+    return query(ConfigQuery.compile(query));
+  }
+
+  /**
+   * Runs a compiled query over the configuration.
+   *
+   * @param query compiled query
+   * @return cursor over the items found
+   */
+  public QueryCursor query(@NotNull ConfigQuery query) {
+    Objects.requireNonNull(query);
+    loadShards();
+    return query.cursor(items);
+  }
+
   /**
    * Removes an item from the Config File.
    *
@@ -222,12 +1132,17 @@ public final class Config {
    */
   public void removeItem(@NotNull String path) {
     Objects.requireNonNull(path);
+    ensureMutable();
+    loadShardOf(path);
     var paths = new LinkedList<>(Arrays.asList(path.split("\\.")));
+    lock.writeLock().lock();
     try {
       var parent = getParent(items, paths);
       parent.removeItem(paths.getLast());
     } catch (NoSuchElementException e) {
       LOGGER.error("Item " + paths.getFirst() + " in path " + path + " was not found");
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
@@ -239,12 +1154,16 @@ public final class Config {
    */
   public boolean hasItem(@NotNull String path) {
     Objects.requireNonNull(path);
+    loadShardOf(path);
     var paths = new LinkedList<>(Arrays.asList(path.split("\\.")));
+    lock.readLock().lock();
     try {
       getParent(items, paths);
       return true;
     } catch (NoSuchElementException e) {
-      return false;
+      return defaults != null && defaults.find(path) != null;
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
@@ -258,19 +1177,31 @@ public final class Config {
   public void setItem(@NotNull String path, @NotNull BaseConfigItem<?> item) {
     Objects.requireNonNull(path);
     Objects.requireNonNull(item);
-    var parent = getItem(path);
-    if (parent == null) {
-      LOGGER.error("Path not found: " + path);
-    } else if (parent.isGroup()) {
-      parent.asGroup().setItem(item);
-      return;
-    } else if (parent.isList()) {
-      parent.asList().addItem(item);
-      return;
-    } else {
-      LOGGER.error("Item from " + path + " was not a group or list ");
+    ensureMutable();
+    loadShardOf(path);
+    lock.writeLock().lock();
+    var wasDirty = dirty;
+    var copies = new ArrayDeque<Runnable>();
+    var added = false;
+    try {
+      var parent = writable(path, copies);
+      if (parent == null) {
+        LOGGER.error("Path not found: " + path);
+      } else if (parent.isGroup()) {
+        parent.asGroup().setItem(item);
+        added = true;
+      } else if (parent.isList()) {
+        parent.asList().addItem(item);
+        added = true;
+      } else {
+        LOGGER.error("Item from " + path + " was not a group or list ");
+      }
+    } finally {
+      if (!added) {
+        revert(copies, wasDirty);
+      }
+      lock.writeLock().unlock();
     }
-    return;
   }
 
   /**
@@ -280,7 +1211,14 @@ public final class Config {
    */
   public void setItem(@NotNull BaseConfigItem<?> item) {
     Objects.requireNonNull(item);
-    items.setItem(item);
+    ensureMutable();
+    loadShard(item.getKey());
+    lock.writeLock().lock();
+    try {
+      items.setItem(item);
+    } finally {
+      lock.writeLock().unlock();
+    }
     return;
   }
 
@@ -292,7 +1230,14 @@ public final class Config {
    */
   public boolean addItem(@NotNull BaseConfigItem<?> item) {
     Objects.requireNonNull(item);
-    return items.addItem(item);
+    ensureMutable();
+    loadShard(item.getKey());
+    lock.writeLock().lock();
+    try {
+      return items.addItem(item);
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
@@ -305,19 +1250,31 @@ public final class Config {
   public boolean addItem(@NotNull String path, @NotNull BaseConfigItem<?> item) {
     Objects.requireNonNull(path);
     Objects.requireNonNull(item);
-    var parent = getItem(path);
-    if (parent == null) {
-      return false;
-    }
+    ensureMutable();
+    loadShardOf(path);
+    lock.writeLock().lock();
+    var wasDirty = dirty;
+    var copies = new ArrayDeque<Runnable>();
+    var added = false;
+    try {
+      var parent = writable(path, copies);
+      if (parent == null) {
+        return false;
+      }
 
-    if (parent.isGroup()) {
-      return parent.asGroup().addItem(item);
-    }
-    if (parent.isList()) {
-      parent.asList().addItem(item);
-      return true;
+      if (parent.isGroup()) {
+        added = parent.asGroup().addItem(item);
+      } else if (parent.isList()) {
+        parent.asList().addItem(item);
+        added = true;
+      }
+      return added;
+    } finally {
+      if (!added) {
+        revert(copies, wasDirty);
+      }
+      lock.writeLock().unlock();
     }
-    return false;
   }
 
   /**
@@ -328,13 +1285,587 @@ public final class Config {
    */
   public Type getType(@NotNull String path) {
     Objects.requireNonNull(path);
+    loadShardOf(path);
     var paths = new LinkedList<>(Arrays.asList(path.split("\\.")));
+    lock.readLock().lock();
     try {
       var parent = getParent(items, paths);
       return parent.getItem(paths.getLast()).getType(); 
     } catch (NoSuchElementException e) {
+      var item = defaults != null ? defaults.find(path) : null;
+      return item != null ? item.getType() : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Computes the JSON Patch that turns this config into the given one.
+   * Apply it with {@link Transaction#applyPatch(List)}.
+   *
+   * @param target config to compare with
+   * @return operations, empty if both configs are equal
+   * @see ConfigDiff#diff(BaseConfigItem, BaseConfigItem)
+   */
+  public List<PatchOperation> diff(@NotNull Config target) {
+    Objects.requireNonNull(target);
+    loadShards();
+    target.loadShards();
+    lock.readLock().lock();
+    target.lock.readLock().lock();
+    try {
+      return ConfigDiff.diff(merged(), target.merged());
+    } finally {
+      target.lock.readLock().unlock();
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets a 64 bit hash of everything in this config.
+   * Configs with the same content have the same fingerprint in every process, so nodes can
+   * compare fingerprints instead of files. The hash is cached in the items and updated along
+   * the path of each change, so calling this after a change only hashes the changed items
+   * and their parents. With {@link ConfigDefaults} the changed items are hashed together with
+   * the defaults, so a config that only stores some of its items has the same fingerprint as one
+   * that stores all of them; after a change this copies the defaults once.
+   *
+   * @return content hash of the root group
+   * @see BaseConfigItem#contentHash()
+   */
+  public long fingerprint() {
+    loadShards();
+    lock.readLock().lock();
+    try {
+      return merged().contentHash();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Locates the items that differ between this config and the given one,
+   * skipping every subtree whose content hash matches.
+   *
+   * @param target config to compare with
+   * @return JSON Pointers of the items that differ, empty if the fingerprints match
+   * @see ConfigDiff#differences(BaseConfigItem, BaseConfigItem)
+   */
+  public List<String> differences(@NotNull Config target) {
+    Objects.requireNonNull(target);
+    loadShards();
+    target.loadShards();
+    lock.readLock().lock();
+    target.lock.readLock().lock();
+    try {
+      return ConfigDiff.differences(merged(), target.merged());
+    } finally {
+      target.lock.readLock().unlock();
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Computes the JSON Merge Patch that turns this config into the given one.
+   * Apply it with {@link Transaction#applyMergePatch(JsonElement)}.
+   *
+   * @param target config to compare with
+   * @return merge patch, an empty object if both configs are equal
+   * @see ConfigDiff#mergePatch(BaseConfigItem, BaseConfigItem)
+   */
+  public JsonObject mergePatch(@NotNull Config target) {
+    Objects.requireNonNull(target);
+    loadShards();
+    target.loadShards();
+    lock.readLock().lock();
+    target.lock.readLock().lock();
+    try {
+      return ConfigDiff.mergePatch(merged(), target.merged()).getAsJsonObject();
+    } finally {
+      target.lock.readLock().unlock();
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Applies a group of changes atomically.
+   * The changes are staged on the given {@link Transaction} and applied under this config's
+   * lock, so readers using this config never see some of them without the others.
+   * If any change fails, every change already applied is rolled back and the error is rethrown.
+   * Otherwise the file is saved once and listeners are notified once with every changed item.
+   *
+   * <pre>{@code
+   * config.batch(tx -> tx
+   *     .setValue("server.port", 25565)
+   *     .removeItem("server.motd")
+   *     .addItem("server", new ConfigBoolean("whitelist", true)));
+   * }</pre>
+   *
+   * @param changes stages the changes to apply
+   * @throws IllegalArgumentException if a staged change is invalid
+   * @throws IllegalStateException if the config is frozen
+   */
+  public void batch(@NotNull Consumer<Transaction> changes) {
+    Objects.requireNonNull(changes);
+    ensureMutable();
+    var transaction = new Transaction(this);
+    changes.accept(transaction);
+    if (shards != null) {
+      var roots = transaction.roots();
+      if (roots == null) {
+        loadShards();
+      } else {
+        roots.forEach(this::loadShard);
+      }
+    }
+    List<BaseConfigItem<?>> changed;
+    lock.writeLock().lock();
+    try {
+      var wasDirty = dirty;
+      List<JsonObject> records;
+      pending = new ArrayList<>();
+      pendingRecords = journal != null ? new ArrayList<>() : null;
+      try {
+        transaction.apply(items);
+      } catch (RuntimeException e) {
+        dirty = wasDirty;
+        throw e;
+      } finally {
+        changed = pending;
+        records = pendingRecords;
+        pending = null;
+        pendingRecords = null;
+      }
+      if (records != null) {
+        appendJournal(records);
+      } else if (!changed.isEmpty()) {
+        saveFile();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (!changed.isEmpty()) {
+      notifyListeners(changed);
+    }
+  }
+
+  /**
+   * Creates a constant following the value of the item at the given path,
+   * which compiled code can read without loading the item.
+   *
+   * @param path path to item in format: group.item
+   * @param type type of the value, e.g. {@code Boolean.class} or {@code Number.class}
+   * @param <T> type of the value
+   * @return constant of the value, close it when it's no longer used
+   * @throws ClassCastException if the value isn't of the given type
+   * @see ConfigConstant
+   */
+  public <T> ConfigConstant<T> constant(@NotNull String path, @NotNull Class<T> type) {
+    return new ConfigConstant<>(this, path, type);
+  }
+
+  /**
+   * Adds a listener notified when items in this config change.
+   *
+   * @param listener listener to add
+   */
+  public void addListener(@NotNull ConfigListener listener) {
+    listeners.add(Objects.requireNonNull(listener));
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener listener to remove
+   * @return true if removed, false if it wasn't added
+   */
+  public boolean removeListener(@NotNull ConfigListener listener) {
+    return listeners.remove(Objects.requireNonNull(listener));
+  }
+
+  /**
+   * Checks if this config changed since it was last read or saved.
+   *
+   * @return true if there are unsaved changes, false otherwise
+   */
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  /**
+   * Called when an item in this config changes.
+   *
+   * @param origin item whose value changed
+   */
+  private void onChange(BaseConfigItem<?> origin) {
+    dirty = true;
+    var shards = this.shards;
+    if (shards != null && !loading) {
+      shards.changed(items, origin);
+    }
+    record(origin);
+    if (pending != null && lock.isWriteLockedByCurrentThread()) {
+      pending.add(origin);
+      return;
+    }
+    notifyListeners(List.of(origin));
+  }
+
+  /**
+   * Runs an atomic update of an item under the write lock, so it doesn't overlap with other
+   * changes. Listeners are notified once the lock is released, like after a batch.
+   *
+   * @param update replaces the value and notifies
+   * @return result of the update
+   */
+  private boolean update(BooleanSupplier update) {
+    if (lock.isWriteLockedByCurrentThread()) {
+      return update.getAsBoolean();
+    }
+    List<BaseConfigItem<?>> changed;
+    boolean result;
+    lock.writeLock().lock();
+    try {
+      pending = new ArrayList<>();
+      try {
+        result = update.getAsBoolean();
+      } finally {
+        changed = pending;
+        pending = null;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (!changed.isEmpty()) {
+      notifyListeners(changed);
+    }
+    return result;
+  }
+
+  /**
+   * Records a change in the journal, or stages it while a batch is applied.
+   *
+   * @param origin item whose value changed
+   */
+  private void record(BaseConfigItem<?> origin) {
+    if (journal == null || loading) {
+      return;
+    }
+    JsonObject record;
+    if (staged != null && stagedOrigin == origin) {
+      record = staged;
+    } else {
+      record = ConfigJournal.set(items, origin);
+    }
+    staged = null;
+    stagedOrigin = null;
+    if (record == null) {
+      return;
+    }
+    if (pendingRecords != null && lock.isWriteLockedByCurrentThread()) {
+      pendingRecords.add(record);
+      return;
+    }
+    appendJournal(List.of(record));
+  }
+
+  private void appendJournal(List<JsonObject> records) {
+    var journal = this.journal;
+    if (journal == null) {
+      return;
+    }
+    try {
+      journal.append(records);
+    } catch (IOException e) {
+      LOGGER.error("Could not write journal " + journal.getFile());
+      e.printStackTrace();
+      return;
+    }
+    if (journal.isFull()) {
+      saveFile();
+    }
+  }
+
+  /**
+   * Replays the journal after the file was loaded.
+   *
+   * @param length size of the file, -1 if there is none
+   * @param crc CRC32 of the file
+   * @throws IOException if reading the journal fails
+   */
+  private void replayJournal(long length, long crc) throws IOException {
+    if (journal != null) {
+      var replayed = journal.replay(items, length, crc);
+      if (replayed > 0) {
+        LOGGER.info("Recovered " + replayed + " changes from " + journal.getFile());
+      }
+    }
+  }
+
+  private void notifyListeners(List<BaseConfigItem<?>> changed) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    var unique = Collections.newSetFromMap(new IdentityHashMap<BaseConfigItem<?>, Boolean>());
+    var distinct = new ArrayList<BaseConfigItem<?>>();
+    for (var item : changed) {
+      if (unique.add(item)) {
+        distinct.add(item);
+      }
+    }
+    var view = Collections.unmodifiableList(distinct);
+    for (var listener : listeners) {
+      listener.onChange(this, view);
+    }
+  }
+
+  /**
+   * Fills in and commits a file event for this config.
+   *
+   * @param event event to commit
+   * @param bytes size of the serialized config
+   */
+  private void commitFileEvent(ConfigFileEvent event, long bytes) {
+    event.path = file.getPath();
+    event.bytes = bytes;
+    event.itemCount = ConfigEvents.countItems(items);
+    event.commit();
+  }
+
+  /**
+   * Merged content of a config with defaults, and the content hash of the items it was built from.
+   */
+  private static final class Merged {
+    private final long source;
+    private final ConfigGroup root;
+
+    private Merged(long source, ConfigGroup root) {
+      this.source = source;
+      this.root = root;
+    }
+  }
+
+  /**
+   * Stores a copy of a default in this config once it's changed.
+   */
+  private final class DefaultCopy implements ItemObserver {
+    private final String path;
+    private final BaseConfigItem<?> copy;
+
+    private DefaultCopy(String path, BaseConfigItem<?> copy) {
+      this.path = path;
+      this.copy = copy;
+    }
+
+    @Override
+    public void changed(@NotNull BaseConfigItem<?> origin) {
+      adopt(path, copy);
+    }
+
+    @Override
+    public boolean update(@NotNull BooleanSupplier update) {
+      return Config.this.update(update);
+    }
+  }
+
+  /**
+   * Passes changes in the item tree on to this config.
+   */
+  private final class Observer implements ItemObserver {
+    @Override
+    public void changed(@NotNull BaseConfigItem<?> origin) {
+      onChange(origin);
+    }
+
+    @Override
+    public boolean update(@NotNull BooleanSupplier update) {
+      return Config.this.update(update);
+    }
+
+    @Override
+    public void removing(@NotNull BaseConfigItem<?> parent, @NotNull BaseConfigItem<?> item,
+        int index) {
+      var shards = Config.this.shards;
+      if (shards != null && parent == items && !loading) {
+        shards.removing(item);
+      }
+      if (journal != null && !loading) {
+        staged = ConfigJournal.remove(items, parent, item, index);
+        stagedOrigin = parent;
+      }
+    }
+
+    @Override
+    public void inserted(@NotNull BaseConfigItem<?> parent, @NotNull BaseConfigItem<?> item,
+        int index) {
+      if (journal != null && !loading) {
+        staged = ConfigJournal.insert(items, item);
+        stagedOrigin = item;
+      }
+    }
+  }
+
+  /**
+   * Gets the item at the end of the path to change it.
+   * Items only found in the defaults are copied into this config first.
+   *
+   * @param path path to item in format: group.item
+   * @param copies collects what removes the copies again
+   * @return item stored in this config, null if not found
+   */
+  private BaseConfigItem<?> writable(String path, Deque<Runnable> copies) {
+    var keys = path.split("\\.");
+    BaseConfigItem<?> item = items;
+    for (int i = 0; i < keys.length && item != null; i++) {
+      item = item.isGroup() ? child(item.asGroup(), keys, i, copies) : null;
+    }
+    return item;
+  }
+
+  /**
+   * Gets a child of a group in this config to change it.
+   * If the group doesn't have it but the defaults do, the default is copied into the group:
+   * groups are copied empty, any other item with its value.
+   *
+   * @param group group stored in this config at the path of the first index keys
+   * @param keys keys of the path
+   * @param index index of the key of the child
+   * @param copies collects what removes the copy again, if one was made
+   * @return child stored in this config, null if not found
+   */
+  BaseConfigItem<?> child(@NotNull ConfigGroup group, String[] keys, int index,
+      @NotNull Deque<Runnable> copies) {
+    var item = group.getItem(keys[index]);
+    if (item != null || defaults == null) {
+      return item;
+    }
+    var shared = defaults.find(keys, index + 1);
+    if (shared == null) {
       return null;
     }
+    var copy = shared.isGroup() ? new ConfigGroup(shared.getKey()) : shared.copy();
+    group.addItem(copy);
+    copies.push(() -> group.removeItem(copy.getKey()));
+    return copy;
+  }
+
+  /**
+   * Removes the copies of defaults made for a change that failed.
+   *
+   * @param copies removes the copies, latest first
+   * @param wasDirty whether the config was dirty before the change
+   */
+  private void revert(Deque<Runnable> copies, boolean wasDirty) {
+    if (copies.isEmpty()) {
+      return;
+    }
+    while (!copies.isEmpty()) {
+      copies.pop().run();
+    }
+    dirty = wasDirty;
+  }
+
+  /**
+   * Gets the default of an item this config doesn't store. Groups are returned from the
+   * defaults, any other item as a copy that is stored in this config once it's changed.
+   *
+   * @param path path to item in format: group.item
+   * @return item if found in the defaults, null otherwise
+   */
+  private BaseConfigItem<?> fromDefaults(String path) {
+    var shared = defaults != null ? defaults.find(path) : null;
+    if (shared == null || shared.isGroup() || frozen) {
+      return shared;
+    }
+    var copy = shared.copy();
+    copy.setObserver(new DefaultCopy(path, copy));
+    return copy;
+  }
+
+  /**
+   * Stores a copy of a default that was changed at its path.
+   *
+   * @param path path to item in format: group.item
+   * @param copy copy returned by {@link #fromDefaults(String)}
+   * @throws IllegalArgumentException if the path no longer ends in a group of this config
+   */
+  private void adopt(String path, BaseConfigItem<?> copy) {
+    ensureMutable();
+    loadShardOf(path);
+    lock.writeLock().lock();
+    var wasDirty = dirty;
+    var copies = new ArrayDeque<Runnable>();
+    try {
+      var end = path.lastIndexOf('.');
+      var parent = end < 0 ? items : writable(path.substring(0, end), copies);
+      if (parent == null || !parent.isGroup()) {
+        throw new IllegalArgumentException("Item " + path + " was replaced in config " 
+            + file.getName());
+      }
+      copy.setObserver(null);
+      parent.asGroup().setItem(copy);
+      copies.clear();
+    } finally {
+      revert(copies, wasDirty);
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the content of this config: the root group, or with {@link ConfigDefaults} a copy of
+   * the defaults with the items of this config laid over them. The copy is kept until the
+   * items of this config change. Must be called while holding the lock.
+   *
+   * @return root group to read, must not be changed
+   */
+  ConfigGroup merged() {
+    if (defaults == null) {
+      return items;
+    }
+    var source = items.contentHash();
+    var merged = this.merged;
+    if (merged == null || merged.source != source) {
+      var root = defaults.root().copy();
+      overlay(root, items);
+      merged = new Merged(source, root);
+      this.merged = merged;
+    }
+    return merged.root;
+  }
+
+  private static void overlay(ConfigGroup merged, ConfigGroup own) {
+    for (var item : own) {
+      var shared = merged.getItem(item.getKey());
+      if (item.isGroup() && shared != null && shared.isGroup()) {
+        overlay(shared.asGroup(), item.asGroup());
+      } else {
+        merged.setItem(item.copy());
+      }
+    }
+  }
+
+  /**
+   * Copies the defaults that will be loaded from a file, so they keep their constraints.
+   *
+   * @param group group stored in this config
+   * @param shared default group at the same path
+   * @param json values that will be loaded into group
+   */
+  private static void copyDefaults(ConfigGroup group, ConfigGroup shared, JsonObject json) {
+    for (var entry : json.entrySet()) {
+      var item = shared.getItem(entry.getKey());
+      if (item == null) {
+        continue;
+      }
+      var own = group.getItem(entry.getKey());
+      if (own == null) {
+        own = item.isGroup() ? new ConfigGroup(item.getKey()) : item.copy();
+        group.addItem(own);
+      }
+      if (own.isGroup() && item.isGroup() && entry.getValue().isJsonObject()) {
+        copyDefaults(own.asGroup(), item.asGroup(), entry.getValue().getAsJsonObject());
+      }
+    }
   }
 
   /**
@@ -354,16 +1885,13 @@ public final class Config {
       return parent;
     }
     if (paths.size() > 1) {
-      var key = paths.getFirst();
-      if (!parent.hasItem(key)) {
-        throw new NoSuchElementException();
-      }
-      var item = parent.getItem(key);
-      if (!item.isGroup()) {
+      // one lookup per level, this runs for every path that is read
+      var item = parent.getItem(paths.getFirst());
+      if (item == null || !item.isGroup()) {
         throw new NoSuchElementException();
       }
       paths.removeFirst();
-      return getParent(parent.getItem(key).asGroup(), paths);
+      return getParent(item.asGroup(), paths);
     }
     throw new NoSuchElementException();
   }
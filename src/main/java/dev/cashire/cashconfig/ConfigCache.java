@@ -0,0 +1,299 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Cache of {@link Config} instances loaded on demand by key, such as one config per player
+ * or per region. Configs are created by the given loader and read when first requested.
+ * The least recently used configs are evicted once the cache holds more than its budget,
+ * and configs with unsaved changes are saved before they are dropped.
+ *
+ * <p>The cache is thread-safe. A config requested by many threads at once is loaded once,
+ * the other threads wait for it. A config requested while it is being saved after eviction
+ * is put back into the cache instead of being read again.
+ *
+ * @param <K> type of the keys
+ */
+public final class ConfigCache<K> implements AutoCloseable {
+  private final Function<K, Config> loader;
+  private final ToLongFunction<Config> weigher;
+  private final long maxWeight;
+  private final LinkedHashMap<K, Entry> configs = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<K, CompletableFuture<Config>> loading = new HashMap<>();
+  private final Map<K, Config> evicted = new HashMap<>();
+  private long weight;
+
+  /**
+   * Creates a cache holding at most the given amount of configs.
+   *
+   * @param loader creates the config of a key, {@link Config#readFile()} is called by the cache
+   * @param maxSize max amount of configs kept
+   * @throws IllegalArgumentException if maxSize is less than 1
+   */
+  public ConfigCache(@NotNull Function<K, Config> loader, int maxSize) {
+    this(loader, maxSize, config -> 1);
+  }
+
+  /**
+   * Creates a cache holding configs up to the given total weight, for example to budget
+   * memory by weighing configs with the size of their file.
+   * Configs are weighed once when loaded. A single config heavier than the budget is
+   * still kept until another one is loaded.
+   *
+   * @param loader creates the config of a key, {@link Config#readFile()} is called by the cache
+   * @param maxWeight max total weight of the configs kept
+   * @param weigher weight of a loaded config, not negative
+   * @throws IllegalArgumentException if maxWeight is less than 1
+   */
+  public ConfigCache(@NotNull Function<K, Config> loader, long maxWeight, 
+      @NotNull ToLongFunction<Config> weigher) {
+    if (maxWeight < 1) {
+      throw new IllegalArgumentException("Max weight must be positive: " + maxWeight);
+    }
+    this.loader = Objects.requireNonNull(loader);
+    this.weigher = Objects.requireNonNull(weigher);
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Gets the config of a key, loading it if it isn't cached.
+   *
+   * @param key key of the config
+   * @return the config
+   * @throws RuntimeException thrown by the loader
+   */
+  public Config get(@NotNull K key) {
+    Objects.requireNonNull(key);
+    CompletableFuture<Config> future;
+    List<Map.Entry<K, Config>> dropped;
+    Config config;
+    synchronized (this) {
+      var entry = configs.get(key);
+      if (entry != null) {
+        return entry.config;
+      }
+      future = loading.get(key);
+      config = evicted.get(key);
+      if (future != null) {
+        dropped = List.of();
+      } else if (config != null) {
+        dropped = put(key, config, weigher.applyAsLong(config));
+      } else {
+        loading.put(key, new CompletableFuture<>());
+        dropped = null;
+      }
+    }
+    if (future != null) {
+      try {
+        return future.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    }
+    if (dropped == null) {
+      return load(key);
+    }
+    writeBack(dropped);
+    return config;
+  }
+
+  /**
+   * Gets the config of a key if it is cached.
+   * Like {@link #get(Object)}, this counts as a use of the config.
+   *
+   * @param key key of the config
+   * @return the config, null if it isn't loaded
+   */
+  public synchronized Config getIfPresent(@NotNull K key) {
+    var entry = configs.get(Objects.requireNonNull(key));
+    return entry != null ? entry.config : null;
+  }
+
+  /**
+   * Saves and drops the config of a key.
+   *
+   * @param key key of the config
+   * @return true if the config was cached, false otherwise
+   */
+  public boolean invalidate(@NotNull K key) {
+    Objects.requireNonNull(key);
+    Config config;
+    synchronized (this) {
+      var entry = configs.remove(key);
+      if (entry == null) {
+        return false;
+      }
+      weight -= entry.weight;
+      config = entry.config;
+      evicted.put(key, config);
+    }
+    writeBack(key, config);
+    return true;
+  }
+
+  /**
+   * Saves every cached config with unsaved changes.
+   */
+  public void flush() {
+    List<Config> dirty = new ArrayList<>();
+    synchronized (this) {
+      for (var entry : configs.values()) {
+        if (entry.config.isDirty()) {
+          dirty.add(entry.config);
+        }
+      }
+    }
+    for (var config : dirty) {
+      config.saveFile();
+    }
+  }
+
+  /**
+   * Amount of cached configs.
+   *
+   * @return count of configs
+   */
+  public synchronized int size() {
+    return configs.size();
+  }
+
+  /**
+   * Total weight of the cached configs.
+   *
+   * @return weight, the amount of configs if created with a max size
+   */
+  public synchronized long weight() {
+    return weight;
+  }
+
+  /**
+   * Saves and drops every cached config.
+   */
+  @Override
+  public void close() {
+    Map<K, Config> dropped = new HashMap<>();
+    synchronized (this) {
+      configs.forEach((key, entry) -> dropped.put(key, entry.config));
+      configs.clear();
+      weight = 0;
+      evicted.putAll(dropped);
+    }
+    dropped.forEach(this::writeBack);
+  }
+
+  private Config load(K key) {
+    CompletableFuture<Config> future;
+    Config config;
+    long configWeight;
+    try {
+      config = Objects.requireNonNull(loader.apply(key), "Loader returned null for " + key);
+      config.readFile();
+      configWeight = weigher.applyAsLong(config);
+      if (configWeight < 0) {
+        throw new IllegalArgumentException("Negative weight " + configWeight + " for " + key);
+      }
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        future = loading.remove(key);
+      }
+      future.completeExceptionally(e);
+      throw e;
+    }
+    List<Map.Entry<K, Config>> dropped;
+    synchronized (this) {
+      future = loading.remove(key);
+      dropped = put(key, config, configWeight);
+    }
+    future.complete(config);
+    writeBack(dropped);
+    return config;
+  }
+
+  /**
+   * Caches a config and evicts the least recently used ones over the budget.
+   * Must hold the lock.
+   *
+   * @return evicted configs that still have to be written back
+   */
+  private List<Map.Entry<K, Config>> put(K key, Config config, long configWeight) {
+    configs.put(key, new Entry(config, configWeight));
+    evicted.remove(key);
+    weight += configWeight;
+    List<Map.Entry<K, Config>> dropped = new ArrayList<>();
+    var iterator = configs.entrySet().iterator();
+    while (weight > maxWeight && configs.size() > 1) {
+      var eldest = iterator.next();
+      iterator.remove();
+      weight -= eldest.getValue().weight;
+      evicted.put(eldest.getKey(), eldest.getValue().config);
+      dropped.add(Map.entry(eldest.getKey(), eldest.getValue().config));
+    }
+    return dropped;
+  }
+
+  private void writeBack(List<Map.Entry<K, Config>> dropped) {
+    for (var entry : dropped) {
+      writeBack(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Saves an evicted config if it has unsaved changes, then forgets it
+   * unless it was requested again meanwhile.
+   */
+  private void writeBack(K key, Config config) {
+    try {
+      if (config.isDirty()) {
+        config.saveFile();
+      }
+    } finally {
+      synchronized (this) {
+        evicted.remove(key, config);
+      }
+    }
+  }
+
+  private static final class Entry {
+    final Config config;
+    final long weight;
+
+    Entry(Config config, long weight) {
+      this.config = config;
+      this.weight = weight;
+    }
+  }
+}
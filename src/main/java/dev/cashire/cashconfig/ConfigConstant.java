@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Value of a config item that the JIT can treat as a constant, for flags read in hot code.
+ * The value is the target of a {@link MutableCallSite}, which is relinked when the item
+ * at the path changes, is replaced or is removed.
+ * Until then, compiled code reading the value through {@link #handle()} doesn't load
+ * any fields and code behind a false flag can be removed.
+ *
+ * <p>The JIT only folds handles it can see as constants, so keep the handle in a
+ * {@code static final} field:
+ * <pre>{@code
+ * static final MethodHandle DEBUG = config.constant("debug.enabled", Boolean.class).handle();
+ * ...
+ * if ((Boolean) DEBUG.invokeExact()) {
+ * }</pre>
+ *
+ * @param <T> type of the value
+ * @see Config#constant(String, Class)
+ */
+public final class ConfigConstant<T> implements AutoCloseable {
+  private final Config config;
+  private final String path;
+  private final Class<T> type;
+  private final MutableCallSite site;
+  private final MethodHandle invoker;
+  private final ConfigListener listener = (config, changed) -> refresh();
+  private volatile T value;
+
+  /**
+   * Creates a constant for the item at the given path.
+   *
+   * @param config config holding the item
+   * @param path path to item in format: group.item
+   * @param type type of the value
+   * @throws ClassCastException if the value isn't of the given type
+   */
+  ConfigConstant(@NotNull Config config, @NotNull String path, @NotNull Class<T> type) {
+    this.config = Objects.requireNonNull(config);
+    this.path = Objects.requireNonNull(path);
+    this.type = Objects.requireNonNull(type);
+    value = read();
+    site = new MutableCallSite(MethodHandles.constant(type, value));
+    invoker = site.dynamicInvoker();
+    config.addListener(listener);
+  }
+
+  /**
+   * Gets a handle of type {@code ()T} returning the current value.
+   * Invoke it with {@code invokeExact} and a cast to the type of the value.
+   *
+   * @return handle returning the value
+   */
+  public MethodHandle handle() {
+    return invoker;
+  }
+
+  /**
+   * Gets the current value. Unlike {@link #handle()}, this can't be folded by the JIT.
+   *
+   * @return value of the item, null if there is no item at the path
+   */
+  public T get() {
+    return value;
+  }
+
+  /**
+   * Gets the path of the item.
+   *
+   * @return path in format: group.item
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Reads the item again and relinks the handle if its value changed.
+   * Called for every change of the config, only needed if the item was changed while
+   * the config was not notified, e.g. before the item was added to it.
+   *
+   * @throws ClassCastException if the value isn't of the type of this constant
+   */
+  public void refresh() {
+    // the item is read without holding the monitor, as listeners may run under the config's
+    // write lock; a thread that relinked reads again, so a stale read doesn't stay linked
+    while (true) {
+      var current = read();
+      synchronized (this) {
+        if (Objects.equals(current, value)) {
+          return;
+        }
+        value = current;
+        site.setTarget(MethodHandles.constant(type, current));
+        // other threads may keep the previous target until the site is synced
+        MutableCallSite.syncAll(new MutableCallSite[] {site});
+      }
+    }
+  }
+
+  /**
+   * Stops following changes of the config, the handle keeps its last value.
+   */
+  @Override
+  public void close() {
+    config.removeListener(listener);
+  }
+
+  private T read() {
+    var item = config.findItem(path);
+    return item == null ? null : type.cast(item.getValue());
+  }
+}
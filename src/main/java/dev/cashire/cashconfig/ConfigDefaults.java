@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read-only default items shared by many configs, such as one config per player.
+ * A config created with {@link Config#Config(ConfigDefaults, java.io.File)} only stores the
+ * items that were changed from these defaults, and only saves those to its file.
+ *
+ * <p>Items that weren't changed are returned as copies of their defaults, which are stored in
+ * the config when they are first changed. Groups that weren't changed are returned from the
+ * defaults and can't be changed directly; change their items by path instead. Groups are copied
+ * empty, so a group returned by the config only holds its changed items.
+ * {@link Config#getItems()}, {@link Config#fingerprint()} and the diffs of the config see the
+ * defaults together with the changed items. Removing a changed item from the config resets it
+ * to its default.
+ */
+public final class ConfigDefaults {
+  private final ConfigGroup items;
+
+  /**
+   * Creates shared defaults. The items are frozen, they must not be used anywhere else.
+   *
+   * @param items default items
+   * @see BaseConfigItem#freeze()
+   */
+  public ConfigDefaults(@NotNull List<BaseConfigItem<?>> items) {
+    this.items = new ConfigGroup("root", Objects.requireNonNull(items));
+    this.items.freeze();
+  }
+
+  /**
+   * Gets the default items.
+   *
+   * @return unmodifiable list of frozen items
+   */
+  public List<BaseConfigItem<?>> getItems() {
+    return items.getValue();
+  }
+
+  /**
+   * Retrieves a default item.
+   *
+   * @param path path to item in format: group.item
+   * @return frozen item if found, null otherwise
+   */
+  public BaseConfigItem<?> getItem(@NotNull String path) {
+    return find(Objects.requireNonNull(path));
+  }
+
+  ConfigGroup root() {
+    return items;
+  }
+
+  BaseConfigItem<?> find(String path) {
+    var keys = path.split("\\.");
+    return find(keys, keys.length);
+  }
+
+  /**
+   * Finds the item at the path made of the first keys.
+   *
+   * @param keys keys of the path
+   * @param length amount of keys to use
+   * @return item if found, null otherwise
+   */
+  BaseConfigItem<?> find(String[] keys, int length) {
+    BaseConfigItem<?> item = items;
+    for (int i = 0; i < length; i++) {
+      if (!item.isGroup()) {
+        return null;
+      }
+      item = item.asGroup().getItem(keys[i]);
+      if (item == null) {
+        return null;
+      }
+    }
+    return item;
+  }
+}
@@ -0,0 +1,494 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static dev.cashire.cashconfig.Constants.LOGGER;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Append-only log of changes made to a {@link Config} since its file was last written.
+ * Every record is a single line of compact json:
+ *
+ * <pre>
+ * {"op":"set","path":["server","ops",3],"value":"Notch"}
+ * {"op":"insert","path":["server","ops",0],"value":"Jeb"}
+ * {"op":"remove","path":["server","motd"]}
+ * {"op":"compact","crc":1234567890,"length":5120}
+ * </pre>
+ *
+ * <p>Paths are keys of groups and indexes of lists, starting at the root of the config.
+ * A compact record is written right before the config file is rewritten, so recovery
+ * knows whether the records before it are already part of the file.
+ */
+final class ConfigJournal {
+  private static final Gson GSON = new Gson();
+  private static final String SET = "set";
+  private static final String INSERT = "insert";
+  private static final String REMOVE = "remove";
+  private static final String COMPACT = "compact";
+  private final File file;
+  private final int maxRecords;
+  private FileOutputStream stream;
+  private int records;
+
+  /**
+   * Creates a journal next to the given config file.
+   *
+   * @param configFile file of the config
+   * @param maxRecords amount of records after which the config should be compacted
+   */
+  ConfigJournal(@NotNull File configFile, int maxRecords) {
+    this.file = new File(configFile.getPath() + ".journal");
+    this.maxRecords = maxRecords;
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  int getMaxRecords() {
+    return maxRecords;
+  }
+
+  /**
+   * Checks if enough records were written to compact the config.
+   *
+   * @return true if the config should be rewritten
+   */
+  synchronized boolean isFull() {
+    return records >= maxRecords;
+  }
+
+  /**
+   * Creates a record setting the item to its current value.
+   *
+   * @param root root of the config
+   * @param item item that changed
+   * @return the record, null if the item isn't part of the config
+   */
+  static JsonObject set(@NotNull ConfigGroup root, @NotNull BaseConfigItem<?> item) {
+    return record(SET, root, item);
+  }
+
+  /**
+   * Creates a record inserting the item into its list.
+   *
+   * @param root root of the config
+   * @param item item that was inserted
+   * @return the record, null if the item isn't part of the config
+   */
+  static JsonObject insert(@NotNull ConfigGroup root, @NotNull BaseConfigItem<?> item) {
+    return record(INSERT, root, item);
+  }
+
+  private static JsonObject record(String op, ConfigGroup root, BaseConfigItem<?> item) {
+    var path = path(root, item);
+    if (path == null) {
+      return null;
+    }
+    var value = new JsonArray();
+    item.toJson(value);
+    var record = new JsonObject();
+    record.addProperty("op", op);
+    record.add("path", path);
+    record.add("value", value.get(0));
+    return record;
+  }
+
+  /**
+   * Creates a record removing an item.
+   *
+   * @param root root of the config
+   * @param parent group or list the item is removed from
+   * @param item item that is removed, still attached to parent
+   * @param index position of the item in a list, -1 for groups
+   * @return the record, null if the parent isn't part of the config
+   */
+  static JsonObject remove(@NotNull ConfigGroup root, @NotNull BaseConfigItem<?> parent,
+      @NotNull BaseConfigItem<?> item, int index) {
+    var path = path(root, parent);
+    if (path == null) {
+      return null;
+    }
+    if (index < 0) {
+      path.add(item.getKey());
+    } else {
+      path.add(index);
+    }
+    var record = new JsonObject();
+    record.addProperty("op", REMOVE);
+    record.add("path", path);
+    return record;
+  }
+
+  /**
+   * Appends records to the journal.
+   *
+   * @param batch records to append
+   * @throws IOException if writing fails
+   */
+  synchronized void append(@NotNull List<JsonObject> batch) throws IOException {
+    if (batch.isEmpty()) {
+      return;
+    }
+    var builder = new StringBuilder();
+    for (var record : batch) {
+      builder.append(GSON.toJson(record)).append('\n');
+    }
+    if (stream == null) {
+      stream = new FileOutputStream(file, true);
+    }
+    stream.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+    stream.flush();
+    records += batch.size();
+  }
+
+  /**
+   * Writes the config file and empties the journal.
+   * The new file is written next to the old one, then a compact record is synced to disk
+   * before the file is replaced, so a crash at any point leaves either the old file with
+   * its records or the new file.
+   *
+   * @param configFile file of the config
+   * @param writer writes the new contents of the config file and closes the stream
+   * @throws IOException if writing fails
+   */
+  synchronized void compact(@NotNull File configFile, @NotNull Writer writer) 
+      throws IOException {
+    var temp = new File(configFile.getPath() + ".tmp");
+    var crc = new CRC32();
+    writer.write(new CheckedOutputStream(new FileOutputStream(temp), crc));
+    install(configFile, temp, crc.getValue());
+  }
+
+  /**
+   * Replaces the config file with a new file and empties the journal.
+   *
+   * @param configFile file of the config
+   * @param temp new config file, in the same directory
+   * @param crc CRC32 of the new file
+   * @throws IOException if writing fails
+   */
+  synchronized void install(@NotNull File configFile, @NotNull File temp, long crc) 
+      throws IOException {
+    try (var channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+
+    var record = new JsonObject();
+    record.addProperty("op", COMPACT);
+    record.addProperty("crc", crc);
+    record.addProperty("length", temp.length());
+    if (stream == null) {
+      stream = new FileOutputStream(file, true);
+    }
+    stream.write((GSON.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8));
+    stream.getFD().sync();
+
+    Files.move(temp.toPath(), configFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+
+    stream.getChannel().truncate(0);
+    stream.getFD().sync();
+    records = 0;
+  }
+
+  /**
+   * Closes the journal and deletes it.
+   */
+  synchronized void delete() {
+    close();
+    if (file.exists() && !file.delete()) {
+      LOGGER.error("Could not delete journal " + file);
+    }
+    records = 0;
+  }
+
+  synchronized void close() {
+    if (stream != null) {
+      try {
+        stream.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+      stream = null;
+    }
+  }
+
+  /**
+   * Replays the journal onto the loaded config.
+   * Records before a compact record matching the config file are skipped,
+   * and a torn last line left by a crash is ignored.
+   *
+   * @param root root of the config, loaded from the config file
+   * @param length size of the config file, -1 if there is none
+   * @param crc CRC32 of the config file
+   * @return amount of records replayed
+   * @throws IOException if reading fails
+   */
+  synchronized int replay(@NotNull ConfigGroup root, long length, long crc) 
+      throws IOException {
+    records = 0;
+    if (!file.exists()) {
+      return 0;
+    }
+    var lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    var parsed = new ArrayList<JsonObject>(lines.size());
+    for (int i = 0; i < lines.size(); i++) {
+      var line = lines.get(i);
+      if (line.isEmpty()) {
+        continue;
+      }
+      try {
+        parsed.add(new JsonParser().parse(line).getAsJsonObject());
+      } catch (JsonParseException | IllegalStateException e) {
+        if (i < lines.size() - 1) {
+          LOGGER.error("Corrupt record " + (i + 1) + " in " + file + ", ignoring the rest");
+        }
+        break;
+      }
+    }
+
+    int start = 0;
+    for (int i = parsed.size() - 1; i >= 0; i--) {
+      var record = parsed.get(i);
+      if (COMPACT.equals(op(record))) {
+        if (length >= 0 && record.get("length").getAsLong() == length
+            && record.get("crc").getAsLong() == crc) {
+          start = i + 1;
+        }
+        break;
+      }
+    }
+
+    int replayed = 0;
+    for (int i = start; i < parsed.size(); i++) {
+      var record = parsed.get(i);
+      var op = op(record);
+      if (COMPACT.equals(op)) {
+        continue;
+      }
+      try {
+        if (SET.equals(op)) {
+          applySet(root, record.getAsJsonArray("path"), record.get("value"));
+        } else if (INSERT.equals(op)) {
+          applyInsert(root, record.getAsJsonArray("path"), record.get("value"));
+        } else if (REMOVE.equals(op)) {
+          applyRemove(root, record.getAsJsonArray("path"));
+        } else {
+          LOGGER.error("Unknown journal operation " + op + " in " + file);
+          continue;
+        }
+        replayed++;
+      } catch (RuntimeException e) {
+        LOGGER.error("Could not replay " + record + " from " + file + ": " + e.getMessage());
+      }
+    }
+    records = replayed;
+    return replayed;
+  }
+
+  private static String op(JsonObject record) {
+    var op = record.get("op");
+    return op == null ? null : op.getAsString();
+  }
+
+  private static void applySet(ConfigGroup root, JsonArray path, JsonElement value) {
+    if (path.size() == 0) {
+      load(root, value);
+      return;
+    }
+    var parent = resolve(root, path, path.size() - 1);
+    var last = path.get(path.size() - 1).getAsJsonPrimitive();
+    var type = BaseConfigItem.getType(value);
+    if (type == null) {
+      throw new IllegalArgumentException("Unsupported value " + value);
+    }
+    if (parent.isGroup()) {
+      var group = parent.asGroup();
+      var existing = group.getItem(last.getAsString());
+      if (existing != null && existing.getType() == type) {
+        load(existing, value);
+      } else {
+        var item = BaseConfigItem.getInstance(type, last.getAsString());
+        item.fromJson(value);
+        group.setItem(item);
+      }
+    } else if (parent.isList()) {
+      var list = parent.asList();
+      int index = last.getAsInt();
+      if (index < list.size() && list.getItem(index).getType() == type) {
+        load(list.getItem(index), value);
+      } else {
+        var item = BaseConfigItem.getInstance(type, "");
+        item.fromJson(value);
+        if (index == list.size()) {
+          list.addItem(item);
+        } else {
+          list.setItem(index, item);
+        }
+      }
+    } else {
+      throw new IllegalArgumentException("Parent of " + path + " is not a group or list");
+    }
+  }
+
+  private static void applyInsert(ConfigGroup root, JsonArray path, JsonElement value) {
+    var parent = resolve(root, path, path.size() - 1);
+    if (!parent.isList()) {
+      throw new IllegalArgumentException("Parent of " + path + " is not a list");
+    }
+    var type = BaseConfigItem.getType(value);
+    if (type == null) {
+      throw new IllegalArgumentException("Unsupported value " + value);
+    }
+    var item = BaseConfigItem.getInstance(type, "");
+    item.fromJson(value);
+    parent.asList().addItem(path.get(path.size() - 1).getAsInt(), item);
+  }
+
+  private static void applyRemove(ConfigGroup root, JsonArray path) {
+    var parent = resolve(root, path, path.size() - 1);
+    var last = path.get(path.size() - 1).getAsJsonPrimitive();
+    if (parent.isGroup()) {
+      parent.asGroup().removeItem(last.getAsString());
+    } else if (parent.isList()) {
+      parent.asList().removeItem(last.getAsInt());
+    } else {
+      throw new IllegalArgumentException("Parent of " + path + " is not a group or list");
+    }
+  }
+
+  /**
+   * Loads a value into an existing item of the same type.
+   * Groups drop keys that aren't in the value, as the record holds the whole group.
+   */
+  private static void load(BaseConfigItem<?> item, JsonElement value) {
+    if (item.isGroup()) {
+      var group = item.asGroup();
+      var keys = new HashSet<String>();
+      for (var entry : value.getAsJsonObject().entrySet()) {
+        keys.add(entry.getKey());
+      }
+      for (var child : group.getValue()) {
+        if (!keys.contains(child.getKey())) {
+          group.removeItem(child.getKey());
+        }
+      }
+    }
+    item.fromJson(value);
+  }
+
+  private static BaseConfigItem<?> resolve(ConfigGroup root, JsonArray path, int length) {
+    BaseConfigItem<?> item = root;
+    for (int i = 0; i < length; i++) {
+      var segment = path.get(i).getAsJsonPrimitive();
+      if (item.isGroup() && segment.isString()) {
+        item = item.asGroup().getItem(segment.getAsString());
+      } else if (item.isList() && segment.isNumber()) {
+        int index = segment.getAsInt();
+        item = index < item.asList().size() ? item.asList().getItem(index) : null;
+      } else {
+        item = null;
+      }
+      if (item == null) {
+        throw new IllegalArgumentException("Path " + path + " was not found");
+      }
+    }
+    return item;
+  }
+
+  /**
+   * Path of keys and list indexes from the root to the item.
+   *
+   * @return the path, null if the item isn't attached to the root
+   */
+  private static JsonArray path(ConfigGroup root, BaseConfigItem<?> item) {
+    var segments = new ArrayList<JsonPrimitive>();
+    var current = item;
+    while (current != root) {
+      var parent = current.getParent();
+      if (parent == null) {
+        return null;
+      }
+      if (parent.isList()) {
+        int index = 0;
+        for (var element : parent.asList()) {
+          if (element == current) {
+            break;
+          }
+          index++;
+        }
+        segments.add(new JsonPrimitive(index));
+      } else {
+        segments.add(new JsonPrimitive(current.getKey()));
+      }
+      current = parent;
+    }
+    var path = new JsonArray();
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      path.add(segments.get(i));
+    }
+    return path;
+  }
+
+  /**
+   * Writes the contents of a config file.
+   */
+  @FunctionalInterface
+  interface Writer {
+    /**
+     * Writes the contents and closes the stream.
+     *
+     * @param stream stream to the new file
+     * @throws IOException if writing fails
+     */
+    void write(OutputStream stream) throws IOException;
+  }
+}
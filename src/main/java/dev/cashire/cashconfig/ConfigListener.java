@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener notified when items in a {@link Config} change.
+ *
+ * @see Config#addListener(ConfigListener)
+ */
+@FunctionalInterface
+public interface ConfigListener {
+  /**
+   * Called after items in the config changed.
+   * A {@link Config#batch(java.util.function.Consumer)} notifies once with every changed item.
+   *
+   * @param config config that changed
+   * @param changed items whose value changed or were added, groups and lists for removed items
+   */
+  void onChange(@NotNull Config config, @NotNull List<BaseConfigItem<?>> changed);
+}
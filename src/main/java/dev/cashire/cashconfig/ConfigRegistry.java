@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static dev.cashire.cashconfig.Constants.LOGGER;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Registry of {@link Config} instances that loads all of them concurrently.
+ * Mods register their configs during initialization and {@link #loadAll()} reads
+ * every pending file at once, so startup cost scales with the largest file
+ * instead of the sum of all of them.
+ */
+public final class ConfigRegistry {
+  private static final ConfigRegistry GLOBAL = new ConfigRegistry();
+  private final Map<Config, CompletableFuture<Config>> configs = new LinkedHashMap<>();
+  private final Set<Config> loading = new HashSet<>();
+  private final int parallelism;
+  private final boolean virtualThreads;
+
+  /**
+   * Creates a registry that loads with one thread per available processor,
+   * or virtual threads if the running JVM supports them.
+   */
+  public ConfigRegistry() {
+    this(Runtime.getRuntime().availableProcessors(), true);
+  }
+
+  /**
+   * Creates a registry.
+   *
+   * @param parallelism max amount of files read at the same time on the thread pool.
+   * @param virtualThreads use a virtual thread per file instead if the JVM supports them.
+   * @throws IllegalArgumentException if parallelism is less than 1
+   */
+  public ConfigRegistry(int parallelism, boolean virtualThreads) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    this.parallelism = parallelism;
+    this.virtualThreads = virtualThreads;
+  }
+
+  /**
+   * Registry shared by all mods.
+   *
+   * @return the global registry
+   */
+  public static ConfigRegistry getGlobal() {
+    return GLOBAL;
+  }
+
+  /**
+   * Registers a config to be loaded by the next {@link #loadAll()}.
+   * Registering the same config twice returns the same future.
+   *
+   * @param config config to register
+   * @return future completed with the config once its file has been read
+   */
+  public synchronized CompletableFuture<Config> register(@NotNull Config config) {
+    Objects.requireNonNull(config);
+    return configs.computeIfAbsent(config, c -> new CompletableFuture<>());
+  }
+
+  /**
+   * Gets the readiness future of a registered config.
+   *
+   * @param config config to look for
+   * @return future completed once the config is loaded, null if not registered
+   */
+  public synchronized CompletableFuture<Config> getFuture(@NotNull Config config) {
+    Objects.requireNonNull(config);
+    return configs.get(config);
+  }
+
+  /**
+   * Checks if a config has been registered.
+   *
+   * @param config config to check
+   * @return true if registered, false otherwise
+   */
+  public synchronized boolean isRegistered(@NotNull Config config) {
+    Objects.requireNonNull(config);
+    return configs.containsKey(config);
+  }
+
+  /**
+   * Amount of registered configs.
+   *
+   * @return count of registered configs
+   */
+  public synchronized int size() {
+    return configs.size();
+  }
+
+  /**
+   * Reads every registered config that isn't loaded or loading yet, concurrently.
+   * The futures given by {@link #register(Config)} complete as each file finishes.
+   *
+   * @return future completed with the timings once every file is read
+   */
+  public CompletableFuture<LoadReport> loadAll() {
+    var pending = new LinkedHashMap<Config, CompletableFuture<Config>>();
+    synchronized (this) {
+      for (var entry : configs.entrySet()) {
+        if (!entry.getValue().isDone() && loading.add(entry.getKey())) {
+          pending.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    var start = System.nanoTime();
+    if (pending.isEmpty()) {
+      return CompletableFuture.completedFuture(new LoadReport(0, Map.of(), Map.of()));
+    }
+
+    var executor = newExecutor();
+    var times = new ConcurrentHashMap<Config, Long>();
+    var failures = new ConcurrentHashMap<Config, Throwable>();
+    var tasks = new ArrayList<CompletableFuture<Void>>();
+    for (var entry : pending.entrySet()) {
+      var config = entry.getKey();
+      var future = entry.getValue();
+      tasks.add(CompletableFuture.runAsync(() -> {
+        var begin = System.nanoTime();
+        try {
+          config.readFileOrThrow();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } finally {
+          times.put(config, System.nanoTime() - begin);
+        }
+      }, executor).whenComplete((result, error) -> {
+        synchronized (this) {
+          loading.remove(config);
+        }
+        if (error != null) {
+          var cause = error.getCause() != null ? error.getCause() : error;
+          if (cause instanceof UncheckedIOException) {
+            cause = cause.getCause();
+          }
+          failures.put(config, cause);
+          future.completeExceptionally(cause);
+        } else {
+          future.complete(config);
+        }
+      }));
+    }
+    return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+      .handle((result, error) -> {
+        executor.shutdown();
+        var report = new LoadReport(System.nanoTime() - start, times, failures);
+        LOGGER.info("Loaded " + times.size() + " config files in " 
+            + report.getTotalTime().toMillis() + "ms");
+        return report;
+      });
+  }
+
+  private ExecutorService newExecutor() {
+    if (virtualThreads) {
+      try {
+        var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        return (ExecutorService) factory.invoke(null);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        // virtual threads not available on this JVM, fall back to a pool.
+      }
+    }
+    var count = new AtomicInteger();
+    return Executors.newFixedThreadPool(parallelism, runnable -> {
+      var thread = new Thread(runnable, "cash-config-loader-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Timings of a {@link ConfigRegistry#loadAll()} call.
+   */
+  public static final class LoadReport {
+    private final long totalNanos;
+    private final Map<Config, Duration> times;
+    private final Map<Config, Throwable> failures;
+
+    private LoadReport(long totalNanos, Map<Config, Long> times,
+        Map<Config, Throwable> failures) {
+      this.totalNanos = totalNanos;
+      var durations = new HashMap<Config, Duration>();
+      for (var entry : times.entrySet()) {
+        durations.put(entry.getKey(), Duration.ofNanos(entry.getValue()));
+      }
+      this.times = Collections.unmodifiableMap(durations);
+      this.failures = Collections.unmodifiableMap(new HashMap<>(failures));
+    }
+
+    /**
+     * Wall clock time taken to read every file.
+     *
+     * @return total time
+     */
+    public Duration getTotalTime() {
+      return Duration.ofNanos(totalNanos);
+    }
+
+    /**
+     * Time each config took to read its file.
+     *
+     * @return unmodifiable map of config to load time
+     */
+    public Map<Config, Duration> getLoadTimes() {
+      return times;
+    }
+
+    /**
+     * Configs whose file failed to load, because it couldn't be read, wasn't valid json
+     * or broke a constraint. Their futures completed exceptionally with the same error.
+     *
+     * @return unmodifiable map of config to the error thrown while reading its file
+     */
+    public Map<Config, Throwable> getFailures() {
+      return failures;
+    }
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import java.io.File;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Tracks the files of a sharded {@link Config}, where every top-level group is stored in
+ * its own file in a directory and every other top-level item in the config file.
+ * Shards are read when first used and written when they changed.
+ */
+final class ConfigShards {
+  private static final String EXTENSION = ".json";
+  private final File directory;
+  private final Set<String> unloaded = ConcurrentHashMap.newKeySet();
+  private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+  private final Set<String> removed = ConcurrentHashMap.newKeySet();
+  private volatile boolean mainDirty = true;
+
+  /**
+   * Creates shards stored in the given directory.
+   *
+   * @param directory directory of the shard files
+   */
+  ConfigShards(@NotNull File directory) {
+    this.directory = directory;
+  }
+
+  File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Gets the file of the group with the given key.
+   *
+   * @param key key of a top-level group
+   * @return file of the shard
+   */
+  File file(@NotNull String key) {
+    return new File(directory, URLEncoder.encode(key, StandardCharsets.UTF_8) + EXTENSION);
+  }
+
+  /**
+   * Finds the shard files after the config file was read. Groups with a file are read
+   * when first used, groups without one are written on the next save.
+   *
+   * @param root root group of the config
+   */
+  void scan(@NotNull ConfigGroup root) {
+    unloaded.clear();
+    dirty.clear();
+    removed.clear();
+    var files = directory.list();
+    if (files != null) {
+      for (var name : files) {
+        if (name.endsWith(EXTENSION)) {
+          var key = name.substring(0, name.length() - EXTENSION.length());
+          unloaded.add(URLDecoder.decode(key, StandardCharsets.UTF_8));
+        }
+      }
+    }
+    for (var item : root) {
+      if (item.isGroup() && !unloaded.contains(item.getKey())) {
+        dirty.add(item.getKey());
+      }
+    }
+  }
+
+  /**
+   * Marks every loaded group changed, so the next save writes all of them.
+   *
+   * @param root root group of the config
+   */
+  void markAll(@NotNull ConfigGroup root) {
+    mainDirty = true;
+    for (var item : root) {
+      if (item.isGroup() && !unloaded.contains(item.getKey())) {
+        dirty.add(item.getKey());
+      }
+    }
+  }
+
+  /**
+   * Checks if a shard still has to be read.
+   *
+   * @param key key of a top-level item
+   * @return true if there is a shard file that wasn't read
+   */
+  boolean isUnloaded(@NotNull String key) {
+    return unloaded.contains(key);
+  }
+
+  /**
+   * Marks a shard read. Only the first caller reads it.
+   *
+   * @param key key of the shard
+   * @return true if the shard still had to be read
+   */
+  boolean markLoaded(@NotNull String key) {
+    return unloaded.remove(key);
+  }
+
+  /**
+   * Gets the keys of the shards that weren't read yet.
+   *
+   * @return copy of the keys
+   */
+  List<String> getUnloaded() {
+    return new ArrayList<>(unloaded);
+  }
+
+  /**
+   * Marks the shard containing the changed item.
+   *
+   * @param root root group of the config
+   * @param origin item that changed
+   */
+  void changed(@NotNull ConfigGroup root, @NotNull BaseConfigItem<?> origin) {
+    if (origin == root) {
+      markAll(root);
+      return;
+    }
+    var top = origin;
+    while (top.getParent() != null && top.getParent() != root) {
+      top = top.getParent();
+    }
+    if (top.getParent() != root) {
+      return;
+    }
+    if (top.isGroup()) {
+      removed.remove(top.getKey());
+      dirty.add(top.getKey());
+    } else {
+      mainDirty = true;
+    }
+  }
+
+  /**
+   * Marks a top-level item removed, its shard file is deleted on the next save.
+   *
+   * @param item item being removed from the root group
+   */
+  void removing(@NotNull BaseConfigItem<?> item) {
+    mainDirty = true;
+    if (item.isGroup()) {
+      dirty.remove(item.getKey());
+      removed.add(item.getKey());
+    }
+  }
+
+  /**
+   * Takes the keys of the changed shards, which are no longer marked afterwards.
+   *
+   * @return keys of the shards to write
+   */
+  List<String> takeDirty() {
+    var keys = new ArrayList<String>(dirty.size());
+    for (var key : dirty) {
+      dirty.remove(key);
+      keys.add(key);
+    }
+    return keys;
+  }
+
+  /**
+   * Takes the keys of the removed shards, which are no longer marked afterwards.
+   *
+   * @return keys of the shard files to delete
+   */
+  List<String> takeRemoved() {
+    var keys = new ArrayList<String>(removed.size());
+    for (var key : removed) {
+      removed.remove(key);
+      keys.add(key);
+    }
+    return keys;
+  }
+
+  /**
+   * Checks and clears whether the top-level items stored in the config file changed.
+   *
+   * @return true if the config file should be written
+   */
+  boolean takeMainDirty() {
+    var wasDirty = mainDirty;
+    mainDirty = false;
+    return wasDirty;
+  }
+}
@@ -0,0 +1,502 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.cashire.cashconfig;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import dev.cashire.cashconfig.diff.ConfigDiff;
+import dev.cashire.cashconfig.diff.PatchOperation;
+import dev.cashire.cashconfig.diff.PatchOperation.Op;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps copies of a {@link Config} on several nodes in sync by sending binary deltas.
+ * Versions are {@link Config#fingerprint() fingerprints}, so two nodes with the same content
+ * have the same version without having to agree on a counter.
+ *
+ * <p>The receiver tells the sender its {@link #version()}. If the sender still knows the
+ * content of that version, {@link #encode(long)} returns the JSON Patch from it to the current
+ * content, otherwise a snapshot of the whole config. {@link #apply(byte[])} applies either on
+ * the receiver in a single {@link Config#batch batch}. A delta whose base isn't the version of
+ * the receiver is ignored, and the receiver asks again with its version to get a snapshot.
+ *
+ * <pre>{@code
+ * // receiver
+ * out.writeLong(sync.version());
+ * // sender
+ * sync.write(out, in.readLong());
+ * // receiver
+ * sync.read(in);
+ * }</pre>
+ *
+ * <p>Messages are plain bytes, so any transport works. {@link #write(OutputStream, long)} and
+ * {@link #read(InputStream)} frame them with their length for streams like sockets.
+ * A message starts with a format byte and its kind, followed by the version it leads to:
+ *
+ * <pre>
+ * delta:    1, 0, target version, base version, count, (op, path, [from], [value])...
+ * snapshot: 1, 1, target version, value
+ * </pre>
+ *
+ * <p>Versions are 8 bytes, counts and lengths unsigned varints, strings UTF-8 prefixed with
+ * their length, and values tagged json with whole numbers as zigzag varints.
+ */
+public final class ConfigSync {
+  private static final int FORMAT = 1;
+  private static final int DELTA = 0;
+  private static final int SNAPSHOT = 1;
+  private static final int NULL = 0;
+  private static final int FALSE = 1;
+  private static final int TRUE = 2;
+  private static final int LONG = 3;
+  private static final int DOUBLE = 4;
+  private static final int NUMBER = 5;
+  private static final int STRING = 6;
+  private static final int ARRAY = 7;
+  private static final int OBJECT = 8;
+  private static final Op[] OPS = Op.values();
+  private final Config config;
+  private final LinkedHashMap<Long, BaseConfigItem<?>> versions;
+  private volatile int maxMessageSize = 16 << 20;
+
+  /**
+   * Creates a sync for the config, remembering the last 4 versions it sent.
+   *
+   * @param config config to send and update
+   */
+  public ConfigSync(@NotNull Config config) {
+    this(config, 4);
+  }
+
+  /**
+   * Creates a sync for the config.
+   * Each remembered version is a copy of the config, receivers at older versions get snapshots.
+   *
+   * @param config config to send and update
+   * @param history amount of versions sent before that deltas can be based on
+   * @throws IllegalArgumentException if history is less than 1
+   */
+  public ConfigSync(@NotNull Config config, int history) {
+    if (history < 1) {
+      throw new IllegalArgumentException("History must be positive: " + history);
+    }
+    this.config = Objects.requireNonNull(config);
+    this.versions = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, BaseConfigItem<?>> eldest) {
+        return size() > history;
+      }
+    };
+  }
+
+  /**
+   * Sets the length of the largest message {@link #read(InputStream)} accepts, so a corrupt or
+   * hostile stream can't make it allocate more than that. Defaults to 16 MiB.
+   *
+   * @param bytes max length of a message
+   * @throws IllegalArgumentException if bytes is less than 1
+   */
+  public void setMaxMessageSize(int bytes) {
+    if (bytes < 1) {
+      throw new IllegalArgumentException("Max message size must be positive: " + bytes);
+    }
+    maxMessageSize = bytes;
+  }
+
+  /**
+   * Gets the length of the largest message {@link #read(InputStream)} accepts.
+   *
+   * @return max length of a message in bytes
+   */
+  public int getMaxMessageSize() {
+    return maxMessageSize;
+  }
+
+  /**
+   * Gets the version of the config, which receivers send to the sender.
+   *
+   * @return fingerprint of the config
+   */
+  public long version() {
+    return config.fingerprint();
+  }
+
+  /**
+   * Encodes the changes from the given version to the current content of the config.
+   * The current content is remembered, so later deltas can be based on it.
+   *
+   * @param known version the receiver has
+   * @return a delta if the given version is remembered, a snapshot otherwise
+   */
+  public synchronized byte[] encode(long known) {
+    var bytes = new ByteArrayOutputStream();
+    var out = new DataOutputStream(bytes);
+    config.read(root -> {
+      var version = root.contentHash();
+      var base = versions.get(known);
+      // touched last, so the current version is the last one to be evicted
+      if (versions.get(version) == null) {
+        versions.put(version, root.copy());
+      }
+      try {
+        out.writeByte(FORMAT);
+        if (base == null) {
+          out.writeByte(SNAPSHOT);
+          out.writeLong(version);
+          writeValue(out, toJson(root));
+        } else {
+          out.writeByte(DELTA);
+          out.writeLong(version);
+          out.writeLong(known);
+          writeOperations(out, known == version ? List.of() : ConfigDiff.diff(base, root));
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return null;
+    });
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Encodes the whole content of the config.
+   *
+   * @return a snapshot
+   */
+  public byte[] snapshot() {
+    // content hashes are always odd
+    return encode(0);
+  }
+
+  /**
+   * Applies a message from {@link #encode(long)} to the config.
+   *
+   * @param message delta or snapshot
+   * @return true if the config now has the version of the sender, false if the delta was
+   *     based on another version and wasn't applied, or the result didn't match
+   * @throws IllegalArgumentException if the message is malformed or can't be applied
+   * @throws IllegalStateException if the config is frozen
+   */
+  public boolean apply(byte @NotNull [] message) {
+    var in = new DataInputStream(new ByteArrayInputStream(message));
+    List<PatchOperation> operations;
+    long version;
+    long base = 0;
+    int kind;
+    try {
+      if (in.readUnsignedByte() != FORMAT) {
+        throw new IllegalArgumentException("Unknown sync message format");
+      }
+      kind = in.readUnsignedByte();
+      version = in.readLong();
+      if (kind == DELTA) {
+        base = in.readLong();
+        operations = readOperations(in);
+      } else if (kind == SNAPSHOT) {
+        operations = List.of(PatchOperation.replace("", readValue(in)));
+      } else {
+        throw new IllegalArgumentException("Unknown sync message kind: " + kind);
+      }
+      if (in.available() > 0) {
+        throw new IllegalArgumentException("Trailing bytes after sync message");
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Malformed sync message", e);
+    }
+    if (kind == DELTA) {
+      if (operations.isEmpty()) {
+        return config.fingerprint() == version;
+      }
+      var expected = base;
+      try {
+        config.batch(tx -> tx.expectFingerprint(expected).applyPatch(operations));
+      } catch (ConcurrentModificationException e) {
+        return false;
+      }
+    } else {
+      config.batch(tx -> tx.applyPatch(operations));
+    }
+    return config.fingerprint() == version;
+  }
+
+  /**
+   * Writes the message for the given version prefixed with its length.
+   *
+   * @param out stream to write to, not closed
+   * @param known version the receiver has
+   * @throws IOException if writing fails
+   * @see #encode(long)
+   */
+  public void write(@NotNull OutputStream out, long known) throws IOException {
+    var message = encode(known);
+    var data = new DataOutputStream(out);
+    writeVarint(data, message.length);
+    data.write(message);
+    data.flush();
+  }
+
+  /**
+   * Reads a message written by {@link #write(OutputStream, long)} and applies it.
+   *
+   * @param in stream to read from, not closed
+   * @return true if the config now has the version of the sender
+   * @throws IOException if reading fails, the stream ends early or the message is longer than
+   *     the {@link #setMaxMessageSize(int) max message size}
+   * @throws IllegalArgumentException if the message is malformed or can't be applied
+   * @see #apply(byte[])
+   */
+  public boolean read(@NotNull InputStream in) throws IOException {
+    var data = new DataInputStream(in);
+    var length = readVarlong(data);
+    if (length > maxMessageSize) {
+      throw new IOException("Sync message of " + length + " bytes is longer than the max of " 
+          + maxMessageSize);
+    }
+    var message = new byte[(int) length];
+    data.readFully(message);
+    return apply(message);
+  }
+
+  private static JsonElement toJson(BaseConfigItem<?> item) {
+    var array = new JsonArray();
+    item.toJson(array);
+    return array.get(0);
+  }
+
+  private static void writeOperations(DataOutputStream out, List<PatchOperation> operations)
+      throws IOException {
+    writeVarint(out, operations.size());
+    for (var operation : operations) {
+      out.writeByte(operation.getOp().ordinal());
+      writeString(out, operation.getPath());
+      if (operation.getFrom() != null) {
+        writeString(out, operation.getFrom());
+      }
+      if (operation.getValue() != null) {
+        writeValue(out, operation.getValue());
+      }
+    }
+  }
+
+  private static List<PatchOperation> readOperations(DataInputStream in) throws IOException {
+    int count = readVarint(in);
+    var operations = new ArrayList<PatchOperation>(Math.min(count, 1024));
+    for (int i = 0; i < count; i++) {
+      int op = in.readUnsignedByte();
+      if (op >= OPS.length) {
+        throw new IllegalArgumentException("Unknown patch operation: " + op);
+      }
+      var path = readString(in);
+      switch (OPS[op]) {
+        case ADD:
+          operations.add(PatchOperation.add(path, readValue(in)));
+          break;
+        case REMOVE:
+          operations.add(PatchOperation.remove(path));
+          break;
+        case REPLACE:
+          operations.add(PatchOperation.replace(path, readValue(in)));
+          break;
+        case MOVE:
+          operations.add(PatchOperation.move(readString(in), path));
+          break;
+        case COPY:
+          operations.add(PatchOperation.copy(readString(in), path));
+          break;
+        default:
+          operations.add(PatchOperation.test(path, readValue(in)));
+      }
+    }
+    return operations;
+  }
+
+  private static void writeValue(DataOutputStream out, JsonElement value) throws IOException {
+    if (value.isJsonNull()) {
+      out.writeByte(NULL);
+    } else if (value.isJsonObject()) {
+      var entries = value.getAsJsonObject().entrySet();
+      out.writeByte(OBJECT);
+      writeVarint(out, entries.size());
+      for (var entry : entries) {
+        writeString(out, entry.getKey());
+        writeValue(out, entry.getValue());
+      }
+    } else if (value.isJsonArray()) {
+      var array = value.getAsJsonArray();
+      out.writeByte(ARRAY);
+      writeVarint(out, array.size());
+      for (var element : array) {
+        writeValue(out, element);
+      }
+    } else {
+      var primitive = value.getAsJsonPrimitive();
+      if (primitive.isBoolean()) {
+        out.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+      } else if (primitive.isString()) {
+        out.writeByte(STRING);
+        writeString(out, primitive.getAsString());
+      } else {
+        writeNumber(out, primitive.getAsNumber().toString());
+      }
+    }
+  }
+
+  /**
+   * Writes a number so it's read back with the same text, which its hash is based on.
+   */
+  private static void writeNumber(DataOutputStream out, String text) throws IOException {
+    try {
+      var whole = Long.parseLong(text);
+      out.writeByte(LONG);
+      writeVarlong(out, (whole << 1) ^ (whole >> 63));
+      return;
+    } catch (NumberFormatException e) {
+      // not a long
+    }
+    try {
+      var real = Double.parseDouble(text);
+      if (Double.toString(real).equals(text)) {
+        out.writeByte(DOUBLE);
+        out.writeDouble(real);
+        return;
+      }
+    } catch (NumberFormatException e) {
+      // kept as text
+    }
+    out.writeByte(NUMBER);
+    writeString(out, text);
+  }
+
+  private static JsonElement readValue(DataInputStream in) throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case NULL:
+        return JsonNull.INSTANCE;
+      case FALSE:
+        return new JsonPrimitive(false);
+      case TRUE:
+        return new JsonPrimitive(true);
+      case LONG:
+        var zigzag = readVarlong(in);
+        return new JsonPrimitive((zigzag >>> 1) ^ -(zigzag & 1));
+      case DOUBLE:
+        return new JsonPrimitive(in.readDouble());
+      case NUMBER:
+        var number = new JsonParser().parse(readString(in));
+        if (!number.isJsonPrimitive() || !number.getAsJsonPrimitive().isNumber()) {
+          throw new IllegalArgumentException("Invalid number: " + number);
+        }
+        return number;
+      case STRING:
+        return new JsonPrimitive(readString(in));
+      case ARRAY: {
+        int size = readVarint(in);
+        var array = new JsonArray();
+        for (int i = 0; i < size; i++) {
+          array.add(readValue(in));
+        }
+        return array;
+      }
+      case OBJECT: {
+        int size = readVarint(in);
+        var object = new JsonObject();
+        for (int i = 0; i < size; i++) {
+          var key = readString(in);
+          object.add(key, readValue(in));
+        }
+        return object;
+      }
+      default:
+        throw new IllegalArgumentException("Unknown value tag: " + tag);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String text) throws IOException {
+    var bytes = text.getBytes(StandardCharsets.UTF_8);
+    writeVarint(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = readVarint(in);
+    if (length > in.available()) {
+      throw new IllegalArgumentException("String longer than the message: " + length);
+    }
+    var bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeVarint(DataOutputStream out, int value) throws IOException {
+    writeVarlong(out, value & 0xFFFFFFFFL);
+  }
+
+  private static void writeVarlong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static int readVarint(DataInputStream in) throws IOException {
+    var value = readVarlong(in);
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Length out of range: " + value);
+    }
+    return (int) value;
+  }
+
+  private static long readVarlong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Varint too long");
+  }
+}
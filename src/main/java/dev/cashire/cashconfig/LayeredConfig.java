@@ -0,0 +1,247 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import com.google.gson.JsonObject;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stack of {@link Config} layers read as one configuration, such as defaults,
+ * a server-wide file and per-world overrides.
+ * A path resolves to the item of the highest layer that has it. Items are returned
+ * from the layers themselves, nothing is copied.
+ * Resolved paths are cached until any layer changes.
+ *
+ * <p>Groups aren't merged: a group resolves to the group of the highest layer only.
+ * Resolve the paths of its items, or {@link #flatten(File)} the layers, to see every item.
+ */
+public final class LayeredConfig implements AutoCloseable {
+  private static final Resolution MISSING = new Resolution(null, null);
+
+  private volatile List<Config> layers = List.of();
+  private final ConfigListener listener = (config, changed) -> invalidate();
+  private volatile Map<String, Resolution> cache = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a layered config.
+   *
+   * @param layers layers from lowest to highest priority
+   */
+  public LayeredConfig(@NotNull Config... layers) {
+    for (var layer : layers) {
+      addLayer(layer);
+    }
+  }
+
+  /**
+   * Adds a layer above the existing ones.
+   *
+   * @param layer layer to add
+   */
+  public void addLayer(@NotNull Config layer) {
+    Objects.requireNonNull(layer);
+    synchronized (this) {
+      var copy = new ArrayList<>(layers);
+      copy.add(layer);
+      layers = List.copyOf(copy);
+    }
+    layer.addListener(listener);
+    invalidate();
+  }
+
+  /**
+   * Removes a layer.
+   *
+   * @param layer layer to remove
+   * @return true if removed, false if it wasn't a layer
+   */
+  public boolean removeLayer(@NotNull Config layer) {
+    Objects.requireNonNull(layer);
+    synchronized (this) {
+      var copy = new ArrayList<>(layers);
+      if (!copy.remove(layer)) {
+        return false;
+      }
+      layers = List.copyOf(copy);
+    }
+    layer.removeListener(listener);
+    invalidate();
+    return true;
+  }
+
+  /**
+   * Gets the layers of this config.
+   *
+   * @return unmodifiable list of layers from lowest to highest priority
+   */
+  public List<Config> getLayers() {
+    return layers;
+  }
+
+  /**
+   * Retrieves an item from the highest layer that has it.
+   *
+   * @param path path to item in format: group.item
+   * @return item if found, null otherwise
+   */
+  public BaseConfigItem<?> getItem(@NotNull String path) {
+    return resolve(path).item;
+  }
+
+  /**
+   * Retrieves an item from the highest layer that has it.
+   *
+   * @param path path to item in format: group.item
+   * @param type Type of the value expected to find at the end of the path.
+   * @return item found, null otherwise
+   * @throws IllegalArgumentException thrown if type doesn't match item.
+   */
+  public BaseConfigItem<?> getItem(@NotNull String path, @NotNull Type type)
+      throws IllegalArgumentException {
+    Objects.requireNonNull(type);
+    var selectedItem = getItem(path);
+    if (selectedItem != null && !selectedItem.getType().equals(type)) {
+      throw new IllegalArgumentException(
+        "Incorrect type " + type + " for " + path + ". Correct type: " + selectedItem.getType());
+    }
+    return selectedItem;
+  }
+
+  /**
+   * Checks if any layer has an item at the given path.
+   *
+   * @param path path to item in format: group.item
+   * @return true if item found, false otherwise
+   */
+  public boolean hasItem(@NotNull String path) {
+    return resolve(path).item != null;
+  }
+
+  /**
+   * Gets the layer that the item at the given path is resolved from.
+   * Change the item through this layer to save it to the layer's file.
+   *
+   * @param path path to item in format: group.item
+   * @return highest layer that has the item, null if no layer has it
+   */
+  public Config getLayer(@NotNull String path) {
+    return resolve(path).layer;
+  }
+
+  /**
+   * Merges every layer into a new config, for example to save the resolved configuration.
+   * Groups are merged, any other item is taken from the highest layer that has it.
+   * Nothing is read from or written to the file until the returned config is used.
+   *
+   * @param file file of the new config
+   * @return config holding a copy of the resolved items
+   */
+  public Config flatten(@NotNull File file) {
+    Objects.requireNonNull(file);
+    var merged = new JsonObject();
+    for (var layer : layers) {
+      merge(merged, layer.toJson());
+    }
+    var root = new ConfigGroup("root");
+    root.fromJson(merged);
+    return new Config(root.getValue(), file);
+  }
+
+  /**
+   * Stops following changes of the layers.
+   * Lookups still work, but are no longer cached.
+   */
+  @Override
+  public void close() {
+    for (var layer : layers) {
+      layer.removeListener(listener);
+    }
+    cache = null;
+  }
+
+  private Resolution resolve(String path) {
+    Objects.requireNonNull(path);
+    // a lookup racing with a change only fills the map that the change discarded
+    var cache = this.cache;
+    if (cache == null) {
+      return find(path);
+    }
+    var resolution = cache.get(path);
+    if (resolution == null) {
+      resolution = find(path);
+      cache.put(path, resolution);
+    }
+    return resolution;
+  }
+
+  private Resolution find(String path) {
+    var layers = this.layers;
+    for (int i = layers.size() - 1; i >= 0; i--) {
+      var layer = layers.get(i);
+      var item = layer.findItem(path);
+      if (item != null) {
+        return new Resolution(layer, item);
+      }
+    }
+    return MISSING;
+  }
+
+  private void invalidate() {
+    if (cache != null) {
+      cache = new ConcurrentHashMap<>();
+    }
+  }
+
+  private static void merge(JsonObject target, JsonObject source) {
+    for (var entry : source.entrySet()) {
+      var existing = target.get(entry.getKey());
+      var value = entry.getValue();
+      if (existing != null && existing.isJsonObject() && value.isJsonObject()) {
+        merge(existing.getAsJsonObject(), value.getAsJsonObject());
+      } else {
+        target.add(entry.getKey(), value);
+      }
+    }
+  }
+
+  private static final class Resolution {
+    final Config layer;
+    final BaseConfigItem<?> item;
+
+    Resolution(Config layer, BaseConfigItem<?> item) {
+      this.layer = layer;
+      this.item = item;
+    }
+  }
+}
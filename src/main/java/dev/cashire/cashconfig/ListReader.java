@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reads the elements of a list in a config file one at a time.
+ * Only the current element is held in memory, so lists of any size can be processed.
+ * Primitive elements can be read without creating an item with {@link #nextString()},
+ * {@link #nextDouble()}, {@link #nextLong()} and {@link #nextBoolean()}.
+ *
+ * @see Config#streamList(String)
+ */
+public final class ListReader implements Iterator<BaseConfigItem<?>>, Closeable {
+  private final JsonReader reader;
+  private int index;
+
+  /**
+   * Opens a reader positioned before the first element of the list at the path.
+   *
+   * @param stream stream of the config file, closed with the reader
+   * @param path path to a list in format: group.item
+   * @throws IOException if reading fails
+   * @throws IllegalArgumentException if there is no list at the path
+   */
+  ListReader(@NotNull InputStream stream, @NotNull String path) throws IOException {
+    reader = new JsonReader(new InputStreamReader(Compression.decompress(stream), 
+        StandardCharsets.UTF_8));
+    try {
+      for (var key : path.split("\\.")) {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT || !find(key)) {
+          throw new IllegalArgumentException("Item " + key + " in path " + path 
+              + " was not found");
+        }
+      }
+      if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+        throw new IllegalArgumentException("Item at " + path + " is not a list");
+      }
+      reader.beginArray();
+    } catch (IOException | RuntimeException e) {
+      reader.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Moves into the current object up to the value of the key.
+   *
+   * @return true if found, false if the object has no such key
+   */
+  private boolean find(String key) throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.nextName().equals(key)) {
+        return true;
+      }
+      reader.skipValue();
+    }
+    return false;
+  }
+
+  @Override
+  public boolean hasNext() {
+    try {
+      return reader.hasNext();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the next element into a new item. The item isn't part of any config.
+   *
+   * @return the element
+   * @throws NoSuchElementException if there are no more elements
+   * @throws IllegalStateException if the element isn't a supported value
+   */
+  @Override
+  public BaseConfigItem<?> next() {
+    var element = nextElement();
+    var type = BaseConfigItem.getType(element);
+    if (type == null) {
+      throw new IllegalStateException("Unsupported element " + element + " at " + (index - 1));
+    }
+    var item = BaseConfigItem.getInstance(type, "");
+    item.fromJson(element);
+    return item;
+  }
+
+  /**
+   * Reads the next element as json.
+   *
+   * @return the element
+   * @throws NoSuchElementException if there are no more elements
+   */
+  public JsonElement nextElement() {
+    check();
+    try {
+      var element = new JsonParser().parse(reader);
+      index++;
+      return element;
+    } catch (RuntimeException e) {
+      throw e.getCause() instanceof IOException 
+          ? new UncheckedIOException((IOException) e.getCause()) : e;
+    }
+  }
+
+  /**
+   * Gets the type of the next element without reading it.
+   *
+   * @return type of the element, null if it isn't a supported value
+   * @throws NoSuchElementException if there are no more elements
+   */
+  public Type peekType() {
+    check();
+    try {
+      switch (reader.peek()) {
+        case BEGIN_OBJECT:
+          return Type.GROUP;
+        case BEGIN_ARRAY:
+          return Type.ARRAY;
+        case STRING:
+          return Type.STRING;
+        case NUMBER:
+          return Type.NUMBER;
+        case BOOLEAN:
+          return Type.BOOLEAN;
+        default:
+          return null;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the next element as a string.
+   *
+   * @return the value
+   * @throws IllegalStateException if the element isn't a string or number
+   */
+  public String nextString() {
+    check();
+    try {
+      var value = reader.nextString();
+      index++;
+      return value;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the next element as a double.
+   *
+   * @return the value
+   * @throws IllegalStateException if the element isn't a number
+   */
+  public double nextDouble() {
+    check();
+    try {
+      var value = reader.nextDouble();
+      index++;
+      return value;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the next element as a long.
+   *
+   * @return the value
+   * @throws IllegalStateException if the element isn't a number
+   * @throws NumberFormatException if the number isn't a long
+   */
+  public long nextLong() {
+    check();
+    try {
+      var value = reader.nextLong();
+      index++;
+      return value;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the next element as a boolean.
+   *
+   * @return the value
+   * @throws IllegalStateException if the element isn't a boolean
+   */
+  public boolean nextBoolean() {
+    check();
+    try {
+      var value = reader.nextBoolean();
+      index++;
+      return value;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Skips the next element without reading it.
+   *
+   * @throws NoSuchElementException if there are no more elements
+   */
+  public void skip() {
+    check();
+    try {
+      reader.skipValue();
+      index++;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Amount of elements read or skipped so far, which is the index of the next element.
+   *
+   * @return index of the next element
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private void check() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No element at " + index);
+    }
+  }
+}
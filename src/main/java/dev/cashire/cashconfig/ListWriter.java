@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.stream.JsonWriter;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Writes a config file with the elements of one list added one at a time.
+ * Elements are written to disk as they are added, so lists of any size can be written.
+ * The file replaces the config's file when the writer is closed.
+ *
+ * @see Config#writeList(String)
+ */
+public final class ListWriter implements Closeable {
+  private static final Gson GSON = new Gson();
+  private final Config config;
+  private final File temp;
+  private final CRC32 crc = new CRC32();
+  private final JsonWriter writer;
+  private final int depth;
+  private Type type;
+  private int size;
+  private boolean closed;
+
+  /**
+   * Writes every item of the config except the list, and opens the list.
+   *
+   * @param config config to write the file of
+   * @param root root of the config
+   * @param temp file to write to before replacing the config's file
+   * @param path path to a list in format: group.item
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if an item on the path isn't a group, or the last isn't a list
+   */
+  ListWriter(@NotNull Config config, @NotNull ConfigGroup root, @NotNull File temp, 
+      @NotNull String path) throws IOException {
+    this.config = config;
+    this.temp = temp;
+    var keys = path.split("\\.");
+    depth = keys.length;
+    writer = config.newJsonWriter(new CheckedOutputStream(new FileOutputStream(temp), crc));
+    try {
+      writer.beginObject();
+      ConfigGroup group = root;
+      for (int i = 0; i < keys.length; i++) {
+        var next = group == null ? null : group.getItem(keys[i]);
+        if (group != null) {
+          for (var child : group) {
+            if (child != next) {
+              writer.name(child.getKey());
+              write(child);
+            }
+          }
+        }
+        writer.name(keys[i]);
+        if (i < keys.length - 1) {
+          if (next != null && !next.isGroup()) {
+            throw new IllegalArgumentException("Item " + keys[i] + " in path " + path 
+                + " is not a group");
+          }
+          writer.beginObject();
+          group = next == null ? null : next.asGroup();
+        } else {
+          if (next != null && !next.isList()) {
+            throw new IllegalArgumentException("Item at " + path + " is not a list");
+          }
+          writer.beginArray();
+          type = next == null ? null : next.asList().getSubType();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      discard();
+      throw e;
+    }
+  }
+
+  /**
+   * Adds an element to the list.
+   *
+   * @param item element to add, its key is ignored
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if the type doesn't match the other elements
+   */
+  public void add(@NotNull BaseConfigItem<?> item) throws IOException {
+    Objects.requireNonNull(item);
+    check(item.getType());
+    write(item);
+    size++;
+  }
+
+  /**
+   * Adds a string element to the list.
+   *
+   * @param value element to add
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if the list doesn't hold strings
+   */
+  public void add(@NotNull String value) throws IOException {
+    Objects.requireNonNull(value);
+    check(Type.STRING);
+    writer.value(value);
+    size++;
+  }
+
+  /**
+   * Adds a number element to the list.
+   *
+   * @param value element to add
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if the list doesn't hold numbers
+   */
+  public void add(@NotNull Number value) throws IOException {
+    Objects.requireNonNull(value);
+    check(Type.NUMBER);
+    writer.value(value);
+    size++;
+  }
+
+  /**
+   * Adds a boolean element to the list.
+   *
+   * @param value element to add
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if the list doesn't hold booleans
+   */
+  public void add(boolean value) throws IOException {
+    check(Type.BOOLEAN);
+    writer.value(value);
+    size++;
+  }
+
+  /**
+   * Amount of elements added so far.
+   *
+   * @return count of elements
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Finishes the file and replaces the config's file with it.
+   *
+   * @throws IOException if writing or replacing the file fails
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      writer.endArray();
+      for (int i = 0; i < depth; i++) {
+        writer.endObject();
+      }
+      writer.close();
+    } catch (IOException | RuntimeException e) {
+      discard();
+      throw e;
+    }
+    config.install(temp, crc.getValue());
+  }
+
+  /**
+   * Stops writing and deletes the new file, leaving the config's file as it was.
+   */
+  public void discard() {
+    closed = true;
+    try {
+      writer.close();
+    } catch (IOException e) {
+      // the file is deleted anyway
+    }
+    temp.delete();
+  }
+
+  private void check(Type elementType) {
+    if (closed) {
+      throw new IllegalStateException("Writer is closed");
+    }
+    if (type == null) {
+      type = elementType;
+    } else if (type != elementType) {
+      throw new IllegalArgumentException("Invalid type: " + elementType + " is not " + type);
+    }
+  }
+
+  private void write(BaseConfigItem<?> item) throws IOException {
+    var array = new JsonArray();
+    item.toJson(array);
+    GSON.toJson(array.get(0), writer);
+  }
+}
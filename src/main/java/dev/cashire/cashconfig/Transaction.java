@@ -0,0 +1,414 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import dev.cashire.cashconfig.diff.ConfigDiff;
+import dev.cashire.cashconfig.diff.PatchOperation;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Group of changes staged for {@link Config#batch(java.util.function.Consumer)}.
+ * Changes are only recorded here, they are validated and applied in order when the
+ * batch is committed. Paths are parsed once when staged.
+ */
+public final class Transaction {
+  private final Config config;
+  private final List<Change> changes = new ArrayList<>();
+  private Set<String> roots = new HashSet<>();
+  private ArrayDeque<Runnable> undo;
+
+  Transaction(@NotNull Config config) {
+    this.config = config;
+  }
+
+  /**
+   * Config these changes are for.
+   *
+   * @return the config
+   */
+  public Config getConfig() {
+    return config;
+  }
+
+  /**
+   * Stages setting an item at the root of the config.
+   *
+   * @param item item to set, must have a key
+   * @return this transaction
+   */
+  public Transaction setItem(@NotNull BaseConfigItem<?> item) {
+    Objects.requireNonNull(item);
+    touch(item.getKey());
+    changes.add(root -> set(root, item));
+    return this;
+  }
+
+  /**
+   * Stages setting an item in the group at the end of the path,
+   * or adding it if the path ends at a list.
+   *
+   * @param path path to a group or list in format: group.item
+   * @param item item to set, must have a key if path is a group
+   * @return this transaction
+   */
+  public Transaction setItem(@NotNull String path, @NotNull BaseConfigItem<?> item) {
+    Objects.requireNonNull(item);
+    var keys = parse(path);
+    changes.add(root -> {
+      var parent = resolve(root, keys, path);
+      if (parent.isGroup()) {
+        return set(parent.asGroup(), item);
+      }
+      if (parent.isList()) {
+        return add(parent, item, path);
+      }
+      throw new IllegalArgumentException("Item at " + path + " is not a group or list");
+    });
+    return this;
+  }
+
+  /**
+   * Stages adding an item at the root of the config.
+   *
+   * @param item item to add, must have a key not used yet
+   * @return this transaction
+   */
+  public Transaction addItem(@NotNull BaseConfigItem<?> item) {
+    Objects.requireNonNull(item);
+    touch(item.getKey());
+    changes.add(root -> add(root, item, ""));
+    return this;
+  }
+
+  /**
+   * Stages adding an item to the group or list at the end of the path.
+   *
+   * @param path path to a group or list in format: group.item
+   * @param item item to add, must have a key not used yet if path is a group
+   * @return this transaction
+   */
+  public Transaction addItem(@NotNull String path, @NotNull BaseConfigItem<?> item) {
+    Objects.requireNonNull(item);
+    var keys = parse(path);
+    changes.add(root -> add(resolve(root, keys, path), item, path));
+    return this;
+  }
+
+  /**
+   * Stages removing the item at the end of the path.
+   *
+   * @param path path to item in format: group.item
+   * @return this transaction
+   */
+  public Transaction removeItem(@NotNull String path) {
+    var keys = parse(path);
+    changes.add(root -> {
+      // items only found in the defaults stay there, so don't copy the parents
+      var parent = resolveParent(root, keys, path, false);
+      var key = keys[keys.length - 1];
+      var removed = parent.removeItem(key);
+      if (removed == null) {
+        throw new IllegalArgumentException("Item " + key + " in path " + path + " was not found");
+      }
+      return () -> parent.addItem(removed);
+    });
+    return this;
+  }
+
+  /**
+   * Stages setting the value of the item at the end of the path.
+   *
+   * @param path path to item in format: group.item
+   * @param value new value, must match the type of the item
+   * @return this transaction
+   */
+  public Transaction setValue(@NotNull String path, @NotNull Object value) {
+    Objects.requireNonNull(value);
+    var keys = parse(path);
+    changes.add(root -> {
+      @SuppressWarnings("unchecked")
+      var item = (BaseConfigItem<Object>) resolve(root, keys, path);
+      if (!accepts(item, value)) {
+        throw new IllegalArgumentException("Value " + value + " doesn't match type " 
+            + item.getType() + " of " + path);
+      }
+      var previous = item.getValue();
+      item.setValue(value);
+      return () -> item.setValue(previous);
+    });
+    return this;
+  }
+
+  /**
+   * Stages a check that the config still has the given {@link Config#fingerprint()
+   * fingerprint}, so the changes staged after it fail instead of being applied to
+   * content that changed since the fingerprint was taken.
+   *
+   * @param fingerprint fingerprint the config must have
+   * @return this transaction
+   * @throws ConcurrentModificationException when committed, if the fingerprint differs
+   */
+  public Transaction expectFingerprint(long fingerprint) {
+    roots = null;
+    changes.add(root -> {
+      if (config.merged().contentHash() != fingerprint) {
+        throw new ConcurrentModificationException("Config " + config.getFile().getName()
+            + " doesn't have fingerprint " + fingerprint);
+      }
+      return () -> { };
+    });
+    return this;
+  }
+
+  /**
+   * Stages applying a JSON Patch to the config.
+   *
+   * @param operations operations with paths from the root of the config
+   * @return this transaction
+   * @see ConfigDiff#apply(BaseConfigItem, List)
+   */
+  public Transaction applyPatch(@NotNull List<PatchOperation> operations) {
+    var copy = List.copyOf(operations);
+    roots = null;
+    changes.add(root -> {
+      for (var operation : copy) {
+        copyDefaults(root, ConfigDiff.parsePointer(operation.getPath()));
+        if (operation.getFrom() != null) {
+          copyDefaults(root, ConfigDiff.parsePointer(operation.getFrom()));
+        }
+      }
+      return ConfigDiff.apply(root, copy);
+    });
+    return this;
+  }
+
+  /**
+   * Stages applying a JSON Merge Patch to the config.
+   *
+   * @param patch merge patch, an object with keys from the root of the config
+   * @return this transaction
+   * @see ConfigDiff#applyMergePatch(BaseConfigItem, JsonElement)
+   */
+  public Transaction applyMergePatch(@NotNull JsonElement patch) {
+    Objects.requireNonNull(patch);
+    if (patch.isJsonObject()) {
+      for (var entry : patch.getAsJsonObject().entrySet()) {
+        touch(entry.getKey());
+      }
+    } else {
+      roots = null;
+    }
+    changes.add(root -> {
+      if (patch.isJsonObject()) {
+        copyDefaults(root, patch.getAsJsonObject(), new ArrayList<>());
+      }
+      return ConfigDiff.applyMergePatch(root, patch);
+    });
+    return this;
+  }
+
+  /**
+   * Amount of staged changes.
+   *
+   * @return count of changes
+   */
+  public int size() {
+    return changes.size();
+  }
+
+  /**
+   * Keys of the top-level items the changes use.
+   *
+   * @return keys, null if any top-level item may be used
+   */
+  Set<String> roots() {
+    return roots;
+  }
+
+  /**
+   * Applies every change in order, rolling back the applied ones if one fails.
+   *
+   * @param root root group of the config
+   * @throws RuntimeException the error of the failed change
+   */
+  void apply(@NotNull ConfigGroup root) {
+    undo = new ArrayDeque<>();
+    try {
+      for (var change : changes) {
+        undo.push(change.apply(root));
+      }
+    } catch (RuntimeException e) {
+      while (!undo.isEmpty()) {
+        undo.pop().run();
+      }
+      throw e;
+    } finally {
+      undo = null;
+    }
+  }
+
+  private static Runnable set(ConfigGroup group, BaseConfigItem<?> item) {
+    var previous = group.setItem(item);
+    return () -> {
+      if (previous != null) {
+        group.setItem(previous);
+      } else {
+        group.removeItem(item.getKey());
+      }
+    };
+  }
+
+  private static Runnable add(BaseConfigItem<?> parent, BaseConfigItem<?> item, String path) {
+    if (parent.isGroup()) {
+      if (!parent.asGroup().addItem(item)) {
+        throw new IllegalArgumentException("Item " + item.getKey() + " already exists in " 
+            + (path.isEmpty() ? "root" : path));
+      }
+      return () -> parent.asGroup().removeItem(item.getKey());
+    }
+    if (parent.isList()) {
+      var list = parent.asList();
+      list.addItem(item);
+      return () -> list.removeItem(list.size() - 1);
+    }
+    throw new IllegalArgumentException("Item at " + path + " is not a group or list");
+  }
+
+  private static boolean accepts(BaseConfigItem<?> item, Object value) {
+    switch (item.getType()) {
+      case BOOLEAN:
+        return value instanceof Boolean;
+      case NUMBER:
+        return value instanceof Number;
+      case STRING:
+        return value instanceof String;
+      default:
+        return value instanceof List;
+    }
+  }
+
+  private String[] parse(@NotNull String path) {
+    Objects.requireNonNull(path);
+    var keys = path.split("\\.");
+    for (var key : keys) {
+      if (key.isEmpty()) {
+        throw new IllegalArgumentException("Invalid path: " + path);
+      }
+    }
+    touch(keys[0]);
+    return keys;
+  }
+
+  private void touch(String root) {
+    if (roots != null) {
+      roots.add(root);
+    }
+  }
+
+  private ConfigGroup resolveParent(ConfigGroup root, String[] keys, String path, boolean copy) {
+    var group = root;
+    for (int i = 0; i < keys.length - 1; i++) {
+      var item = copy ? config.child(group, keys, i, undo) : group.getItem(keys[i]);
+      if (item == null || !item.isGroup()) {
+        throw new IllegalArgumentException("Item " + keys[i] + " in path " + path 
+            + " was not found");
+      }
+      group = item.asGroup();
+    }
+    return group;
+  }
+
+  /**
+   * Finds the item to change, copying it from the config's defaults if needed.
+   */
+  private BaseConfigItem<?> resolve(ConfigGroup root, String[] keys, String path) {
+    var parent = resolveParent(root, keys, path, true);
+    var item = config.child(parent, keys, keys.length - 1, undo);
+    if (item == null) {
+      throw new IllegalArgumentException("Item " + keys[keys.length - 1] + " in path " + path 
+          + " was not found");
+    }
+    return item;
+  }
+
+  /**
+   * Copies the defaults along a pointer into the config, so a patch finds the items it uses.
+   */
+  private void copyDefaults(ConfigGroup root, List<String> pointer) {
+    var keys = pointer.toArray(String[]::new);
+    var group = root;
+    for (int i = 0; i < keys.length; i++) {
+      var item = config.child(group, keys, i, undo);
+      if (item == null || !item.isGroup()) {
+        return;
+      }
+      group = item.asGroup();
+    }
+  }
+
+  /**
+   * Copies the default groups a merge patch merges into.
+   */
+  private void copyDefaults(ConfigGroup group, JsonObject patch, List<String> path) {
+    for (var entry : patch.entrySet()) {
+      if (!entry.getValue().isJsonObject()) {
+        continue;
+      }
+      path.add(entry.getKey());
+      var keys = path.toArray(String[]::new);
+      var item = config.child(group, keys, keys.length - 1, undo);
+      if (item != null && item.isGroup()) {
+        copyDefaults(item.asGroup(), entry.getValue().getAsJsonObject(), path);
+      }
+      path.remove(path.size() - 1);
+    }
+  }
+
+  /**
+   * Single staged change.
+   */
+  @FunctionalInterface
+  private interface Change {
+    /**
+     * Validates and applies the change.
+     *
+     * @param root root group of the config
+     * @return reverts the change
+     * @throws IllegalArgumentException if the change is invalid
+     */
+    Runnable apply(ConfigGroup root);
+  }
+}
@@ -0,0 +1,625 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.diff;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compares item trees and applies partial updates to them in place.
+ *
+ * <p>{@link #diff(BaseConfigItem, BaseConfigItem)} produces a JSON Patch (RFC 6902) and
+ * {@link #mergePatch(BaseConfigItem, BaseConfigItem)} a JSON Merge Patch (RFC 7386).
+ * Both walk the trees once: groups are matched by key and lists by position, and
+ * subtrees with equal {@link BaseConfigItem#contentHash() content hashes} are skipped without
+ * being read. Hashes are cached in the items, so once both trees were hashed, diffing two
+ * mostly equal trees only reads the paths to the items that changed.
+ *
+ * <p>{@link #apply(BaseConfigItem, List)} and {@link #applyMergePatch(BaseConfigItem, JsonElement)}
+ * change only the items the patch touches and keep every other item, so references held to
+ * them stay valid. A patch is applied completely or not at all.
+ */
+public final class ConfigDiff {
+  private ConfigDiff() {
+  }
+
+  /**
+   * Checks if two items hold the same value. Keys of the items themselves are ignored.
+   *
+   * @param first first item
+   * @param second second item
+   * @return true if both trees are equal
+   */
+  public static boolean equals(@NotNull BaseConfigItem<?> first, 
+      @NotNull BaseConfigItem<?> second) {
+    if (first == second) {
+      return true;
+    }
+    if (first.getType() != second.getType()) {
+      return false;
+    }
+    if (first.isGroup()) {
+      var other = second.asGroup();
+      if (first.asGroup().size() != other.size()) {
+        return false;
+      }
+      for (var child : first.asGroup()) {
+        var match = other.getItem(child.getKey());
+        if (match == null || !equals(child, match)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (first.isList()) {
+      var list = first.asList();
+      var other = second.asList();
+      if (list.size() != other.size()) {
+        return false;
+      }
+      for (int i = 0; i < list.size(); i++) {
+        if (!equals(list.getItem(i), other.getItem(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (first.getType() == Type.NUMBER) {
+      return Objects.equals(primitive(first), primitive(second));
+    }
+    return Objects.equals(first.getValue(), second.getValue());
+  }
+
+  /**
+   * Computes the operations that turn source into target.
+   * List elements are compared by position: elements are replaced or changed in place,
+   * extra elements are appended or removed from the end.
+   *
+   * @param source tree to change
+   * @param target tree to change it into
+   * @return operations, empty if both trees are equal
+   */
+  public static List<PatchOperation> diff(@NotNull BaseConfigItem<?> source, 
+      @NotNull BaseConfigItem<?> target) {
+    Objects.requireNonNull(source);
+    Objects.requireNonNull(target);
+    var operations = new ArrayList<PatchOperation>();
+    diff(source, target, new StringBuilder(), operations);
+    return operations;
+  }
+
+  private static void diff(BaseConfigItem<?> source, BaseConfigItem<?> target, 
+      StringBuilder path, List<PatchOperation> operations) {
+    if (source == target || source.contentHash() == target.contentHash()) {
+      return;
+    }
+    int length = path.length();
+    if (source.isGroup() && target.isGroup()) {
+      var from = source.asGroup();
+      var to = target.asGroup();
+      for (var child : from) {
+        if (!to.hasItem(child.getKey())) {
+          operations.add(PatchOperation.remove(token(path, child.getKey()).toString()));
+          path.setLength(length);
+        }
+      }
+      for (var child : to) {
+        var previous = from.getItem(child.getKey());
+        token(path, child.getKey());
+        if (previous == null) {
+          operations.add(PatchOperation.add(path.toString(), toJson(child)));
+        } else {
+          diff(previous, child, path, operations);
+        }
+        path.setLength(length);
+      }
+    } else if (source.isList() && target.isList() 
+        && source.asList().getSubType() == target.asList().getSubType()) {
+      var from = source.asList();
+      var to = target.asList();
+      int common = Math.min(from.size(), to.size());
+      for (int i = 0; i < common; i++) {
+        diff(from.getItem(i), to.getItem(i), path.append('/').append(i), operations);
+        path.setLength(length);
+      }
+      for (int i = common; i < to.size(); i++) {
+        operations.add(PatchOperation.add(path.append('/').append(i).toString(), 
+            toJson(to.getItem(i))));
+        path.setLength(length);
+      }
+      for (int i = from.size() - 1; i >= common; i--) {
+        operations.add(PatchOperation.remove(path.append('/').append(i).toString()));
+        path.setLength(length);
+      }
+    } else if (!equals(source, target)) {
+      operations.add(PatchOperation.replace(path.toString(), toJson(target)));
+    }
+  }
+
+  /**
+   * Locates where two trees differ by comparing their {@link BaseConfigItem#contentHash()
+   * content hashes}. Subtrees with equal hashes are skipped without being read, so once
+   * the hashes are cached this costs about the number of differences times the depth of
+   * the tree. Equal hashes are trusted: unlike {@link #diff(BaseConfigItem, BaseConfigItem)}
+   * this doesn't compare values, and two different subtrees with the same 64 bit hash
+   * would not be reported.
+   *
+   * @param source first tree
+   * @param target second tree
+   * @return JSON Pointers of the deepest items that differ, keys or positions only one of
+   *     the trees has, and items whose type differs; empty if the hashes of both trees match
+   */
+  public static List<String> differences(@NotNull BaseConfigItem<?> source, 
+      @NotNull BaseConfigItem<?> target) {
+    Objects.requireNonNull(source);
+    Objects.requireNonNull(target);
+    var paths = new ArrayList<String>();
+    differences(source, target, new StringBuilder(), paths);
+    return paths;
+  }
+
+  private static void differences(BaseConfigItem<?> source, BaseConfigItem<?> target, 
+      StringBuilder path, List<String> paths) {
+    if (source == target || source.contentHash() == target.contentHash()) {
+      return;
+    }
+    int length = path.length();
+    if (source.isGroup() && target.isGroup()) {
+      var from = source.asGroup();
+      var to = target.asGroup();
+      for (var child : from) {
+        var match = to.getItem(child.getKey());
+        token(path, child.getKey());
+        if (match == null) {
+          paths.add(path.toString());
+        } else {
+          differences(child, match, path, paths);
+        }
+        path.setLength(length);
+      }
+      for (var child : to) {
+        if (!from.hasItem(child.getKey())) {
+          paths.add(token(path, child.getKey()).toString());
+          path.setLength(length);
+        }
+      }
+    } else if (source.isList() && target.isList()) {
+      var from = source.asList();
+      var to = target.asList();
+      int common = Math.min(from.size(), to.size());
+      for (int i = 0; i < common; i++) {
+        differences(from.getItem(i), to.getItem(i), path.append('/').append(i), paths);
+        path.setLength(length);
+      }
+      for (int i = common; i < Math.max(from.size(), to.size()); i++) {
+        paths.add(path.append('/').append(i).toString());
+        path.setLength(length);
+      }
+    } else {
+      paths.add(path.toString());
+    }
+  }
+
+  /**
+   * Computes a merge patch that turns source into target.
+   * Groups are merged key by key, any other changed value is replaced as a whole.
+   *
+   * @param source tree to change
+   * @param target tree to change it into
+   * @return merge patch, an empty object if two groups are equal
+   */
+  public static JsonElement mergePatch(@NotNull BaseConfigItem<?> source, 
+      @NotNull BaseConfigItem<?> target) {
+    Objects.requireNonNull(source);
+    Objects.requireNonNull(target);
+    if (source.isGroup() && target.isGroup()) {
+      return mergePatch(source.asGroup(), target.asGroup());
+    }
+    return toJson(target);
+  }
+
+  private static JsonObject mergePatch(ConfigGroup source, ConfigGroup target) {
+    var patch = new JsonObject();
+    if (source == target || source.contentHash() == target.contentHash()) {
+      return patch;
+    }
+    for (var child : source) {
+      if (!target.hasItem(child.getKey())) {
+        patch.add(child.getKey(), JsonNull.INSTANCE);
+      }
+    }
+    for (var child : target) {
+      var previous = source.getItem(child.getKey());
+      if (previous == null) {
+        patch.add(child.getKey(), toJson(child));
+      } else if (previous.isGroup() && child.isGroup()) {
+        var nested = mergePatch(previous.asGroup(), child.asGroup());
+        if (nested.size() > 0) {
+          patch.add(child.getKey(), nested);
+        }
+      } else if (!equals(previous, child)) {
+        patch.add(child.getKey(), toJson(child));
+      }
+    }
+    return patch;
+  }
+
+  /**
+   * Applies a JSON Patch to the tree in place.
+   * If an operation fails, the operations already applied are reverted.
+   *
+   * @param root root of the tree, paths start here
+   * @param operations operations to apply in order
+   * @return reverts the patch
+   * @throws IllegalArgumentException if an operation can't be applied or a test fails
+   */
+  public static Runnable apply(@NotNull BaseConfigItem<?> root, 
+      @NotNull List<PatchOperation> operations) {
+    Objects.requireNonNull(root);
+    Objects.requireNonNull(operations);
+    var undo = new ArrayDeque<Runnable>();
+    try {
+      for (var operation : operations) {
+        apply(root, operation, undo);
+      }
+    } catch (RuntimeException e) {
+      revert(undo);
+      throw e;
+    }
+    return () -> revert(undo);
+  }
+
+  private static void apply(BaseConfigItem<?> root, PatchOperation operation, 
+      Deque<Runnable> undo) {
+    var path = parsePointer(operation.getPath());
+    switch (operation.getOp()) {
+      case ADD:
+        add(root, path, operation.getValue(), undo);
+        break;
+      case REMOVE:
+        remove(root, path, undo);
+        break;
+      case REPLACE:
+        replace(root, path, operation.getValue(), undo);
+        break;
+      case MOVE: {
+        var from = parsePointer(operation.getFrom());
+        if (path.size() > from.size() && path.subList(0, from.size()).equals(from)) {
+          throw new IllegalArgumentException("Can't move " + operation.getFrom() 
+              + " into itself");
+        }
+        var value = toJson(get(root, from, from.size()));
+        remove(root, from, undo);
+        add(root, path, value, undo);
+        break;
+      }
+      case COPY: {
+        var from = parsePointer(operation.getFrom());
+        add(root, path, toJson(get(root, from, from.size())), undo);
+        break;
+      }
+      case TEST:
+        if (!toJson(get(root, path, path.size())).equals(operation.getValue())) {
+          throw new IllegalArgumentException("Test failed: " + operation);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operation: " + operation);
+    }
+  }
+
+  private static void add(BaseConfigItem<?> root, List<String> path, JsonElement value, 
+      Deque<Runnable> undo) {
+    if (path.isEmpty()) {
+      load(root, value, undo);
+      return;
+    }
+    var parent = get(root, path, path.size() - 1);
+    var token = path.get(path.size() - 1);
+    if (parent.isGroup()) {
+      set(parent.asGroup(), token, value, undo);
+    } else if (parent.isList()) {
+      var list = parent.asList();
+      int index = "-".equals(token) ? list.size() : index(token, list.size() + 1);
+      list.addItem(index, create("", value));
+      undo.push(() -> list.removeItem(index));
+    } else {
+      throw new IllegalArgumentException("Can't add to " + parent.getType());
+    }
+  }
+
+  private static void remove(BaseConfigItem<?> root, List<String> path, Deque<Runnable> undo) {
+    if (path.isEmpty()) {
+      throw new IllegalArgumentException("Can't remove the root");
+    }
+    var parent = get(root, path, path.size() - 1);
+    var token = path.get(path.size() - 1);
+    if (parent.isGroup()) {
+      var group = parent.asGroup();
+      var removed = group.removeItem(token);
+      if (removed == null) {
+        throw new IllegalArgumentException("Item " + token + " was not found");
+      }
+      undo.push(() -> group.setItem(removed));
+    } else if (parent.isList()) {
+      var list = parent.asList();
+      int index = index(token, list.size());
+      var removed = list.removeItem(index);
+      undo.push(() -> list.addItem(index, removed));
+    } else {
+      throw new IllegalArgumentException("Can't remove from " + parent.getType());
+    }
+  }
+
+  private static void replace(BaseConfigItem<?> root, List<String> path, JsonElement value, 
+      Deque<Runnable> undo) {
+    var item = get(root, path, path.size());
+    if (path.isEmpty()) {
+      load(item, value, undo);
+      return;
+    }
+    var parent = item.getParent();
+    if (parent.isGroup()) {
+      set(parent.asGroup(), item.getKey(), value, undo);
+    } else {
+      var list = parent.asList();
+      int index = index(path.get(path.size() - 1), list.size());
+      if (accepts(item, value)) {
+        load(item, value, undo);
+      } else {
+        var previous = list.setItem(index, create("", value));
+        undo.push(() -> list.setItem(index, previous));
+      }
+    }
+  }
+
+  /**
+   * Applies a JSON Merge Patch to the tree in place.
+   * If the patch isn't an object, the value of the root is replaced, which must keep its type.
+   *
+   * @param root root of the tree
+   * @param patch merge patch
+   * @return reverts the patch
+   * @throws IllegalArgumentException if the patch can't be applied
+   */
+  public static Runnable applyMergePatch(@NotNull BaseConfigItem<?> root, 
+      @NotNull JsonElement patch) {
+    Objects.requireNonNull(root);
+    Objects.requireNonNull(patch);
+    var undo = new ArrayDeque<Runnable>();
+    try {
+      if (patch.isJsonObject()) {
+        if (!root.isGroup()) {
+          throw new IllegalArgumentException("Can't merge an object into " + root.getType());
+        }
+        merge(root.asGroup(), patch.getAsJsonObject(), undo);
+      } else {
+        load(root, patch, undo);
+      }
+    } catch (RuntimeException e) {
+      revert(undo);
+      throw e;
+    }
+    return () -> revert(undo);
+  }
+
+  private static void merge(ConfigGroup group, JsonObject patch, Deque<Runnable> undo) {
+    for (var entry : patch.entrySet()) {
+      var key = entry.getKey();
+      var value = entry.getValue();
+      var existing = group.getItem(key);
+      if (value.isJsonNull()) {
+        if (existing != null) {
+          group.removeItem(key);
+          undo.push(() -> group.setItem(existing));
+        }
+      } else if (value.isJsonObject()) {
+        if (existing != null && existing.isGroup()) {
+          merge(existing.asGroup(), value.getAsJsonObject(), undo);
+        } else {
+          var created = new ConfigGroup(key);
+          merge(created, value.getAsJsonObject(), new ArrayDeque<>());
+          var previous = group.setItem(created);
+          undo.push(() -> restore(group, key, previous));
+        }
+      } else {
+        set(group, key, value, undo);
+      }
+    }
+  }
+
+  /**
+   * Sets the value at the key of the group, in place if an item of the same type exists.
+   */
+  private static void set(ConfigGroup group, String key, JsonElement value, 
+      Deque<Runnable> undo) {
+    var existing = group.getItem(key);
+    if (existing != null && accepts(existing, value)) {
+      load(existing, value, undo);
+      return;
+    }
+    var previous = group.setItem(create(key, value));
+    undo.push(() -> restore(group, key, previous));
+  }
+
+  /**
+   * Loads the value into the item, keeping the children of groups that stay.
+   */
+  private static void load(BaseConfigItem<?> item, JsonElement value, Deque<Runnable> undo) {
+    if (!accepts(item, value)) {
+      throw new IllegalArgumentException("Can't replace " + item.getType() + " with " + value);
+    }
+    if (!item.isGroup()) {
+      var previous = toJson(item);
+      item.fromJson(value);
+      undo.push(() -> item.fromJson(previous));
+      return;
+    }
+    var group = item.asGroup();
+    var object = value.getAsJsonObject();
+    var keys = new HashSet<String>();
+    for (var entry : object.entrySet()) {
+      keys.add(entry.getKey());
+      set(group, entry.getKey(), entry.getValue(), undo);
+    }
+    for (var child : group.getValue()) {
+      if (!keys.contains(child.getKey())) {
+        group.removeItem(child.getKey());
+        undo.push(() -> group.setItem(child));
+      }
+    }
+  }
+
+  /**
+   * Checks if the value can be loaded into the item without changing its type.
+   */
+  private static boolean accepts(BaseConfigItem<?> item, JsonElement value) {
+    if (item.getType() != BaseConfigItem.getType(value)) {
+      return false;
+    }
+    if (item.isList() && item.asList().getSubType() != null) {
+      for (var element : value.getAsJsonArray()) {
+        if (item.asList().getSubType() != BaseConfigItem.getType(element)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void restore(ConfigGroup group, String key, BaseConfigItem<?> previous) {
+    if (previous != null) {
+      group.setItem(previous);
+    } else {
+      group.removeItem(key);
+    }
+  }
+
+  private static void revert(Deque<Runnable> undo) {
+    while (!undo.isEmpty()) {
+      undo.pop().run();
+    }
+  }
+
+  /**
+   * Gets the item at the first length tokens of the path.
+   */
+  private static BaseConfigItem<?> get(BaseConfigItem<?> root, List<String> path, int length) {
+    var item = root;
+    for (int i = 0; i < length; i++) {
+      var token = path.get(i);
+      if (item.isGroup()) {
+        item = item.asGroup().getItem(token);
+        if (item == null) {
+          throw new IllegalArgumentException("Item " + token + " was not found");
+        }
+      } else if (item.isList()) {
+        item = item.asList().getItem(index(token, item.asList().size()));
+      } else {
+        throw new IllegalArgumentException("Item " + token + " was not found in " 
+            + item.getType());
+      }
+    }
+    return item;
+  }
+
+  private static int index(String token, int size) {
+    int index;
+    try {
+      index = Integer.parseInt(token);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid list index: " + token);
+    }
+    if (index < 0 || index >= size || (token.length() > 1 && token.charAt(0) == '0')) {
+      throw new IllegalArgumentException("Invalid list index: " + token);
+    }
+    return index;
+  }
+
+  private static BaseConfigItem<?> create(String key, JsonElement value) {
+    var type = BaseConfigItem.getType(value);
+    if (type == null) {
+      throw new IllegalArgumentException("Unsupported value: " + value);
+    }
+    var item = BaseConfigItem.getInstance(type, key);
+    item.fromJson(value);
+    return item;
+  }
+
+  private static JsonElement toJson(BaseConfigItem<?> item) {
+    var array = new JsonArray();
+    item.toJson(array);
+    return array.get(0);
+  }
+
+  private static JsonPrimitive primitive(BaseConfigItem<?> item) {
+    var value = item.asNumber().getValue();
+    return value == null ? null : new JsonPrimitive(value);
+  }
+
+  /**
+   * Splits a JSON Pointer into its unescaped tokens.
+   *
+   * @param pointer pointer such as {@code /server/ops/0}, empty for the root
+   * @return keys and list indexes along the pointer
+   * @throws IllegalArgumentException if the pointer doesn't start with {@code /}
+   */
+  public static List<String> parsePointer(@NotNull String pointer) {
+    var tokens = new ArrayList<String>();
+    if (pointer.isEmpty()) {
+      return tokens;
+    }
+    if (pointer.charAt(0) != '/') {
+      throw new IllegalArgumentException("Invalid pointer: " + pointer);
+    }
+    int start = 1;
+    while (true) {
+      int end = pointer.indexOf('/', start);
+      var token = end < 0 ? pointer.substring(start) : pointer.substring(start, end);
+      tokens.add(token.replace("~1", "/").replace("~0", "~"));
+      if (end < 0) {
+        return tokens;
+      }
+      start = end + 1;
+    }
+  }
+
+  private static StringBuilder token(StringBuilder path, String key) {
+    return path.append('/').append(key.replace("~", "~0").replace("/", "~1"));
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.diff;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Single operation of a JSON Patch (RFC 6902).
+ * Paths are JSON Pointers (RFC 6901) from the root of the config, e.g. {@code /server/ops/0}.
+ *
+ * @see ConfigDiff#diff(dev.cashire.cashconfig.items.BaseConfigItem,
+ *      dev.cashire.cashconfig.items.BaseConfigItem)
+ */
+public final class PatchOperation {
+  private final Op op;
+  private final String path;
+  private final String from;
+  private final JsonElement value;
+
+  private PatchOperation(Op op, String path, String from, JsonElement value) {
+    this.op = op;
+    this.path = Objects.requireNonNull(path);
+    this.from = from;
+    this.value = value;
+  }
+
+  /**
+   * Adds a value to a group, inserts it into a list, or replaces the root.
+   * The last token of the path may be {@code -} to append to a list.
+   *
+   * @param path pointer to the new value
+   * @param value value to add
+   * @return the operation
+   */
+  public static PatchOperation add(@NotNull String path, @NotNull JsonElement value) {
+    return new PatchOperation(Op.ADD, path, null, Objects.requireNonNull(value));
+  }
+
+  /**
+   * Removes the value at the path, which must exist.
+   *
+   * @param path pointer to the value
+   * @return the operation
+   */
+  public static PatchOperation remove(@NotNull String path) {
+    return new PatchOperation(Op.REMOVE, path, null, null);
+  }
+
+  /**
+   * Replaces the value at the path, which must exist.
+   *
+   * @param path pointer to the value
+   * @param value new value
+   * @return the operation
+   */
+  public static PatchOperation replace(@NotNull String path, @NotNull JsonElement value) {
+    return new PatchOperation(Op.REPLACE, path, null, Objects.requireNonNull(value));
+  }
+
+  /**
+   * Removes the value at from and adds it at path.
+   *
+   * @param from pointer to the value to move
+   * @param path pointer to the new location
+   * @return the operation
+   */
+  public static PatchOperation move(@NotNull String from, @NotNull String path) {
+    return new PatchOperation(Op.MOVE, path, Objects.requireNonNull(from), null);
+  }
+
+  /**
+   * Adds a copy of the value at from at path.
+   *
+   * @param from pointer to the value to copy
+   * @param path pointer to the new location
+   * @return the operation
+   */
+  public static PatchOperation copy(@NotNull String from, @NotNull String path) {
+    return new PatchOperation(Op.COPY, path, Objects.requireNonNull(from), null);
+  }
+
+  /**
+   * Fails the patch unless the value at the path equals the given value.
+   *
+   * @param path pointer to the value
+   * @param value expected value
+   * @return the operation
+   */
+  public static PatchOperation test(@NotNull String path, @NotNull JsonElement value) {
+    return new PatchOperation(Op.TEST, path, null, Objects.requireNonNull(value));
+  }
+
+  /**
+   * Parses an operation from its json form.
+   *
+   * @param json operation, e.g. {@code {"op":"remove","path":"/server/motd"}}
+   * @return the operation
+   * @throws IllegalArgumentException if the operation is malformed
+   */
+  public static PatchOperation fromJson(@NotNull JsonObject json) {
+    Objects.requireNonNull(json);
+    var op = json.get("op");
+    var path = json.get("path");
+    if (op == null || path == null) {
+      throw new IllegalArgumentException("Missing op or path: " + json);
+    }
+    Op type;
+    try {
+      type = Op.valueOf(op.getAsString().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown op: " + op);
+    }
+    var from = json.get("from");
+    var value = json.get("value");
+    if ((type == Op.MOVE || type == Op.COPY) && from == null) {
+      throw new IllegalArgumentException("Missing from: " + json);
+    }
+    if ((type == Op.ADD || type == Op.REPLACE || type == Op.TEST) && value == null) {
+      throw new IllegalArgumentException("Missing value: " + json);
+    }
+    return new PatchOperation(type, path.getAsString(), 
+        from == null ? null : from.getAsString(), value);
+  }
+
+  /**
+   * Parses a JSON Patch.
+   *
+   * @param json array of operations
+   * @return the operations
+   * @throws IllegalArgumentException if an operation is malformed
+   */
+  public static List<PatchOperation> fromJson(@NotNull JsonArray json) {
+    Objects.requireNonNull(json);
+    var operations = new ArrayList<PatchOperation>(json.size());
+    for (var element : json) {
+      if (!element.isJsonObject()) {
+        throw new IllegalArgumentException("Operation is not an object: " + element);
+      }
+      operations.add(fromJson(element.getAsJsonObject()));
+    }
+    return operations;
+  }
+
+  /**
+   * Writes a JSON Patch.
+   *
+   * @param operations operations to write
+   * @return array of operations
+   */
+  public static JsonArray toJson(@NotNull List<PatchOperation> operations) {
+    var json = new JsonArray();
+    for (var operation : operations) {
+      json.add(operation.toJson());
+    }
+    return json;
+  }
+
+  /**
+   * Writes this operation in its json form.
+   *
+   * @return the operation as json
+   */
+  public JsonObject toJson() {
+    var json = new JsonObject();
+    json.addProperty("op", op.name().toLowerCase(Locale.ROOT));
+    if (from != null) {
+      json.addProperty("from", from);
+    }
+    json.addProperty("path", path);
+    if (value != null) {
+      json.add("value", value);
+    }
+    return json;
+  }
+
+  /**
+   * Kind of this operation.
+   *
+   * @return the operation kind
+   */
+  public Op getOp() {
+    return op;
+  }
+
+  /**
+   * Target of this operation.
+   *
+   * @return JSON Pointer from the root of the config, empty for the root itself
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Source of a move or copy.
+   *
+   * @return pointer to the source, null for other operations
+   */
+  public String getFrom() {
+    return from;
+  }
+
+  /**
+   * Value of an add, replace or test.
+   *
+   * @return the value, null for other operations
+   */
+  public JsonElement getValue() {
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof PatchOperation)) {
+      return false;
+    }
+    var other = (PatchOperation) obj;
+    return op == other.op && path.equals(other.path) && Objects.equals(from, other.from)
+        && Objects.equals(value, other.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(op, path, from, value);
+  }
+
+  @Override
+  public String toString() {
+    return toJson().toString();
+  }
+
+  /**
+   * Kind of a {@link PatchOperation}.
+   */
+  public enum Op {
+    /**
+     * Adds a value to a group, replacing an existing one, or inserts it into a list.
+     *
+     * @see PatchOperation#add(String, JsonElement)
+     */
+    ADD,
+    /**
+     * Removes the value at the path.
+     *
+     * @see PatchOperation#remove(String)
+     */
+    REMOVE,
+    /**
+     * Replaces the existing value at the path.
+     *
+     * @see PatchOperation#replace(String, JsonElement)
+     */
+    REPLACE,
+    /**
+     * Removes the value at from and adds it at the path.
+     *
+     * @see PatchOperation#move(String, String)
+     */
+    MOVE,
+    /**
+     * Adds a copy of the value at from at the path.
+     *
+     * @see PatchOperation#copy(String, String)
+     */
+    COPY,
+    /**
+     * Checks that the value at the path equals the given value.
+     *
+     * @see PatchOperation#test(String, JsonElement)
+     */
+    TEST
+  }
+}
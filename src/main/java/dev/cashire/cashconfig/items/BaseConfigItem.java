@@ -27,7 +27,13 @@ package dev.cashire.cashconfig.items;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
 import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
 
@@ -37,11 +43,32 @@ import org.jetbrains.annotations.NotNull;
  * @param <T> type stored in this item. Supported types listed in {@link BaseConfigItem.Type}
  */
 public abstract class BaseConfigItem<T> {
+  private static final Pattern NEEDS_QUOTES = Pattern.compile("[.\\[\\]*'\" ]");
+  /**
+   * Access to {@link #value} for atomic operations.
+   */
+  static final VarHandle VALUE;
+  /**
+   * Access to {@link #contentHash} for storing computed hashes.
+   */
+  private static final VarHandle CONTENT_HASH;
+
+  static {
+    try {
+      var lookup = MethodHandles.lookup();
+      VALUE = lookup.findVarHandle(BaseConfigItem.class, "value", Object.class);
+      CONTENT_HASH = lookup.findVarHandle(BaseConfigItem.class, "contentHash", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
   /**
    * key for this item. 
    * only used for items added to {@link ConfigGroup}
+   * Only replaced by an equal string, see {@link ItemInterner}.
    */
-  protected final String key;
+  protected String key;
   /**
    * Value being stored by this item.
    */
@@ -50,6 +77,32 @@ public abstract class BaseConfigItem<T> {
    * Type of this item.
    */
   protected final Type type;
+  /**
+   * Group or list this item was last added to.
+   */
+  private BaseConfigItem<?> parent;
+  /**
+   * When set, changes of children are not passed on to the parent.
+   */
+  boolean muted;
+  /**
+   * Notified of changes that reach this item while it has no parent.
+   */
+  private ItemObserver observer;
+  /**
+   * Set while this item is read-only, see {@link #freeze()}.
+   */
+  private boolean frozen;
+  /**
+   * Cached {@link #contentHash()}, which is always odd. While it isn't known this is an even
+   * stamp that changes with every change, so a hash computed from the content before a
+   * change is never stored after it.
+   */
+  private volatile long contentHash;
+  /**
+   * Rules the value must follow, null if there are none.
+   */
+  private List<Constraint<? super T>> constraints;
 
   /**
    * Serializes data into the given {@link JsonObject}.
@@ -77,6 +130,22 @@ public abstract class BaseConfigItem<T> {
    */
   public abstract void fromJson(@NotNull JsonElement element);
 
+  /**
+   * Loads the given json into this item so it matches it exactly, reusing the items
+   * it already holds. Used for elements of lists while they are reloaded.
+   *
+   * @param element json of the same type as this item
+   * @param undo collects what reverts the changes, in the order they were made
+   */
+  void reload(@NotNull JsonElement element, @NotNull List<Runnable> undo) {
+    var previous = value;
+    fromJson(element);
+    undo.add(() -> {
+      value = previous;
+      invalidateHash();
+    });
+  }
+
   /**
    * Gets the type of this item.
    *
@@ -145,7 +214,559 @@ public abstract class BaseConfigItem<T> {
    * @param value value to use instead of current value.
    */
   public void setValue(@NotNull T value) {
-    this.value = Objects.requireNonNull(value);
+    Objects.requireNonNull(value);
+    ensureMutable();
+    check(value);
+    var previous = this.value;
+    this.value = value;
+    try {
+      notifyParents(this);
+    } catch (IllegalArgumentException e) {
+      this.value = previous;
+      notifyParents(this);
+      throw e;
+    }
+  }
+
+  /**
+   * Replaces the value if it is still the expected instance, then notifies like
+   * {@link #setValue(Object)}. An item without parent or observer is updated without
+   * locking. In a tree the update runs through the {@link ItemObserver#update observer}
+   * at the top, or while holding the top item if there is none, so indexes, journals and
+   * cached hashes the notification touches are never changed by two threads at once.
+   *
+   * @param expected value read before
+   * @param value value to use instead
+   * @return true if replaced, false if the value changed in between
+   * @throws ValidationException if the value breaks a constraint
+   */
+  final boolean swapValue(T expected, @NotNull T value) {
+    ensureMutable();
+    check(value);
+    BaseConfigItem<?> top = this;
+    while (top.parent != null) {
+      top = top.parent;
+    }
+    if (top.observer != null) {
+      return top.observer.update(() -> exchange(expected, value));
+    }
+    if (top == this) {
+      return exchange(expected, value);
+    }
+    synchronized (top) {
+      return exchange(expected, value);
+    }
+  }
+
+  /**
+   * Replaces the value if it is still the expected instance and notifies the parents,
+   * putting the expected value back if they reject the change.
+   */
+  private boolean exchange(T expected, T value) {
+    if (!VALUE.compareAndSet(this, expected, value)) {
+      return false;
+    }
+    try {
+      notifyParents(this);
+    } catch (IllegalArgumentException e) {
+      VALUE.setVolatile(this, expected);
+      notifyParents(this);
+      throw e;
+    }
+    return true;
+  }
+
+  /**
+   * Attaches constraints to this item. The value is checked against them whenever
+   * it is set or loaded, and invalid values are rejected with a {@link ValidationException}.
+   *
+   * @param constraints constraints to add
+   * @return this item
+   * @throws ValidationException if the current value breaks one of the constraints
+   */
+  @SafeVarargs
+  public final BaseConfigItem<T> constrain(@NotNull Constraint<? super T>... constraints) {
+    var added = new ArrayList<Constraint<? super T>>(constraints.length);
+    for (var constraint : constraints) {
+      added.add(Objects.requireNonNull(constraint));
+      var current = getValue();
+      var reason = current == null ? null : constraint.check(current);
+      if (reason != null) {
+        throw new ValidationException(getPath(), reason);
+      }
+    }
+    if (this.constraints != null) {
+      added.addAll(0, this.constraints);
+    }
+    this.constraints = added;
+    return this;
+  }
+
+  /**
+   * Gets the constraints of this item.
+   *
+   * @return unmodifiable list of constraints
+   */
+  public List<Constraint<? super T>> getConstraints() {
+    return constraints == null ? List.of() : Collections.unmodifiableList(constraints);
+  }
+
+  /**
+   * Checks a value against the constraints of this item.
+   *
+   * @param value value to check
+   * @throws ValidationException if the value breaks a constraint
+   */
+  protected final void check(@NotNull T value) {
+    if (constraints == null) {
+      return;
+    }
+    for (var constraint : constraints) {
+      var reason = constraint.check(value);
+      if (reason != null) {
+        throw new ValidationException(getPath(), reason);
+      }
+    }
+  }
+
+  /**
+   * Checks json against the constraints of this item and its children without loading it,
+   * so a file can be rejected before any item has changed.
+   *
+   * @param element json that would be loaded with {@link #fromJson(JsonElement)}
+   * @throws ValidationException if a value breaks a constraint
+   */
+  @Internal
+  @SuppressWarnings("unchecked")
+  public void validate(@NotNull JsonElement element) {
+    if (constraints == null) {
+      return;
+    }
+    if (!validType(element, type)) {
+      throw new ValidationException(getPath(), "expected " + type + " but was " + element);
+    }
+    var parsed = getInstance(type, key);
+    parsed.fromJson(element);
+    check((T) parsed.value);
+  }
+
+  /**
+   * Path of this item from the top of its tree, not including the key of the top item.
+   * Keys are separated by {@code .} and list elements are given by their index,
+   * the same format {@link dev.cashire.cashconfig.query.ConfigQuery} uses.
+   *
+   * @return path, e.g. {@code server.ops[3].name}, or the key if this item has no parent
+   */
+  public String getPath() {
+    if (parent == null) {
+      return key;
+    }
+    var segments = new ArrayList<String>();
+    BaseConfigItem<?> current = this;
+    while (current.parent != null) {
+      var container = current.parent;
+      if (container.isList()) {
+        int index = 0;
+        for (var element : container.asList()) {
+          if (element == current) {
+            break;
+          }
+          index++;
+        }
+        segments.add("[" + index + "]");
+      } else if (current.key.isEmpty() || NEEDS_QUOTES.matcher(current.key).find()) {
+        var quote = current.key.indexOf('"') < 0 ? '"' : '\'';
+        segments.add("[" + quote + current.key + quote + "]");
+      } else {
+        segments.add(current.key);
+      }
+      current = container;
+    }
+    var path = new StringBuilder();
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      var segment = segments.get(i);
+      if (path.length() > 0 && segment.charAt(0) != '[') {
+        path.append('.');
+      }
+      path.append(segment);
+    }
+    return path.toString();
+  }
+
+  /**
+   * Makes this item read-only so it can be shared between configs.
+   * Groups and lists freeze their items as well, large groups index their items
+   * with a perfect hash.
+   * Every change afterwards throws an {@link UnsupportedOperationException}.
+   */
+  @Internal
+  public void freeze() {
+    frozen = true;
+  }
+
+  /**
+   * Makes a frozen item changeable again, groups and lists unfreeze their items as well.
+   * Must not be used on items shared between configs.
+   */
+  @Internal
+  public void unfreeze() {
+    frozen = false;
+  }
+
+  /**
+   * Checks if this item is read-only.
+   *
+   * @return true if frozen, false otherwise
+   * @see #freeze()
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Rejects changes to a frozen item.
+   *
+   * @throws UnsupportedOperationException if this item is frozen
+   */
+  protected final void ensureMutable() {
+    if (frozen) {
+      throw new UnsupportedOperationException(
+          "Item " + getPath() + " is frozen and can't be changed or moved");
+    }
+  }
+
+  /**
+   * Creates a detached, mutable copy of this item with the same value and constraints.
+   *
+   * @return the copy
+   */
+  @Internal
+  public BaseConfigItem<T> copy() {
+    var json = new JsonArray();
+    toJson(json);
+    @SuppressWarnings("unchecked")
+    var copy = (BaseConfigItem<T>) getInstance(type, key);
+    copy.fromJson(json.get(0));
+    copy.constraints = constraints;
+    return copy;
+  }
+
+  /**
+   * Uses the constraints of another item, for copies.
+   *
+   * @param source item to take the constraints of
+   */
+  void copyConstraints(@NotNull BaseConfigItem<T> source) {
+    constraints = source.constraints;
+  }
+
+  /**
+   * Hash of the content of this item: its type and value, and for groups and lists the
+   * keys and structural hashes of their items. The key of this item isn't part of it.
+   * The hash is cached until this item or one of its items changes.
+   *
+   * @return structural hash
+   * @see #structurallyEquals(BaseConfigItem)
+   * @see #contentHash()
+   */
+  public final int structuralHash() {
+    var hash = contentHash();
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  /**
+   * 64 bit hash of the content of this item, like {@link #structuralHash()}, for comparing
+   * trees without having both at hand. Groups hash their items independent of order, lists
+   * by position, and the key of this item isn't part of it.
+   * The hash only depends on the content, so it is the same in every process and can be
+   * sent to other nodes to check if their configs match.
+   *
+   * <p>Each item caches its hash. A change clears the cache of the changed item and its
+   * parents, so the next call only hashes again the items on the path to the change
+   * and reuses the cached hashes of everything else.
+   *
+   * @return content hash, always odd
+   */
+  public final long contentHash() {
+    var stamp = contentHash;
+    if ((stamp & 1) != 0) {
+      return stamp;
+    }
+    long hash = 0;
+    switch (type) {
+      case GROUP:
+        for (var item : asGroup().children()) {
+          hash += mix(hash(item.key) * 0x9E3779B97F4A7C15L + item.contentHash());
+        }
+        break;
+      case ARRAY:
+        for (var item : asList()) {
+          hash = (hash + item.contentHash()) * 0xBF58476D1CE4E5B9L;
+        }
+        break;
+      case NUMBER:
+        hash = hash(getValue().toString());
+        break;
+      case STRING:
+        hash = hash(asString().getValue());
+        break;
+      default:
+        hash = getValue().hashCode();
+    }
+    hash = mix(hash + type.ordinal()) | 1;
+    // fails if the content changed while hashing
+    CONTENT_HASH.compareAndSet(this, stamp, hash);
+    return hash;
+  }
+
+  /**
+   * Forgets the cached {@link #contentHash()}, replacing it with a new even stamp.
+   */
+  private void invalidateHash() {
+    contentHash = (contentHash | 1) + 1;
+  }
+
+  /**
+   * Hashes text to 64 bits with FNV-1a.
+   *
+   * @param text text to hash
+   * @return hash of the text
+   */
+  private static long hash(String text) {
+    var hash = 0xCBF29CE484222325L;
+    for (int i = 0; i < text.length(); i++) {
+      hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+    }
+    return hash;
+  }
+
+  /**
+   * Spreads the bits of a hash, the finalizer of SplitMix64.
+   *
+   * @param hash hash to mix
+   * @return mixed hash
+   */
+  private static long mix(long hash) {
+    hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+    return hash ^ (hash >>> 31);
+  }
+
+  /**
+   * Checks if another item has the same content as this one, ignoring the keys of
+   * both items. Numbers are equal if they are written the same way.
+   * Unlike {@link #equals(Object)}, which stays identity based, this compares whole subtrees.
+   *
+   * @param other item to compare with
+   * @return true if both items would be written as the same json value
+   */
+  public final boolean structurallyEquals(BaseConfigItem<?> other) {
+    if (this == other) {
+      return true;
+    }
+    if (other == null || type != other.type || contentHash() != other.contentHash()) {
+      return false;
+    }
+    switch (type) {
+      case GROUP:
+        var group = other.asGroup();
+        if (asGroup().size() != group.size()) {
+          return false;
+        }
+        for (var item : asGroup().children()) {
+          if (!item.structurallyEquals(group.getItem(item.key))) {
+            return false;
+          }
+        }
+        return true;
+      case ARRAY:
+        var list = other.asList();
+        if (asList().size() != list.size()) {
+          return false;
+        }
+        for (int i = 0; i < list.size(); i++) {
+          if (!asList().getItem(i).structurallyEquals(list.getItem(i))) {
+            return false;
+          }
+        }
+        return true;
+      case NUMBER:
+        return getValue().toString().equals(other.getValue().toString());
+      default:
+        return getValue().equals(other.getValue());
+    }
+  }
+
+  /**
+   * Gets the group or list this item is stored in.
+   *
+   * @return parent of this item, null if not in a group or list
+   */
+  public BaseConfigItem<?> getParent() {
+    return parent;
+  }
+
+  /**
+   * Attaches this item to the given parent.
+   *
+   * @param parent group or list this item was added to
+   */
+  void attach(@NotNull BaseConfigItem<?> parent) {
+    this.parent = parent;
+  }
+
+  /**
+   * Detaches this item if it is attached to the given parent.
+   *
+   * @param parent group or list this item was removed from
+   */
+  void detach(@NotNull BaseConfigItem<?> parent) {
+    if (this.parent == parent) {
+      this.parent = null;
+    }
+  }
+
+  /**
+   * Notifies the parents of this item that its value changed.
+   *
+   * @throws IllegalArgumentException if the value is invalid or a parent rejects the change
+   */
+  protected final void changed() {
+    changed(this);
+  }
+
+  /**
+   * Notifies the parents of this item that the given item changed.
+   * Containers pass an item they just added as origin.
+   *
+   * @param origin this item, or a child that was added to it
+   * @throws IllegalArgumentException if the value is invalid or a parent rejects the change
+   */
+  protected final void changed(@NotNull BaseConfigItem<?> origin) {
+    if (constraints != null) {
+      check(getValue());
+    }
+    notifyParents(origin);
+  }
+
+  /**
+   * Notifies the parents of this item that the given item changed,
+   * for values that were already checked against the constraints.
+   *
+   * @param origin this item, or a child that was added to it
+   * @throws IllegalArgumentException if a parent rejects the change
+   */
+  private void notifyParents(BaseConfigItem<?> origin) {
+    invalidateHash();
+    if (parent != null) {
+      parent.childChanged(this, origin);
+    } else if (observer != null) {
+      observer.changed(origin);
+    }
+  }
+
+  /**
+   * Notifies the parents of this item that its value changed.
+   * If a parent rejects the change, the change is undone before rethrowing.
+   *
+   * @param undo reverts the change
+   * @throws IllegalArgumentException if the value is invalid or a parent rejects the change
+   */
+  protected final void changed(@NotNull Runnable undo) {
+    changed(this, undo);
+  }
+
+  /**
+   * Notifies the parents of this item that the given item changed.
+   * If a parent rejects the change, the change is undone before rethrowing.
+   *
+   * @param origin this item, or a child that was added to it
+   * @param undo reverts the change
+   * @throws IllegalArgumentException if the value is invalid or a parent rejects the change
+   */
+  protected final void changed(@NotNull BaseConfigItem<?> origin, @NotNull Runnable undo) {
+    try {
+      changed(origin);
+    } catch (IllegalArgumentException e) {
+      undo.run();
+      changed();
+      throw e;
+    }
+  }
+
+  /**
+   * Tells the observer at the top of the tree that a child is being removed from this item.
+   * Must be called while the child is still attached, followed by {@link #changed()}
+   * once it is detached.
+   *
+   * @param child child being removed
+   * @param index position of the child in a list, -1 for groups
+   */
+  protected final void removing(@NotNull BaseConfigItem<?> child, int index) {
+    var observer = findObserver();
+    if (observer != null) {
+      observer.removing(this, child, index);
+    }
+  }
+
+  /**
+   * Tells the observer at the top of the tree that a child was inserted into this list
+   * before existing items. Must be followed by {@link #changed(BaseConfigItem)} with the child.
+   *
+   * @param child child that was inserted
+   * @param index position of the child
+   */
+  protected final void inserted(@NotNull BaseConfigItem<?> child, int index) {
+    var observer = findObserver();
+    if (observer != null) {
+      observer.inserted(this, child, index);
+    }
+  }
+
+  /**
+   * Finds the observer of the tree this item is in.
+   *
+   * @return the observer, null if there is none or a parent is {@link #muted}
+   */
+  private ItemObserver findObserver() {
+    BaseConfigItem<?> top = this;
+    while (top.parent != null) {
+      if (top.parent.muted) {
+        return null;
+      }
+      top = top.parent;
+    }
+    return top.observer;
+  }
+
+  /**
+   * Called when a direct child of this item changed.
+   * Passes the change on to the parent unless this item is {@link #muted}.
+   *
+   * @param child direct child that changed or contains the change
+   * @param origin item whose value changed
+   * @throws IllegalArgumentException if the change is rejected
+   */
+  void childChanged(@NotNull BaseConfigItem<?> child, @NotNull BaseConfigItem<?> origin) {
+    invalidateHash();
+    if (muted) {
+      return;
+    }
+    if (parent != null) {
+      parent.childChanged(this, origin);
+    } else if (observer != null) {
+      observer.changed(origin);
+    }
+  }
+
+  /**
+   * Sets the observer notified of changes in this item's tree while it has no parent.
+   *
+   * @param observer observer to notify, null to remove
+   */
+  @Internal
+  public void setObserver(ItemObserver observer) {
+    this.observer = observer;
   }
 
   /**
@@ -79,7 +79,66 @@ public final class ConfigBoolean extends BaseConfigItem<Boolean> {
   @Override
   public void fromJson(@NotNull JsonElement element) {
     Objects.requireNonNull(element);
+    ensureMutable();
+    var previous = value;
     value = element.getAsBoolean();
+    changed(() -> value = previous);
   }
 
+  /**
+   * Gets the value with volatile semantics, seeing the latest atomic change of any thread.
+   *
+   * @return current value
+   */
+  public boolean getVolatile() {
+    return (Boolean) VALUE.getVolatile(this);
+  }
+
+  /**
+   * Sets the value atomically and notifies like {@link #setValue(Object)}.
+   *
+   * @param value value to use
+   * @return the previous value
+   */
+  public boolean getAndSet(boolean value) {
+    while (true) {
+      var current = (Boolean) VALUE.getVolatile(this);
+      if (swapValue(current, value)) {
+        return current;
+      }
+    }
+  }
+
+  /**
+   * Sets the value atomically if it is the expected value.
+   *
+   * @param expected value this item must have
+   * @param value value to use
+   * @return true if the value was set, false if it wasn't the expected value
+   */
+  public boolean compareAndSet(boolean expected, boolean value) {
+    while (true) {
+      var current = (Boolean) VALUE.getVolatile(this);
+      if (current != expected) {
+        return false;
+      }
+      if (swapValue(current, value)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Inverts the value atomically.
+   *
+   * @return the previous value
+   */
+  public boolean getAndToggle() {
+    while (true) {
+      var current = (Boolean) VALUE.getVolatile(this);
+      if (swapValue(current, !current)) {
+        return current;
+      }
+    }
+  }
 }
@@ -29,8 +29,11 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -39,8 +42,28 @@ import org.jetbrains.annotations.NotNull;
 /**
  * Configuration item for a json object for {@link BaseConfigItem}.
  */
-public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
+public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>>
+    implements Iterable<BaseConfigItem<?>> {
+  /**
+   * Groups with at most this many items keep them in {@link #slots} instead of a map.
+   */
+  static final int COMPACT_LIMIT = 8;
+  private static final BaseConfigItem<?>[] EMPTY = new BaseConfigItem<?>[0];
+  /**
+   * Items by key, null while the items are stored in {@link #slots}.
+   */
   private Map<String, BaseConfigItem<?>> items;
+  /**
+   * Keys shared with other groups, {@link #slots} is then ordered by its keys.
+   */
+  private Shape shape;
+  /**
+   * Index of the items of a frozen group too large for a linear search,
+   * {@link #slots} is then ordered by it.
+   */
+  private PerfectHash hash;
+  private BaseConfigItem<?>[] slots = EMPTY;
+  private int count;
 
   /**
    * Creates an empty Group item with no key.
@@ -70,15 +93,20 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
    */
   public ConfigGroup(@NotNull String key, List<BaseConfigItem<?>> items) {
     super(Objects.requireNonNull(key), Type.GROUP);
-    this.items = new HashMap<>();
     if (items == null) {
       items = new ArrayList<>();
     }
+    if (items.size() > COMPACT_LIMIT) {
+      this.items = new HashMap<>();
+    } else if (!items.isEmpty()) {
+      slots = new BaseConfigItem<?>[items.size()];
+    }
     for (var item : items) {
-      if (this.items.containsKey(item.getKey())) {
+      if (lookup(item.getKey()) != null) {
         throw new InvalidParameterException("Duplicate key: " + item.getKey());
       }
-      this.items.put(item.getKey(), item);
+      store(item.getKey(), item);
+      item.attach(this);
     }
   }
 
@@ -88,7 +116,7 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
    * @return count of {@link #getValue()}
    */
   public int size() {
-    return items.size();
+    return items != null ? items.size() : count;
   }
 
   /**
@@ -99,10 +127,14 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
    */
   public boolean addItem(@NotNull BaseConfigItem<?> item) {
     Objects.requireNonNull(item);
-    if (items.containsKey(item.getKey())) {
+    ensureMutable();
+    item.ensureMutable();
+    if (lookup(item.getKey()) != null) {
       return false;
     }
-    items.put(item.getKey(), item);
+    store(item.getKey(), item);
+    item.attach(this);
+    changed(item, () -> delete(item.getKey()).detach(this));
     return true;
   }
 
@@ -114,7 +146,7 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
    */
   public BaseConfigItem<?> getItem(@NotNull String key) {
     Objects.requireNonNull(key);
-    return items.get(key);
+    return lookup(key);
   }
 
   /**
@@ -125,7 +157,20 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
    */
   public BaseConfigItem<?> removeItem(@NotNull String key) {
     Objects.requireNonNull(key);
-    return items.remove(key);
+    ensureMutable();
+    var existing = lookup(key);
+    if (existing == null) {
+      return null;
+    }
+    removing(existing, -1);
+    var position = items == null ? indexOf(key) : -1;
+    var removed = delete(key);
+    removed.detach(this);
+    changed(() -> {
+      restore(removed);
+      moveLast(position);
+    });
+    return removed;
   }
 
   /**
@@ -136,7 +181,99 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
    */
   public BaseConfigItem<?> setItem(@NotNull BaseConfigItem<?> item) {
     Objects.requireNonNull(item);
-    return items.put(item.getKey(), item);
+    ensureMutable();
+    item.ensureMutable();
+    var previous = store(item.getKey(), item);
+    if (previous != null && previous != item) {
+      previous.detach(this);
+    }
+    item.attach(this);
+    changed(item, () -> {
+      item.detach(this);
+      if (previous != null) {
+        restore(previous);
+      } else {
+        delete(item.getKey());
+      }
+    });
+    return previous;
+  }
+
+  /**
+   * Also freezes every item of this group.
+   */
+  @Override
+  public void freeze() {
+    super.freeze();
+    values().forEach(BaseConfigItem::freeze);
+    if (items != null && items.size() <= COMPACT_LIMIT) {
+      reset(new ArrayList<>(items.values()));
+    } else if (items != null) {
+      hash = PerfectHash.build(items.values());
+      if (hash != null) {
+        slots = hash.slots();
+        count = slots.length;
+        items = null;
+      }
+    }
+  }
+  /**
+   * Also unfreezes every item of this group.
+   */
+  @Override
+  public void unfreeze() {
+    super.unfreeze();
+    if (hash != null) {
+      hash = null;
+      promote();
+    }
+    values().forEach(BaseConfigItem::unfreeze);
+  }
+
+
+  /**
+   * Copies every item of this group.
+   */
+  @Override
+  public ConfigGroup copy() {
+    var copies = new ArrayList<BaseConfigItem<?>>(size());
+    for (var item : values()) {
+      copies.add(item.copy());
+    }
+    var copy = new ConfigGroup(key, copies);
+    copy.copyConstraints(this);
+    return copy;
+  }
+
+  /**
+   * Rebuilds the map of items with the current keys of the items,
+   * so it holds the strings that were interned.
+   */
+  void rekey() {
+    if (shape != null) {
+      for (int i = 0; i < count; i++) {
+        slots[i].key = shape.key(i);
+      }
+    }
+    if (items == null) {
+      return;
+    }
+    var capacity = Math.max(16, (int) (items.size() / 0.75f) + 1);
+    var rebuilt = new HashMap<String, BaseConfigItem<?>>(capacity);
+    for (var item : items.values()) {
+      rebuilt.put(item.key, item);
+    }
+    items = rebuilt;
+  }
+
+  /**
+   * Puts an item back into this group while undoing a rejected change.
+   *
+   * @param item item to put back
+   */
+  private void restore(BaseConfigItem<?> item) {
+    store(item.getKey(), item);
+    item.attach(this);
   }
 
   /**
@@ -147,14 +284,14 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
    */
   public boolean hasItem(@NotNull String key) {
     Objects.requireNonNull(key);
-    return items.containsKey(key);
+    return lookup(key) != null;
   }
 
   @Override
   public void toJson(@NotNull JsonObject parent) {
     Objects.requireNonNull(parent);
     var element = new JsonObject();
-    for (var item : items.values()) {
+    for (var item : values()) {
       item.toJson(element);
     }
     parent.add(key, element);
@@ -164,7 +301,7 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
   public void toJson(@NotNull JsonArray parent) {
     Objects.requireNonNull(parent);
     var element = new JsonObject();
-    for (var item : items.values()) {
+    for (var item : values()) {
       item.toJson(element);
     }
     parent.add(element);
@@ -174,35 +311,130 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
   public void fromJson(@NotNull JsonElement element) {
     Objects.requireNonNull(element);
     var obj = element.getAsJsonObject();
-    for (var entry : obj.entrySet()) {
-      if (items.containsKey(entry.getKey())) {
-        var item = items.get(entry.getKey());
-        item.fromJson(entry.getValue());
-      } else if (entry.getValue().isJsonArray()) {
-        var item = new ConfigList(entry.getKey(), null, null);
-        item.fromJson(entry.getValue());
-        items.put(entry.getKey(), item);
-      } else if (entry.getValue().isJsonObject()) {
-        var item = new ConfigGroup(entry.getKey(), null);
+    ensureMutable();
+    muted = true;
+    try {
+      for (var entry : obj.entrySet()) {
+        var item = prepare(entry.getKey(), entry.getValue());
+        if (item != null) {
+          item.fromJson(entry.getValue());
+        }
+      }
+    } finally {
+      muted = false;
+    }
+    changed();
+  }
+
+  /**
+   * Also checks the values of existing children against their constraints.
+   */
+  @Override
+  public void validate(@NotNull JsonElement element) {
+    super.validate(element);
+    if (!element.isJsonObject()) {
+      return;
+    }
+    for (var entry : element.getAsJsonObject().entrySet()) {
+      var item = lookup(entry.getKey());
+      if (item != null) {
+        item.validate(entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Unlike {@link #fromJson(JsonElement)}, items without a value in the json are removed.
+   */
+  @Override
+  void reload(@NotNull JsonElement element, @NotNull List<Runnable> undo) {
+    ensureMutable();
+    var obj = element.getAsJsonObject();
+    muted = true;
+    try {
+      for (var entry : obj.entrySet()) {
+        var key = entry.getKey();
+        var existing = lookup(key);
+        if (existing != null && validType(entry.getValue(), existing.type)) {
+          existing.reload(entry.getValue(), undo);
+          continue;
+        }
+        var itemType = getType(entry.getValue());
+        if (itemType == null) {
+          continue;
+        }
+        var item = getInstance(itemType, key);
         item.fromJson(entry.getValue());
-        items.put(entry.getKey(), item);
-      } else if (entry.getValue().isJsonPrimitive()) {
-        var prim = entry.getValue().getAsJsonPrimitive();
-        if (prim.isString()) {
-          var item = new ConfigString(entry.getKey(), null);
-          item.fromJson(prim);
-          items.put(entry.getKey(), item);
-        } else if (prim.isNumber()) {
-          var item = new ConfigNumber(entry.getKey(), null);
-          item.fromJson(prim);
-          items.put(entry.getKey(), item);
-        } else if (prim.isBoolean()) {
-          var item = new ConfigBoolean(entry.getKey(), null);
-          item.fromJson(prim);
-          items.put(entry.getKey(), item);
+        var previous = store(key, item);
+        if (previous != null) {
+          previous.detach(this);
         }
+        item.attach(this);
+        undo.add(() -> {
+          item.detach(this);
+          if (previous != null) {
+            restore(previous);
+          } else {
+            delete(key);
+          }
+        });
       }
+      for (var item : new ArrayList<>(values())) {
+        if (!obj.has(item.key)) {
+          var position = items == null ? indexOf(item.key) : -1;
+          delete(item.key);
+          item.detach(this);
+          undo.add(() -> {
+            restore(item);
+            moveLast(position);
+          });
+        }
+      }
+    } finally {
+      muted = false;
+    }
+    changed();
+  }
+
+  /**
+   * Gets the item that the given json value should be loaded into.
+   * If no item exists at the key yet, a new one of the matching type is added.
+   *
+   * @param key key of the json value
+   * @param value json value that will be loaded
+   * @return item to load value into, null if type of value isn't supported
+   */
+  BaseConfigItem<?> prepare(@NotNull String key, @NotNull JsonElement value) {
+    var existing = lookup(key);
+    if (existing != null) {
+      return existing;
+    }
+    var itemType = getType(value);
+    if (itemType == null) {
+      return null;
     }
+    var item = getInstance(itemType, key);
+    store(key, item);
+    item.attach(this);
+    return item;
+  }
+
+  /**
+   * Live view of the items in this group, in serialization order.
+   *
+   * @return items of this group
+   */
+  Collection<BaseConfigItem<?>> children() {
+    return values();
+  }
+
+  /**
+   * Iterates over the items without copying them.
+   * The iterator doesn't support removal.
+   */
+  @Override
+  public Iterator<BaseConfigItem<?>> iterator() {
+    return Collections.unmodifiableCollection(values()).iterator();
   }
 
   /**
@@ -211,16 +443,193 @@ public final class ConfigGroup extends BaseConfigItem<List<BaseConfigItem<?>>> {
    */
   @Override
   public List<BaseConfigItem<?>> getValue() {
-    return Collections.unmodifiableList(new ArrayList<>(items.values()));
+    return Collections.unmodifiableList(new ArrayList<>(values()));
   }
 
   @Override
   public void setValue(@NotNull List<BaseConfigItem<?>> value) {
     Objects.requireNonNull(value);
-    items = new HashMap<>();
+    ensureMutable();
+    value.forEach(BaseConfigItem::ensureMutable);
+    var previous = new ArrayList<>(values());
+    reset(value);
+    for (var item : previous) {
+      item.detach(this);
+    }
+    for (var item : values()) {
+      item.attach(this);
+    }
+    changed(() -> {
+      values().forEach(item -> item.detach(this));
+      reset(previous);
+      values().forEach(item -> item.attach(this));
+    });
+  }
+
+  /**
+   * Stores the items in the order of the given shape, sharing its keys.
+   * Nothing changes if this group doesn't hold items at exactly the keys of the shape.
+   *
+   * @param shape shape to use
+   * @return true if this group uses the shape
+   */
+  boolean reshape(@NotNull Shape shape) {
+    if (this.shape == shape) {
+      return true;
+    }
+    if (!shape.matches(this)) {
+      return false;
+    }
+    var shaped = new BaseConfigItem<?>[shape.size()];
+    for (int i = 0; i < shaped.length; i++) {
+      shaped[i] = lookup(shape.key(i));
+      shaped[i].key = shape.key(i);
+    }
+    this.shape = shape;
+    slots = shaped;
+    count = shaped.length;
+    items = null;
+    return true;
+  }
+
+  /**
+   * Gets the item at a position of the shape, if this group uses the shape.
+   *
+   * @param shape shape the position belongs to
+   * @param index position in the shape
+   * @return the item, null if this group doesn't use the shape
+   */
+  BaseConfigItem<?> slot(@NotNull Shape shape, int index) {
+    return this.shape == shape ? slots[index] : null;
+  }
+
+  /**
+   * Replaces the stored items, later items replace earlier items with the same key.
+   *
+   * @param value new items
+   */
+  private void reset(List<BaseConfigItem<?>> value) {
+    shape = null;
+    count = 0;
+    if (value.size() > COMPACT_LIMIT) {
+      items = new HashMap<>();
+      slots = EMPTY;
+    } else {
+      items = null;
+      slots = value.isEmpty() ? EMPTY : new BaseConfigItem<?>[value.size()];
+    }
     for (var item : value) {
-      setItem(item);
+      store(item.getKey(), item);
+    }
+  }
+
+  /**
+   * Stops sharing keys, so keys can be added or removed.
+   * The slots are owned by this group, so they are kept unless there are too many to search.
+   */
+  private void unshape() {
+    shape = null;
+    if (count > COMPACT_LIMIT) {
+      promote();
+    }
+  }
+
+  /**
+   * Moves the items from the slots into a map, once there are too many to search.
+   */
+  private void promote() {
+    items = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      items.put(slots[i].key, slots[i]);
+    }
+    shape = null;
+    slots = EMPTY;
+    count = 0;
+  }
+
+  private int indexOf(String key) {
+    if (shape != null) {
+      return shape.indexOf(key);
+    }
+    for (int i = 0; i < count; i++) {
+      var found = slots[i].key;
+      if (found == key || found.equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private BaseConfigItem<?> lookup(String key) {
+    if (hash != null) {
+      return hash.get(key);
+    }
+    if (items != null) {
+      return items.get(key);
+    }
+    var index = indexOf(key);
+    return index < 0 ? null : slots[index];
+  }
+
+  private BaseConfigItem<?> store(String key, BaseConfigItem<?> item) {
+    if (items == null) {
+      var index = indexOf(key);
+      if (index >= 0) {
+        var previous = slots[index];
+        slots[index] = item;
+        return previous;
+      }
+      unshape();
+    }
+    if (items != null) {
+      return items.put(key, item);
+    }
+    if (count == COMPACT_LIMIT) {
+      promote();
+      return items.put(key, item);
+    }
+    if (count == slots.length) {
+      slots = Arrays.copyOf(slots, Math.min(COMPACT_LIMIT, Math.max(2, count * 2)));
+    }
+    slots[count++] = item;
+    return null;
+  }
+
+  private BaseConfigItem<?> delete(String key) {
+    if (items == null) {
+      var index = indexOf(key);
+      if (index < 0) {
+        return null;
+      }
+      unshape();
+      if (items == null) {
+        var removed = slots[index];
+        System.arraycopy(slots, index + 1, slots, index, count - index - 1);
+        slots[--count] = null;
+        return removed;
+      }
+    }
+    return items.remove(key);
+  }
+
+  /**
+   * Moves the last of the slots to the given position, so undoing a removal keeps the order.
+   *
+   * @param position position to move to, nothing is moved if negative
+   */
+  private void moveLast(int position) {
+    if (position < 0 || items != null || shape != null || position >= count) {
+      return;
+    }
+    var last = slots[count - 1];
+    System.arraycopy(slots, position, slots, position + 1, count - position - 1);
+    slots[position] = last;
+  }
+
+  private Collection<BaseConfigItem<?>> values() {
+    if (items != null) {
+      return items.values();
     }
-    return;
+    return Arrays.asList(slots).subList(0, count);
   }
 }
@@ -0,0 +1,268 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Secondary index over a {@link ConfigList} of {@link ConfigGroup}s.
+ * Elements are indexed by the value of the child item at {@link #getKey()}.
+ * The index is kept up to date by the list it was created on, see
+ * {@link ConfigList#addIndex(String, boolean)}.
+ * Elements missing the child item, or where it is not a boolean, number or string,
+ * are not indexed.
+ */
+public final class ConfigIndex {
+  private final String key;
+  private final boolean unique;
+  private Entries entries = new Entries();
+
+  /**
+   * Creates an empty index.
+   *
+   * @param key key of the child item to index by
+   * @param unique whether two elements may have the same value
+   */
+  ConfigIndex(@NotNull String key, boolean unique) {
+    this.key = Objects.requireNonNull(key);
+    this.unique = unique;
+  }
+
+  /**
+   * Key of the child item this index is built on.
+   *
+   * @return the indexed key
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Whether this index rejects elements with duplicate values.
+   *
+   * @return true if unique, false otherwise
+   */
+  public boolean isUnique() {
+    return unique;
+  }
+
+  /**
+   * Amount of distinct values in this index.
+   *
+   * @return count of distinct values
+   */
+  public int size() {
+    return entries.byValue.size();
+  }
+
+  /**
+   * Gets the first element with the given value.
+   * Numbers are compared by numeric value, so 1 and 1.0 find the same element.
+   *
+   * @param value value to look for
+   * @return element found, null otherwise
+   */
+  public ConfigGroup get(@NotNull Object value) {
+    var found = entries.byValue.get(normalize(Objects.requireNonNull(value)));
+    return found == null ? null : found.get(0).asGroup();
+  }
+
+  /**
+   * Gets every element with the given value.
+   *
+   * @param value value to look for
+   * @return unmodifiable list of elements found, empty if none
+   */
+  public List<BaseConfigItem<?>> getAll(@NotNull Object value) {
+    var found = entries.byValue.get(normalize(Objects.requireNonNull(value)));
+    return found == null ? List.of() : Collections.unmodifiableList(found);
+  }
+
+  /**
+   * Checks if an element with the given value exists.
+   *
+   * @param value value to look for
+   * @return true if found, false otherwise
+   */
+  public boolean contains(@NotNull Object value) {
+    return entries.byValue.containsKey(normalize(Objects.requireNonNull(value)));
+  }
+
+  /**
+   * Throws if adding the element would break the unique constraint.
+   *
+   * @param element element that will be added
+   * @throws IllegalArgumentException if the value is already indexed
+   */
+  void check(@NotNull BaseConfigItem<?> element) {
+    var value = valueOf(element);
+    if (unique && value != null && entries.byValue.containsKey(value)) {
+      throw duplicate(value);
+    }
+  }
+
+  /**
+   * Adds an element to the index.
+   *
+   * @param element element to add
+   * @throws IllegalArgumentException if the unique constraint is broken
+   */
+  void add(@NotNull BaseConfigItem<?> element) {
+    check(element);
+    entries.put(element, valueOf(element));
+  }
+
+  /**
+   * Removes an element from the index.
+   *
+   * @param element element to remove
+   */
+  void remove(@NotNull BaseConfigItem<?> element) {
+    if (!entries.byElement.containsKey(element)) {
+      return;
+    }
+    var value = entries.byElement.remove(element);
+    var list = entries.byValue.get(value);
+    list.removeIf(e -> e == element);
+    if (list.isEmpty()) {
+      entries.byValue.remove(value);
+    }
+  }
+
+  /**
+   * Throws if the current value of an indexed element would break the unique constraint.
+   *
+   * @param element element whose value changed
+   * @throws IllegalArgumentException if the value is already used by another element
+   */
+  void checkUpdate(@NotNull BaseConfigItem<?> element) {
+    var value = valueOf(element);
+    if (!unique || value == null || Objects.equals(value, entries.byElement.get(element))) {
+      return;
+    }
+    if (entries.byValue.containsKey(value)) {
+      throw duplicate(value);
+    }
+  }
+
+  /**
+   * Re-indexes an element after its value changed.
+   *
+   * @param element element whose value changed
+   */
+  void update(@NotNull BaseConfigItem<?> element) {
+    var value = valueOf(element);
+    if (entries.byElement.containsKey(element)
+        && Objects.equals(value, entries.byElement.get(element))) {
+      return;
+    }
+    remove(element);
+    entries.put(element, value);
+  }
+
+  /**
+   * Builds the index for the given elements without installing it.
+   *
+   * @param elements every element of the list
+   * @return built entries to pass to {@link #install(Entries)}
+   * @throws IllegalArgumentException if the unique constraint is broken
+   */
+  Entries build(@NotNull List<BaseConfigItem<?>> elements) {
+    var built = new Entries();
+    for (var element : elements) {
+      var value = valueOf(element);
+      if (unique && value != null && built.byValue.containsKey(value)) {
+        throw duplicate(value);
+      }
+      built.put(element, value);
+    }
+    return built;
+  }
+
+  /**
+   * Replaces the contents of this index with entries from {@link #build(List)}.
+   *
+   * @param built built entries
+   */
+  void install(@NotNull Entries built) {
+    entries = built;
+  }
+
+  private IllegalArgumentException duplicate(Object value) {
+    return new IllegalArgumentException("Duplicate value " + value + " for unique key " + key);
+  }
+
+  Object valueOf(BaseConfigItem<?> element) {
+    if (!element.isGroup()) {
+      return null;
+    }
+    var child = element.asGroup().getItem(key);
+    if (child == null || child.isGroup() || child.isList()) {
+      return null;
+    }
+    return normalize(child.getValue());
+  }
+
+  /**
+   * Makes numbers with the same numeric value equal to each other.
+   *
+   * @param value value to normalize
+   * @return value to use as a map key
+   */
+  static Object normalize(Object value) {
+    if (value instanceof Number number) {
+      try {
+        return new BigDecimal(number.toString()).stripTrailingZeros();
+      } catch (NumberFormatException e) {
+        return number.doubleValue();
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Contents of an index.
+   */
+  static final class Entries {
+    private final Map<Object, List<BaseConfigItem<?>>> byValue = new HashMap<>();
+    private final Map<BaseConfigItem<?>, Object> byElement = new IdentityHashMap<>();
+
+    private void put(BaseConfigItem<?> element, Object value) {
+      if (value == null) {
+        return;
+      }
+      byValue.computeIfAbsent(value, v -> new ArrayList<>(1)).add(element);
+      byElement.put(element, value);
+    }
+  }
+}
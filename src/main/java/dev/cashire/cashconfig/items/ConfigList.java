@@ -30,18 +30,28 @@ import static dev.cashire.cashconfig.Constants.LOGGER;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Configuration item for a json array for {@link BaseConfigItem}.
  */
-public final class ConfigList extends BaseConfigItem<List<BaseConfigItem<?>>> {
+public final class ConfigList extends BaseConfigItem<List<BaseConfigItem<?>>>
+    implements Iterable<BaseConfigItem<?>> {
 
   private Type subType;
+  private Map<String, ConfigIndex> indexes;
+  /**
+   * Keys shared by the groups of this list, taken from the first group added.
+   */
+  private Shape rowShape;
 
   /**
    * Creates an empty Array item with no key.
@@ -104,6 +114,10 @@ public final class ConfigList extends BaseConfigItem<List<BaseConfigItem<?>>> {
           "Invalid type: " + item.getType() + " is not " + subType);
       }
     }
+    for (var item : value) {
+      item.attach(this);
+      share(item);
+    }
   }
 
   /**
@@ -118,17 +132,50 @@ public final class ConfigList extends BaseConfigItem<List<BaseConfigItem<?>>> {
   @Override
   public void setValue(@NotNull List<BaseConfigItem<?>> value) {
     Objects.requireNonNull(value);
+    ensureMutable();
+    value.forEach(BaseConfigItem::ensureMutable);
     if (value.size() == 0) {
       return;
     }
+    var itemType = subType;
     for (var item : value) {
-      if (!item.type.equals(type)) {
+      if (itemType == null) {
+        itemType = item.type;
+      } else if (!item.type.equals(itemType)) {
         throw new IllegalArgumentException(
           "type " + item.type.toString() 
-          + " from item in value doesn't match list type " + type.toString());
+          + " from item in value doesn't match list type " + itemType.toString());
       }
     }
-    this.value = value;
+    subType = itemType;
+    replace(new ArrayList<>(value));
+  }
+
+  /**
+   * Replaces every item in this list, rebuilding indexes.
+   *
+   * @param list new items of this list
+   * @throws IllegalArgumentException if a unique index or a constraint is broken by the new items
+   */
+  void replace(@NotNull List<BaseConfigItem<?>> list) {
+    ensureMutable();
+    check(list);
+    var built = new HashMap<ConfigIndex, ConfigIndex.Entries>();
+    if (indexes != null) {
+      for (var index : indexes.values()) {
+        built.put(index, index.build(list));
+      }
+    }
+    for (var item : value) {
+      item.detach(this);
+    }
+    value = list;
+    for (var item : value) {
+      item.attach(this);
+      share(item);
+    }
+    built.forEach(ConfigIndex::install);
+    changed();
   }
 
   /**
@@ -150,13 +197,96 @@ public final class ConfigList extends BaseConfigItem<List<BaseConfigItem<?>>> {
    * @throws IllegalArgumentException type of item did not match {@link #getSubType()}
    */
   public void addItem(@NotNull BaseConfigItem<?> item) {
+    addItem(value.size(), item);
+  }
+
+  /**
+   * Inserts an item into this Array Item, shifting the items after it.
+   * if subType is null, then this item will set the type for this array based on it's type.
+   *
+   * @param index position to insert at, {@link #size()} to append
+   * @param item item to add.
+   * @throws IllegalArgumentException type of item did not match {@link #getSubType()}
+   */
+  public void addItem(int index, @NotNull BaseConfigItem<?> item) {
     Objects.requireNonNull(item);
+    ensureMutable();
+    item.ensureMutable();
+    Objects.checkIndex(index, value.size() + 1);
     if (subType == null) {
       subType = item.getType();
     } else if (!subType.equals(item.getType())) {
       throw new IllegalArgumentException("Invalid type: " + item.getType() + " is not " + subType);
     }
-    value.add(item);
+    if (indexes != null) {
+      for (var configIndex : indexes.values()) {
+        configIndex.check(item);
+      }
+      for (var configIndex : indexes.values()) {
+        configIndex.add(item);
+      }
+    }
+    value.add(index, item);
+    item.attach(this);
+    share(item);
+    if (index < value.size() - 1) {
+      inserted(item, index);
+    }
+    changed(item, () -> removeAt(index));
+  }
+
+  /**
+   * Replaces the item at the given index.
+   *
+   * @param index position in the list
+   * @param item item to set
+   * @return the item that was replaced
+   * @throws IllegalArgumentException type of item did not match {@link #getSubType()}
+   */
+  public BaseConfigItem<?> setItem(int index, @NotNull BaseConfigItem<?> item) {
+    Objects.requireNonNull(item);
+    ensureMutable();
+    item.ensureMutable();
+    Objects.checkIndex(index, value.size());
+    if (!item.getType().equals(subType)) {
+      throw new IllegalArgumentException("Invalid type: " + item.getType() + " is not " + subType);
+    }
+    var previous = value.get(index);
+    if (previous == item) {
+      return previous;
+    }
+    if (indexes != null) {
+      for (var configIndex : indexes.values()) {
+        configIndex.remove(previous);
+      }
+      try {
+        for (var configIndex : indexes.values()) {
+          configIndex.check(item);
+        }
+      } catch (IllegalArgumentException e) {
+        indexes.values().forEach(i -> i.add(previous));
+        throw e;
+      }
+      for (var configIndex : indexes.values()) {
+        configIndex.add(item);
+      }
+    }
+    value.set(index, item);
+    previous.detach(this);
+    item.attach(this);
+    share(item);
+    changed(item, () -> {
+      value.set(index, previous);
+      item.detach(this);
+      previous.attach(this);
+      if (indexes != null) {
+        for (var configIndex : indexes.values()) {
+          configIndex.remove(item);
+          configIndex.add(previous);
+        }
+      }
+    });
+    return previous;
   }
 
   /**
@@ -178,7 +308,215 @@ public final class ConfigList extends BaseConfigItem<List<BaseConfigItem<?>>> {
    */
   public BaseConfigItem<?> removeItem(int index) {
     Objects.checkIndex(index, value.size());
-    return value.remove(index);
+    ensureMutable();
+    removing(value.get(index), index);
+    var removed = removeAt(index);
+    changed(() -> {
+      value.add(index, removed);
+      removed.attach(this);
+      if (indexes != null) {
+        indexes.values().forEach(i -> i.update(removed));
+      }
+    });
+    return removed;
+  }
+
+  /**
+   * Gets the item at the given key of every group in this list, in the order of the list.
+   * Groups holding items at the same keys share them, so this is a walk over an array
+   * per group instead of a lookup.
+   * The returned list is a read only view, it contains null for groups without the key.
+   *
+   * @param key key of the items
+   * @return view of the items
+   * @throws IllegalStateException if this list doesn't hold groups
+   */
+  public List<BaseConfigItem<?>> column(@NotNull String key) {
+    Objects.requireNonNull(key);
+    if (subType != null && subType != Type.GROUP) {
+      throw new IllegalStateException("List " + getKey() + " doesn't hold groups");
+    }
+    var shape = rowShape;
+    var slot = shape == null ? -1 : shape.indexOf(key);
+    return new AbstractList<>() {
+      @Override
+      public BaseConfigItem<?> get(int index) {
+        var row = (ConfigGroup) value.get(index);
+        if (slot >= 0) {
+          var item = row.slot(shape, slot);
+          if (item != null) {
+            return item;
+          }
+        }
+        return row.getItem(key);
+      }
+
+      @Override
+      public int size() {
+        return value.size();
+      }
+    };
+  }
+
+  /**
+   * Lets a group use the keys shared by the groups of this list, if it has the same keys.
+   *
+   * @param item item that was added
+   */
+  private void share(BaseConfigItem<?> item) {
+    if (!(item instanceof ConfigGroup group) || group.isFrozen()) {
+      return;
+    }
+    if (rowShape == null) {
+      if (group.size() == 0) {
+        return;
+      }
+      rowShape = new Shape(group.children());
+    }
+    group.reshape(rowShape);
+  }
+
+  /**
+   * Also freezes every item of this list.
+   */
+  @Override
+  public void freeze() {
+    super.freeze();
+    value.forEach(BaseConfigItem::freeze);
+  }
+  /**
+   * Also unfreezes every item of this list.
+   */
+  @Override
+  public void unfreeze() {
+    super.unfreeze();
+    value.forEach(BaseConfigItem::unfreeze);
+  }
+
+
+  /**
+   * Copies every item and index of this list.
+   */
+  @Override
+  public ConfigList copy() {
+    var copies = new ArrayList<BaseConfigItem<?>>(value.size());
+    for (var item : value) {
+      copies.add(item.copy());
+    }
+    var copy = new ConfigList(key, copies, subType);
+    copy.copyConstraints(this);
+    if (indexes != null) {
+      for (var index : indexes.values()) {
+        copy.addIndex(index.getKey(), index.isUnique());
+      }
+    }
+    return copy;
+  }
+
+  private BaseConfigItem<?> removeAt(int index) {
+    var removed = value.remove(index);
+    removed.detach(this);
+    if (indexes != null) {
+      for (var configIndex : indexes.values()) {
+        configIndex.remove(removed);
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Creates an index on the child item with the given key of every element.
+   * The index is kept up to date when items are added, removed, loaded or changed.
+   * If an index on the key exists already, it is returned instead.
+   *
+   * @param key key of the child item in each element to index by
+   * @param unique whether two elements may share a value
+   * @return the index
+   * @throws IllegalArgumentException if the list doesn't hold groups, an index
+   *         with a different uniqueness exists, or the current elements break uniqueness
+   */
+  public ConfigIndex addIndex(@NotNull String key, boolean unique) {
+    Objects.requireNonNull(key);
+    ensureMutable();
+    if (subType != null && !subType.equals(Type.GROUP)) {
+      throw new IllegalArgumentException("Only lists of groups can be indexed, not " + subType);
+    }
+    if (indexes != null && indexes.containsKey(key)) {
+      var existing = indexes.get(key);
+      if (existing.isUnique() != unique) {
+        throw new IllegalArgumentException("Index on " + key + " exists with unique " 
+            + existing.isUnique());
+      }
+      return existing;
+    }
+    var index = new ConfigIndex(key, unique);
+    index.install(index.build(value));
+    if (indexes == null) {
+      indexes = new HashMap<>();
+    }
+    indexes.put(key, index);
+    return index;
+  }
+
+  /**
+   * Gets the index on the given key.
+   *
+   * @param key key the index was created with
+   * @return the index, null if none exists
+   */
+  public ConfigIndex getIndex(@NotNull String key) {
+    Objects.requireNonNull(key);
+    return indexes == null ? null : indexes.get(key);
+  }
+
+  /**
+   * Removes the index on the given key.
+   *
+   * @param key key the index was created with
+   * @return true if removed, false if no index existed
+   */
+  public boolean removeIndex(@NotNull String key) {
+    Objects.requireNonNull(key);
+    ensureMutable();
+    return indexes != null && indexes.remove(key) != null;
+  }
+
+  /**
+   * Finds the first group element whose child at key has the given value.
+   * Uses the index on key if there is one, otherwise scans the list.
+   *
+   * @param key key of the child item to compare
+   * @param value value to look for
+   * @return the element found, null otherwise
+   */
+  public ConfigGroup findItem(@NotNull String key, @NotNull Object value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    var index = getIndex(key);
+    if (index != null) {
+      return index.get(value);
+    }
+    var scan = new ConfigIndex(key, false);
+    var normalized = ConfigIndex.normalize(value);
+    for (var item : this.value) {
+      if (normalized.equals(scan.valueOf(item))) {
+        return item.asGroup();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  void childChanged(@NotNull BaseConfigItem<?> child, @NotNull BaseConfigItem<?> origin) {
+    if (!muted && indexes != null) {
+      for (var index : indexes.values()) {
+        index.checkUpdate(child);
+      }
+      for (var index : indexes.values()) {
+        index.update(child);
+      }
+    }
+    super.childChanged(child, origin);
   }
 
   @Override
@@ -201,39 +539,133 @@ public final class ConfigList extends BaseConfigItem<List<BaseConfigItem<?>>> {
     parent.add(arr);
   }
 
+  /**
+   * Elements already in this list are reused by position and loaded in place,
+   * new items are only created for additional elements or elements of another type.
+   * If the new elements are rejected, the elements that were reused get their values back.
+   */
   @Override
   public void fromJson(@NotNull JsonElement element) {
     Objects.requireNonNull(element);
-    var list = new ArrayList<BaseConfigItem<?>>();
-    var arr = element.getAsJsonArray();
-    boolean notInitialized = subType == null;
-    for (var value : arr) {
-      if (notInitialized) {
-        var itemType = getType(value);
-        if (subType != null && !subType.equals(itemType)) {
-          LOGGER.error("Invalid Array type: " + subType + " doesn't match " + itemType);
-          continue;
-        } else if (subType == null) {
-          subType = itemType;
-        }
-        var item = getInstance(itemType);
-        if (item == null) {
-          continue;
+    ensureMutable();
+    var undo = new ArrayList<Runnable>();
+    try {
+      reconcile(element.getAsJsonArray(), undo);
+    } catch (RuntimeException e) {
+      // the reused elements only get their old values back, indexes still hold those
+      muted = true;
+      try {
+        for (int i = undo.size() - 1; i >= 0; i--) {
+          undo.get(i).run();
         }
-        item.fromJson(value);
-        list.add(item);
-      } else {
-        if (BaseConfigItem.validType(value, this.subType)) {
-          var item = getInstance(this.subType);
+      } finally {
+        muted = false;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Also checks the values of the elements that {@link #fromJson(JsonElement)} would reuse
+   * against their constraints, matching them by position the same way.
+   */
+  @Override
+  public void validate(@NotNull JsonElement element) {
+    super.validate(element);
+    if (!element.isJsonArray() || subType == null) {
+      return;
+    }
+    int index = 0;
+    for (var json : element.getAsJsonArray()) {
+      if (index >= value.size()) {
+        return;
+      }
+      // elements of another type are skipped without taking a position
+      if (validType(json, subType)) {
+        value.get(index++).validate(json);
+      }
+    }
+  }
+
+  @Override
+  void reload(@NotNull JsonElement element, @NotNull List<Runnable> undo) {
+    ensureMutable();
+    var previous = value;
+    // runs after the reused elements got their values back, so indexes are rebuilt from them
+    undo.add(() -> {
+      if (value != previous) {
+        replace(previous);
+      }
+    });
+    reconcile(element.getAsJsonArray(), undo);
+  }
+
+  /**
+   * Loads the elements of the given array, reusing the elements of this list.
+   *
+   * @param arr elements to load
+   * @param undo collects what reverts the changes to reused elements
+   */
+  private void reconcile(JsonArray arr, List<Runnable> undo) {
+    var list = new ArrayList<BaseConfigItem<?>>(arr.size());
+    boolean notInitialized = subType == null;
+    // reused elements are attached, their changes are passed on once the list is replaced
+    muted = true;
+    try {
+      for (var json : arr) {
+        BaseConfigItem<?> item;
+        if (list.size() < value.size() && validType(json, subType)) {
+          item = value.get(list.size());
+          item.reload(json, undo);
+        } else {
+          item = prepare(json, notInitialized);
           if (item == null) {
             continue;
           }
-          item.fromJson(value);
-          list.add(item);
+          item.fromJson(json);
         }
+        list.add(item);
       }
+    } finally {
+      muted = false;
     }
-    value = list;
+    replace(list);
+  }
+
+  /**
+   * Creates the item that the given json value should be loaded into.
+   *
+   * @param value json value that will be loaded
+   * @param notInitialized whether the subtype was unset when loading started
+   * @return item to load value into, null if value should be skipped
+   */
+  BaseConfigItem<?> prepare(@NotNull JsonElement value, boolean notInitialized) {
+    if (notInitialized) {
+      var itemType = getType(value);
+      if (subType != null && !subType.equals(itemType)) {
+        LOGGER.error("Invalid Array type: " + subType + " doesn't match " + itemType);
+        return null;
+      } else if (subType == null) {
+        subType = itemType;
+      }
+      if (itemType == null) {
+        return null;
+      }
+      return getInstance(itemType);
+    }
+    if (BaseConfigItem.validType(value, this.subType)) {
+      return getInstance(this.subType);
+    }
+    return null;
+  }
+
+  /**
+   * Iterates over the items without copying them.
+   * The iterator doesn't support removal.
+   */
+  @Override
+  public Iterator<BaseConfigItem<?>> iterator() {
+    return Collections.unmodifiableCollection(value).iterator();
   }
 
   /**
@@ -79,7 +79,127 @@ public final class ConfigNumber extends BaseConfigItem<Number> {
   @Override
   public void fromJson(@NotNull JsonElement element) {
     Objects.requireNonNull(element);
+    ensureMutable();
+    var previous = value;
     value = element.getAsNumber();
+    changed(() -> value = previous);
+  }
+
+  /**
+   * Gets the value with volatile semantics, seeing the latest atomic change of any thread.
+   *
+   * @return current value
+   */
+  public Number getVolatile() {
+    return (Number) VALUE.getVolatile(this);
+  }
+
+  /**
+   * Sets the value atomically and notifies like {@link #setValue(Object)}.
+   *
+   * @param value value to use
+   * @return the previous value
+   */
+  public Number getAndSet(@NotNull Number value) {
+    Objects.requireNonNull(value);
+    while (true) {
+      var current = getVolatile();
+      if (swapValue(current, value)) {
+        return current;
+      }
+    }
+  }
+
+  /**
+   * Sets the value atomically if it is numerically equal to the expected value.
+   *
+   * @param expected value this item must have
+   * @param value value to use
+   * @return true if the value was set, false if it wasn't the expected value
+   */
+  public boolean compareAndSet(@NotNull Number expected, @NotNull Number value) {
+    Objects.requireNonNull(expected);
+    Objects.requireNonNull(value);
+    while (true) {
+      var current = getVolatile();
+      if (!numericEquals(current, expected)) {
+        return false;
+      }
+      if (swapValue(current, value)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Adds to the value atomically. Whole numbers stay whole numbers,
+   * anything else is added as a double.
+   *
+   * @param delta amount to add, may be negative
+   * @return the previous value
+   * @throws ValidationException if the sum breaks a constraint
+   * @throws ArithmeticException if the sum of whole numbers overflows a long
+   */
+  public Number getAndAdd(@NotNull Number delta) {
+    Objects.requireNonNull(delta);
+    while (true) {
+      var current = getVolatile();
+      if (swapValue(current, add(current, delta))) {
+        return current;
+      }
+    }
+  }
+
+  /**
+   * Adds to the value atomically, see {@link #getAndAdd(Number)}.
+   *
+   * @param delta amount to add, may be negative
+   * @return the new value
+   * @throws ValidationException if the sum breaks a constraint
+   * @throws ArithmeticException if the sum of whole numbers overflows a long
+   */
+  public Number addAndGet(@NotNull Number delta) {
+    Objects.requireNonNull(delta);
+    while (true) {
+      var current = getVolatile();
+      var sum = add(current, delta);
+      if (swapValue(current, sum)) {
+        return sum;
+      }
+    }
+  }
+
+  private static Number add(Number value, Number delta) {
+    if (isWhole(value) && isWhole(delta)) {
+      return Math.addExact(value.longValue(), delta.longValue());
+    }
+    return value.doubleValue() + delta.doubleValue();
+  }
+
+  private static boolean numericEquals(Number first, Number second) {
+    if (isWhole(first) && isWhole(second)) {
+      return first.longValue() == second.longValue();
+    }
+    return Double.compare(first.doubleValue(), second.doubleValue()) == 0;
+  }
+
+  /**
+   * Checks if a number has no fraction and fits a long, including numbers parsed from json.
+   */
+  private static boolean isWhole(Number number) {
+    if (number instanceof Integer || number instanceof Long 
+        || number instanceof Short || number instanceof Byte) {
+      return true;
+    }
+    if (number instanceof Double || number instanceof Float) {
+      return false;
+    }
+    var text = number.toString();
+    for (int i = text.charAt(0) == '-' ? 1 : 0; i < text.length(); i++) {
+      if (!Character.isDigit(text.charAt(i))) {
+        return false;
+      }
+    }
+    return text.length() < 19;
   }
-  
 }
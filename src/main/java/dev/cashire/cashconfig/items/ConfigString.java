@@ -34,6 +34,12 @@ import org.jetbrains.annotations.NotNull;
  * Configuration item for String values for {@link BaseConfigItem}.
  */
 public final class ConfigString extends BaseConfigItem<String> {
+  /**
+   * Pool holding the value while packed, {@link #value} is then null.
+   */
+  private StringPool pool;
+  private int index;
+
   /**
    * Creates an empty String item with no key
    * If adding to a {@link ConfigGroup}, use {@link #ConfigString(String, String)} instead.
@@ -62,22 +68,83 @@ public final class ConfigString extends BaseConfigItem<String> {
     this.value = str != null ? str : "";
   }
 
+  /**
+   * Decodes the value from the pool if this item is packed.
+   */
+  @Override
+  public String getValue() {
+    var pool = this.pool;
+    return pool != null ? pool.get(index) : value;
+  }
+
+  @Override
+  public void setValue(@NotNull String value) {
+    Objects.requireNonNull(value);
+    ensureMutable();
+    unpack();
+    super.setValue(value);
+  }
+
+  /**
+   * Moves the value into the given pool, see {@link StringPool}.
+   *
+   * @param pool pool to store the value in
+   */
+  void pack(@NotNull StringPool pool) {
+    if (this.pool == pool) {
+      return;
+    }
+    index = pool.add(getValue());
+    this.pool = pool;
+    value = null;
+  }
+
+  /**
+   * Checks if the value is stored in a {@link StringPool}.
+   *
+   * @return true if packed
+   */
+  public boolean isPacked() {
+    return pool != null;
+  }
+
+  /**
+   * Takes the value of another item, packed the same way if it is packed.
+   *
+   * @param source item to take the value from
+   */
+  void share(@NotNull ConfigString source) {
+    value = source.value;
+    pool = source.pool;
+    index = source.index;
+  }
+
+  private void unpack() {
+    if (pool != null) {
+      value = pool.get(index);
+      pool = null;
+    }
+  }
+
   @Override
   public void toJson(@NotNull JsonObject parent) {
     Objects.requireNonNull(parent);
-    parent.addProperty(key, value);
+    parent.addProperty(key, getValue());
   }
 
   @Override
   public void toJson(@NotNull JsonArray parent) {
     Objects.requireNonNull(parent);
-    parent.add(value);
+    parent.add(getValue());
   }
 
   @Override
   public void fromJson(@NotNull JsonElement element) {
     Objects.requireNonNull(element);
+    ensureMutable();
+    unpack();
+    var previous = value;
     value = element.getAsString();
-    
+    changed(() -> value = previous);
   }
 }
\ No newline at end of file
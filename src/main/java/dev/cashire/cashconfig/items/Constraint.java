@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Rule the value of an item must follow.
+ * Constraints are attached with {@link BaseConfigItem#constrain(Constraint[])} and checked
+ * whenever the value is set or loaded, so code reading the value doesn't need to check it.
+ * Everything a check needs, like a compiled pattern or a set of allowed values,
+ * is prepared when the constraint is created.
+ *
+ * @param <T> type of value checked
+ */
+@FunctionalInterface
+public interface Constraint<T> {
+  /**
+   * Checks a value.
+   *
+   * @param value value to check
+   * @return null if the value is valid, otherwise why it isn't
+   */
+  String check(@NotNull T value);
+
+  /**
+   * Number must be at least min.
+   *
+   * @param min smallest allowed value
+   * @return the constraint
+   */
+  static Constraint<Number> min(@NotNull Number min) {
+    var bound = comparator(min);
+    return value -> bound.applyAsInt(value) < 0 ? value + " is less than " + min : null;
+  }
+
+  /**
+   * Number must be at most max.
+   *
+   * @param max largest allowed value
+   * @return the constraint
+   */
+  static Constraint<Number> max(@NotNull Number max) {
+    var bound = comparator(max);
+    return value -> bound.applyAsInt(value) > 0 ? value + " is greater than " + max : null;
+  }
+
+  /**
+   * Number must be between min and max, both included.
+   *
+   * @param min smallest allowed value
+   * @param max largest allowed value
+   * @return the constraint
+   * @throws IllegalArgumentException if min is greater than max
+   */
+  static Constraint<Number> range(@NotNull Number min, @NotNull Number max) {
+    if (new BigDecimal(min.toString()).compareTo(new BigDecimal(max.toString())) > 0) {
+      throw new IllegalArgumentException(min + " is greater than " + max);
+    }
+    var lower = comparator(min);
+    var upper = comparator(max);
+    return value -> lower.applyAsInt(value) < 0 || upper.applyAsInt(value) > 0 
+        ? value + " is not between " + min + " and " + max : null;
+  }
+
+  /**
+   * String must fully match a regular expression.
+   *
+   * @param regex regular expression, compiled once
+   * @return the constraint
+   * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+   */
+  static Constraint<String> pattern(@NotNull String regex) {
+    var pattern = Pattern.compile(regex);
+    return value -> pattern.matcher(value).matches() 
+        ? null : "\"" + value + "\" doesn't match " + regex;
+  }
+
+  /**
+   * String length must be between min and max, both included.
+   *
+   * @param min shortest allowed length
+   * @param max longest allowed length
+   * @return the constraint
+   */
+  static Constraint<String> length(int min, int max) {
+    return value -> value.length() < min || value.length() > max 
+        ? "length " + value.length() + " is not between " + min + " and " + max : null;
+  }
+
+  /**
+   * List size must be between min and max, both included.
+   *
+   * @param min smallest allowed size
+   * @param max largest allowed size
+   * @return the constraint
+   */
+  static Constraint<List<BaseConfigItem<?>>> size(int min, int max) {
+    return value -> value.size() < min || value.size() > max 
+        ? "size " + value.size() + " is not between " + min + " and " + max : null;
+  }
+
+  /**
+   * Value must be one of the given values. Numbers are compared by their numeric value.
+   *
+   * @param allowed allowed values
+   * @param <T> type of value checked
+   * @return the constraint
+   */
+  @SafeVarargs
+  static <T> Constraint<T> oneOf(@NotNull T... allowed) {
+    var values = new HashSet<>();
+    var names = new ArrayList<T>(allowed.length);
+    for (var value : allowed) {
+      values.add(ConfigIndex.normalize(Objects.requireNonNull(value)));
+      names.add(value);
+    }
+    var text = names.toString();
+    return value -> values.contains(ConfigIndex.normalize(value)) 
+        ? null : value + " is not one of " + text;
+  }
+
+  /**
+   * Value must pass a custom test.
+   *
+   * @param test returns true for valid values
+   * @param message why a value isn't valid
+   * @param <T> type of value checked
+   * @return the constraint
+   */
+  static <T> Constraint<T> of(@NotNull Predicate<T> test, @NotNull String message) {
+    Objects.requireNonNull(test);
+    Objects.requireNonNull(message);
+    return value -> test.test(value) ? null : message;
+  }
+
+  /**
+   * Compiles a comparison of numbers against a bound.
+   * Integers are compared without allocating if the bound is a whole number.
+   *
+   * @param bound number to compare against
+   * @return compares a number to the bound like {@link Comparable#compareTo(Object)}
+   */
+  private static ToIntFunction<Number> comparator(Number bound) {
+    var decimal = new BigDecimal(bound.toString());
+    long whole;
+    try {
+      whole = decimal.longValueExact();
+    } catch (ArithmeticException e) {
+      return value -> compare(value, decimal);
+    }
+    return value -> value instanceof Integer || value instanceof Long 
+        || value instanceof Short || value instanceof Byte
+        ? Long.compare(value.longValue(), whole) : compare(value, decimal);
+  }
+
+  private static int compare(Number value, BigDecimal bound) {
+    if (value instanceof Double || value instanceof Float) {
+      var number = value.doubleValue();
+      if (Double.isNaN(number) || Double.isInfinite(number)) {
+        return number < 0 ? -1 : 1;
+      }
+      return BigDecimal.valueOf(number).compareTo(bound);
+    }
+    return new BigDecimal(value.toString()).compareTo(bound);
+  }
+}
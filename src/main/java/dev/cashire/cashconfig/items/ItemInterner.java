@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shares equal keys, strings and numbers between items to save memory, for example in
+ * generated configs that repeat the same group many times.
+ *
+ * <p>Items themselves can't be shared, every item has a single parent. Instead, the first
+ * group or list of each content is remembered and every later group or list with the same
+ * {@link BaseConfigItem#structurallyEquals(BaseConfigItem) content} takes its keys and values
+ * in a single walk, without hashing them one by one.
+ * Interning never changes what items contain, so it doesn't notify any listeners.
+ *
+ * <p>An interner keeps every item it saw reachable. Use one per pass, or {@link #clear()} it,
+ * unless it is meant to share strings between configs. Frozen items are skipped.
+ * Not thread-safe: the items must not be changed while they are interned.
+ */
+public final class ItemInterner {
+  private final Map<String, String> strings = new HashMap<>();
+  private final Map<String, Number> numbers = new HashMap<>();
+  private final Map<Content, BaseConfigItem<?>> subtrees = new HashMap<>();
+
+  /**
+   * Gets the shared instance of a string.
+   *
+   * @param string string to intern
+   * @return the first equal string interned
+   */
+  public String intern(@NotNull String string) {
+    var existing = strings.putIfAbsent(Objects.requireNonNull(string), string);
+    return existing != null ? existing : string;
+  }
+
+  /**
+   * Interns the keys and values of an item and every item in it.
+   *
+   * @param item item to intern
+   */
+  public void intern(@NotNull BaseConfigItem<?> item) {
+    Objects.requireNonNull(item);
+    if (item.isFrozen()) {
+      return;
+    }
+    item.key = intern(item.key);
+    switch (item.type) {
+      case GROUP:
+      case ARRAY:
+        var content = new Content(item);
+        var existing = subtrees.putIfAbsent(content, item);
+        if (existing != null && existing != item) {
+          adopt(item, existing);
+          return;
+        }
+        for (var child : children(item)) {
+          intern(child);
+        }
+        if (item.isGroup()) {
+          item.asGroup().rekey();
+        }
+        break;
+      case STRING:
+        var string = item.asString();
+        if (!string.isPacked()) {
+          string.value = intern(string.value);
+        }
+        break;
+      case NUMBER:
+        var number = item.asNumber();
+        var current = number.getVolatile();
+        var key = current.getClass().getName() + ':' + current;
+        var shared = numbers.putIfAbsent(key, current);
+        if (shared != null) {
+          // keeps an atomic update made in between
+          BaseConfigItem.VALUE.compareAndSet(number, current, shared);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Forgets every interned string and item.
+   */
+  public void clear() {
+    strings.clear();
+    numbers.clear();
+    subtrees.clear();
+  }
+
+  /**
+   * Takes the keys and values of an item with the same content.
+   *
+   * @param item item to share the keys and values of source with
+   * @param source structurally equal item that was interned
+   */
+  @SuppressWarnings("unchecked")
+  private static void adopt(BaseConfigItem<?> item, BaseConfigItem<?> source) {
+    switch (item.type) {
+      case GROUP:
+        var group = source.asGroup();
+        for (var child : item.asGroup().children()) {
+          var match = group.getItem(child.key);
+          child.key = match.key;
+          adopt(child, match);
+        }
+        item.asGroup().rekey();
+        break;
+      case ARRAY:
+        var list = source.asList();
+        for (int i = 0; i < list.size(); i++) {
+          var child = item.asList().getItem(i);
+          var match = list.getItem(i);
+          child.key = match.key;
+          adopt(child, match);
+        }
+        break;
+      case STRING:
+        item.asString().share(source.asString());
+        break;
+      default:
+        ((BaseConfigItem<Object>) item).value = source.value;
+    }
+  }
+
+  private static Iterable<BaseConfigItem<?>> children(BaseConfigItem<?> item) {
+    return item.isGroup() ? item.asGroup().children() : item.asList();
+  }
+
+  /**
+   * Wraps an item to find items with the same content in a map.
+   * The hash is taken once, so the map stays consistent if the item changes later.
+   */
+  private static final class Content {
+    private final BaseConfigItem<?> item;
+    private final int hash;
+
+    Content(BaseConfigItem<?> item) {
+      this.item = item;
+      this.hash = item.structuralHash();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Content && item.structurallyEquals(((Content) obj).item);
+    }
+  }
+}
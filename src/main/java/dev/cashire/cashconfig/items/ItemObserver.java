@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import java.util.function.BooleanSupplier;
+import org.jetbrains.annotations.ApiStatus.Internal;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Observer of changes in a tree of items, set on the item at the top of the tree.
+ *
+ * @see BaseConfigItem#setObserver(ItemObserver)
+ */
+@Internal
+public interface ItemObserver {
+  /**
+   * Called after an item in the tree changed.
+   * For added items the origin is the added item, for removed items it is
+   * the group or list the item was removed from.
+   *
+   * @param origin item that changed
+   */
+  void changed(@NotNull BaseConfigItem<?> origin);
+
+  /**
+   * Called before an item is removed from a group or list in the tree,
+   * while it is still attached. Followed by {@link #changed(BaseConfigItem)}
+   * with the parent once the removal is accepted.
+   *
+   * @param parent group or list the item is removed from
+   * @param item item being removed
+   * @param index position of the item in a list, -1 for groups
+   */
+  default void removing(@NotNull BaseConfigItem<?> parent, @NotNull BaseConfigItem<?> item,
+      int index) {
+  }
+
+  /**
+   * Called after an item was inserted into a list in the tree before existing items.
+   * Followed by {@link #changed(BaseConfigItem)} with the item once the insertion is accepted.
+   *
+   * @param parent list the item was inserted into
+   * @param item item that was inserted
+   * @param index position of the item
+   */
+  default void inserted(@NotNull BaseConfigItem<?> parent, @NotNull BaseConfigItem<?> item,
+      int index) {
+  }
+
+  /**
+   * Runs an atomic update of an item in the tree, such as {@link ConfigNumber#addAndGet},
+   * so the update and the notifications it causes never overlap with other changes of
+   * the tree. The default runs one update at a time.
+   *
+   * @param update replaces the value and notifies, false if the value changed before
+   * @return result of the update
+   */
+  default boolean update(@NotNull BooleanSupplier update) {
+    synchronized (this) {
+      return update.getAsBoolean();
+    }
+  }
+}
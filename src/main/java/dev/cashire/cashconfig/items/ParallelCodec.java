@@ -0,0 +1,308 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Serializes and deserializes large item trees on a {@link ForkJoinPool}.
+ * {@link ConfigGroup}s and {@link ConfigList}s with at least {@link #getThreshold()}
+ * items are split into chunks of at most that many items that are processed in parallel.
+ * Smaller containers are handled on the calling thread exactly like
+ * {@link BaseConfigItem#toJson(JsonArray)} and {@link BaseConfigItem#fromJson(JsonElement)},
+ * so the output is identical to the sequential path.
+ */
+public final class ParallelCodec {
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  /**
+   * Creates a codec on the common pool.
+   *
+   * @param threshold minimum amount of items in a container before it is split.
+   * @throws IllegalArgumentException if threshold is less than 2
+   */
+  public ParallelCodec(int threshold) {
+    this(ForkJoinPool.commonPool(), threshold);
+  }
+
+  /**
+   * Creates a codec.
+   *
+   * @param pool pool to run on.
+   * @param threshold minimum amount of items in a container before it is split.
+   * @throws IllegalArgumentException if threshold is less than 2
+   */
+  public ParallelCodec(@NotNull ForkJoinPool pool, int threshold) {
+    if (threshold < 2) {
+      throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+    }
+    this.pool = Objects.requireNonNull(pool);
+    this.threshold = threshold;
+  }
+
+  /**
+   * Minimum amount of items in a container before it is split.
+   *
+   * @return the threshold
+   */
+  public int getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Serializes an item into a new {@link JsonElement}.
+   *
+   * @param item item to serialize
+   * @return json representation of the item
+   */
+  public JsonElement toJson(@NotNull BaseConfigItem<?> item) {
+    Objects.requireNonNull(item);
+    if (!isLarge(item)) {
+      return encode(item);
+    }
+    var result = new JsonElement[1];
+    run(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        result[0] = encode(item);
+      }
+    });
+    return result[0];
+  }
+
+  /**
+   * Deserializes an element into the given item.
+   *
+   * @param item item to load into
+   * @param element json to load
+   */
+  public void fromJson(@NotNull BaseConfigItem<?> item, @NotNull JsonElement element) {
+    Objects.requireNonNull(item);
+    Objects.requireNonNull(element);
+    if (!isLarge(element)) {
+      item.fromJson(element);
+      return;
+    }
+    run(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        decode(item, element);
+      }
+    });
+  }
+
+  private void run(RecursiveAction action) {
+    if (ForkJoinTask.inForkJoinPool()) {
+      action.invoke();
+    } else {
+      pool.invoke(action);
+    }
+  }
+
+  private boolean isLarge(BaseConfigItem<?> item) {
+    if (item.isGroup()) {
+      return item.asGroup().size() >= threshold;
+    }
+    return item.isList() && item.asList().size() >= threshold;
+  }
+
+  private boolean isLarge(JsonElement element) {
+    if (element.isJsonObject()) {
+      return element.getAsJsonObject().size() >= threshold;
+    }
+    return element.isJsonArray() && element.getAsJsonArray().size() >= threshold;
+  }
+
+  private JsonElement encode(BaseConfigItem<?> item) {
+    if (!isLarge(item)) {
+      var holder = new JsonArray();
+      item.toJson(holder);
+      return holder.get(0);
+    }
+    var children = item.isGroup() 
+        ? item.asGroup().children().toArray(BaseConfigItem<?>[]::new) 
+        : item.asList().value.toArray(BaseConfigItem<?>[]::new);
+    var encoded = new JsonElement[children.length];
+    new EncodeChunk(children, encoded, 0, children.length).invoke();
+    if (item.isGroup()) {
+      var obj = new JsonObject();
+      for (int i = 0; i < children.length; i++) {
+        obj.add(children[i].getKey(), encoded[i]);
+      }
+      return obj;
+    }
+    var arr = new JsonArray();
+    for (var element : encoded) {
+      arr.add(element);
+    }
+    return arr;
+  }
+
+  private void decode(BaseConfigItem<?> item, JsonElement element) {
+    if (!isLarge(element) || (!item.isGroup() && !item.isList())) {
+      item.fromJson(element);
+      return;
+    }
+    var targets = new ArrayList<BaseConfigItem<?>>();
+    var values = new ArrayList<JsonElement>();
+    List<List<Runnable>> undo = null;
+    if (item.isGroup()) {
+      var group = item.asGroup();
+      for (var entry : element.getAsJsonObject().entrySet()) {
+        var target = group.prepare(entry.getKey(), entry.getValue());
+        if (target != null) {
+          targets.add(target);
+          values.add(entry.getValue());
+        }
+      }
+    } else {
+      // reuses elements by position like ConfigList.fromJson, so references to them stay valid
+      var list = item.asList();
+      var current = list.value;
+      undo = new ArrayList<>();
+      boolean notInitialized = list.getSubType() == null;
+      for (var value : element.getAsJsonArray()) {
+        BaseConfigItem<?> target;
+        List<Runnable> changes = null;
+        if (targets.size() < current.size() 
+            && BaseConfigItem.validType(value, list.getSubType())) {
+          target = current.get(targets.size());
+          changes = new ArrayList<>();
+        } else {
+          target = list.prepare(value, notInitialized);
+        }
+        if (target != null) {
+          targets.add(target);
+          values.add(value);
+          undo.add(changes);
+        }
+      }
+    }
+    var targetArray = targets.toArray(BaseConfigItem<?>[]::new);
+    item.muted = true;
+    try {
+      new DecodeChunk(targetArray, values.toArray(JsonElement[]::new), undo, 0, 
+          targetArray.length).invoke();
+      item.muted = false;
+      if (item.isList()) {
+        item.asList().replace(targets);
+      } else {
+        item.changed();
+      }
+    } catch (RuntimeException e) {
+      if (undo != null) {
+        item.muted = true;
+        for (var changes : undo) {
+          for (int i = changes == null ? -1 : changes.size() - 1; i >= 0; i--) {
+            changes.get(i).run();
+          }
+        }
+      }
+      throw e;
+    } finally {
+      item.muted = false;
+    }
+  }
+
+  private final class EncodeChunk extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final BaseConfigItem<?>[] children;
+    private final JsonElement[] encoded;
+    private final int from;
+    private final int to;
+
+    private EncodeChunk(BaseConfigItem<?>[] children, JsonElement[] encoded, int from, int to) {
+      this.children = children;
+      this.encoded = encoded;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= threshold) {
+        for (int i = from; i < to; i++) {
+          encoded[i] = encode(children[i]);
+        }
+        return;
+      }
+      var mid = (from + to) >>> 1;
+      invokeAll(
+          new EncodeChunk(children, encoded, from, mid), 
+          new EncodeChunk(children, encoded, mid, to));
+    }
+  }
+
+  private final class DecodeChunk extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final BaseConfigItem<?>[] targets;
+    private final JsonElement[] values;
+    private final List<List<Runnable>> undo;
+    private final int from;
+    private final int to;
+
+    /**
+     * Creates a chunk decoding values into targets.
+     *
+     * @param undo collects the undo of each reused element, null at new ones or for groups
+     */
+    private DecodeChunk(BaseConfigItem<?>[] targets, JsonElement[] values, 
+        List<List<Runnable>> undo, int from, int to) {
+      this.targets = targets;
+      this.values = values;
+      this.undo = undo;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= threshold) {
+        for (int i = from; i < to; i++) {
+          if (undo != null && undo.get(i) != null) {
+            targets[i].reload(values[i], undo.get(i));
+          } else {
+            decode(targets[i], values[i]);
+          }
+        }
+        return;
+      }
+      var mid = (from + to) >>> 1;
+      invokeAll(
+          new DecodeChunk(targets, values, undo, from, mid), 
+          new DecodeChunk(targets, values, undo, mid, to));
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Minimal perfect hash over the items of a frozen group, built by hashing and displacing:
+ * keys are hashed into buckets, then every bucket gets a seed that puts its keys into
+ * free slots. A lookup is two hashes, two array reads and one key comparison.
+ */
+final class PerfectHash {
+  /**
+   * Seeds tried for a bucket before giving up.
+   */
+  private static final int MAX_SEED = 1 << 16;
+  private final int[] seeds;
+  private final BaseConfigItem<?>[] slots;
+  /**
+   * Keys of the slots, so a lookup compares keys without loading the item first.
+   */
+  private final String[] keys;
+
+  private PerfectHash(int[] seeds, BaseConfigItem<?>[] slots) {
+    this.seeds = seeds;
+    this.slots = slots;
+    keys = new String[slots.length];
+    for (int i = 0; i < slots.length; i++) {
+      keys[i] = slots[i].key;
+    }
+  }
+
+  /**
+   * Builds a perfect hash over the given items.
+   *
+   * @param items items with distinct keys
+   * @return the hash, null if no seeds were found, e.g. for keys with equal hash codes
+   */
+  static PerfectHash build(@NotNull Collection<BaseConfigItem<?>> items) {
+    int size = items.size();
+    var seeds = new int[Math.max(1, size / 2)];
+    List<List<BaseConfigItem<?>>> buckets = new ArrayList<>(seeds.length);
+    for (int i = 0; i < seeds.length; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (var item : items) {
+      buckets.get(index(mix(item.key.hashCode(), 0), seeds.length)).add(item);
+    }
+    var order = new Integer[seeds.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    // the largest buckets are placed first, while most slots are free
+    Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+    var slots = new BaseConfigItem<?>[size];
+    var taken = new int[buckets.get(order[0]).size()];
+    for (int bucket : order) {
+      var keys = buckets.get(bucket);
+      if (keys.isEmpty()) {
+        break;
+      }
+      int seed = place(keys, slots, taken);
+      if (seed < 0) {
+        return null;
+      }
+      seeds[bucket] = seed;
+    }
+    return new PerfectHash(seeds, slots);
+  }
+
+  /**
+   * Finds a seed that puts every item of a bucket into a free slot, and puts them there.
+   *
+   * @return the seed, -1 if none was found
+   */
+  private static int place(List<BaseConfigItem<?>> keys, BaseConfigItem<?>[] slots, 
+      int[] taken) {
+    for (int seed = 1; seed < MAX_SEED; seed++) {
+      int placed = 0;
+      for (var item : keys) {
+        int slot = index(mix(item.key.hashCode(), seed), slots.length);
+        if (slots[slot] != null || contains(taken, placed, slot)) {
+          break;
+        }
+        taken[placed++] = slot;
+      }
+      if (placed == keys.size()) {
+        for (int i = 0; i < placed; i++) {
+          slots[taken[i]] = keys.get(i);
+        }
+        return seed;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean contains(int[] values, int length, int value) {
+    for (int i = 0; i < length; i++) {
+      if (values[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the item with the given key.
+   *
+   * @param key key of the item
+   * @return the item, null if no item has the key
+   */
+  BaseConfigItem<?> get(@NotNull String key) {
+    int hash = key.hashCode();
+    int slot = index(mix(hash, seeds[index(mix(hash, 0), seeds.length)]), slots.length);
+    var found = keys[slot];
+    return found == key || found.equals(key) ? slots[slot] : null;
+  }
+
+  /**
+   * The items in the order of their slots.
+   *
+   * @return the slots, not copied
+   */
+  BaseConfigItem<?>[] slots() {
+    return slots;
+  }
+
+  /**
+   * Spreads the bits of a hash code over the high bits, which {@link #index} uses.
+   */
+  private static int mix(int hash, int seed) {
+    return (hash ^ seed) * 0x9E3779B9;
+  }
+
+  private static int index(int hash, int length) {
+    return (int) (((hash & 0xFFFFFFFFL) * length) >>> 32);
+  }
+}
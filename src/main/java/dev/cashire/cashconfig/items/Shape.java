@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keys shared by groups that hold items at the same keys, such as the records in a
+ * {@link ConfigList}. A group using a shape stores its items in an array in the order
+ * of the keys, instead of a map of its own. Shapes never change.
+ */
+final class Shape {
+  private final String[] keys;
+  private final Map<String, Integer> index;
+
+  /**
+   * Creates a shape with the keys of the given items, in their order.
+   *
+   * @param items items of a group
+   */
+  Shape(@NotNull Collection<BaseConfigItem<?>> items) {
+    keys = new String[items.size()];
+    int i = 0;
+    for (var item : items) {
+      keys[i++] = item.key;
+    }
+    if (keys.length > ConfigGroup.COMPACT_LIMIT) {
+      index = new HashMap<>(keys.length * 2);
+      for (i = 0; i < keys.length; i++) {
+        index.put(keys[i], i);
+      }
+    } else {
+      index = null;
+    }
+  }
+
+  int size() {
+    return keys.length;
+  }
+
+  String key(int index) {
+    return keys[index];
+  }
+
+  /**
+   * Finds the position of a key.
+   *
+   * @param key key to look for
+   * @return position of the key, -1 if it isn't part of this shape
+   */
+  int indexOf(@NotNull String key) {
+    if (index != null) {
+      var found = index.get(key);
+      return found == null ? -1 : found;
+    }
+    for (int i = 0; i < keys.length; i++) {
+      // keys of rows are usually the same instances as the keys of the shape
+      if (keys[i] == key || keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks if a group holds items at exactly the keys of this shape.
+   *
+   * @param group group to check
+   * @return true if the group can use this shape
+   */
+  boolean matches(@NotNull ConfigGroup group) {
+    if (group.size() != keys.length) {
+      return false;
+    }
+    for (var key : keys) {
+      if (!group.hasItem(key)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stores the values of {@link ConfigString} items packed into one byte array, for configs
+ * holding many strings such as names, ids or translation keys.
+ * Every distinct value is stored once as UTF-8 and found through an offset table, so a packed
+ * item holds a number instead of a {@link String} and its array.
+ * Values are decoded every time they are read, so packing suits values that are rarely read.
+ *
+ * <p>Values are never removed: an item that is changed after packing holds its new value
+ * as a string again, and the old value stays in the pool. Use a new pool to compact.
+ *
+ * @see #pack(BaseConfigItem)
+ */
+public final class StringPool {
+  private byte[] data = new byte[256];
+  private int length;
+  /**
+   * Offset of every value in {@link #data}, value i ends where value i + 1 starts.
+   */
+  private int[] offsets = new int[17];
+  private int count;
+  /**
+   * Open addressing table of value indexes plus one, 0 for empty slots.
+   */
+  private int[] table = new int[32];
+
+  /**
+   * Packs the values of every string in the given item, a group or list is walked completely.
+   * Frozen items are skipped. Packing doesn't change what items contain,
+   * so it doesn't notify any listeners.
+   *
+   * @param item item to pack
+   */
+  public void pack(@NotNull BaseConfigItem<?> item) {
+    Objects.requireNonNull(item);
+    if (item.isFrozen()) {
+      return;
+    }
+    if (item.isString()) {
+      item.asString().pack(this);
+    } else if (item.isGroup()) {
+      for (var child : item.asGroup().children()) {
+        pack(child);
+      }
+    } else if (item.isList()) {
+      for (var child : item.asList()) {
+        pack(child);
+      }
+    }
+  }
+
+  /**
+   * Gets the amount of distinct values in this pool.
+   *
+   * @return amount of values
+   */
+  public synchronized int size() {
+    return count;
+  }
+
+  /**
+   * Gets the amount of bytes the values take up, without the tables finding them.
+   *
+   * @return length of the encoded values
+   */
+  public synchronized int byteSize() {
+    return length;
+  }
+
+  /**
+   * Adds a value unless an equal value was added before.
+   *
+   * @param value value to add
+   * @return index of the value
+   */
+  synchronized int add(@NotNull String value) {
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    int mask = table.length - 1;
+    for (int slot = hash(bytes, 0, bytes.length) & mask; ; slot = (slot + 1) & mask) {
+      int index = table[slot] - 1;
+      if (index < 0) {
+        index = append(bytes);
+        table[slot] = index + 1;
+        if (count * 2 > table.length) {
+          rehash();
+        }
+        return index;
+      }
+      if (Arrays.equals(data, offsets[index], offsets[index + 1], bytes, 0, bytes.length)) {
+        return index;
+      }
+    }
+  }
+
+  /**
+   * Decodes a value.
+   *
+   * @param index index returned by {@link #add(String)}
+   * @return the value
+   */
+  synchronized String get(int index) {
+    Objects.checkIndex(index, count);
+    var start = offsets[index];
+    return new String(data, start, offsets[index + 1] - start, StandardCharsets.UTF_8);
+  }
+
+  private int append(byte[] bytes) {
+    if (length + bytes.length > data.length) {
+      data = Arrays.copyOf(data, Math.max(data.length * 2, length + bytes.length));
+    }
+    System.arraycopy(bytes, 0, data, length, bytes.length);
+    length += bytes.length;
+    if (count + 2 > offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    offsets[++count] = length;
+    return count - 1;
+  }
+
+  private void rehash() {
+    table = new int[table.length * 2];
+    int mask = table.length - 1;
+    for (int index = 0; index < count; index++) {
+      int slot = hash(data, offsets[index], offsets[index + 1]) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = index + 1;
+    }
+  }
+
+  private static int hash(byte[] bytes, int from, int to) {
+    int hash = 1;
+    for (int i = from; i < to; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.items;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when a value breaks a {@link Constraint} of an item.
+ */
+public class ValidationException extends IllegalArgumentException {
+  private static final long serialVersionUID = 1L;
+  private final String path;
+
+  /**
+   * Creates a new exception.
+   *
+   * @param path path of the item, see {@link BaseConfigItem#getPath()}
+   * @param reason why the value isn't valid
+   */
+  public ValidationException(@NotNull String path, @NotNull String reason) {
+    super("Invalid value at " + (path.isEmpty() ? "root" : path) + ": " + reason);
+    this.path = path;
+  }
+
+  /**
+   * Path of the item the invalid value was for.
+   *
+   * @return path in the format: group.list[3].item
+   */
+  public String getPath() {
+    return path;
+  }
+}
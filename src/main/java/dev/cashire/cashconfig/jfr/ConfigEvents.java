@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.jfr;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import java.lang.management.ManagementFactory;
+import org.jetbrains.annotations.ApiStatus.Internal;
+
+/**
+ * Settings and helpers for the Flight Recorder events emitted by this mod.
+ */
+public final class ConfigEvents {
+  private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+  private static volatile long allocationThreshold = 1024 * 1024;
+
+  private ConfigEvents() {
+  }
+
+  /**
+   * Gets the minimum amount of bytes a read must allocate
+   * before a {@link ConfigAllocationEvent} is committed.
+   *
+   * @return threshold in bytes
+   */
+  public static long getAllocationThreshold() {
+    return allocationThreshold;
+  }
+
+  /**
+   * Sets the minimum amount of bytes a read must allocate
+   * before a {@link ConfigAllocationEvent} is committed.
+   *
+   * @param bytes threshold in bytes
+   * @throws IllegalArgumentException if bytes is negative
+   */
+  public static void setAllocationThreshold(long bytes) {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("Threshold can't be negative: " + bytes);
+    }
+    allocationThreshold = bytes;
+  }
+
+  /**
+   * Gets the bytes allocated so far by the current thread.
+   *
+   * @return allocated bytes, -1 if not supported by the JVM
+   */
+  @Internal
+  public static long allocatedBytes() {
+    if (THREADS == null) {
+      return -1;
+    }
+    return THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  /**
+   * Counts every item under the given item, not counting the item itself.
+   *
+   * @param item item to count the children of
+   * @return amount of items in the tree
+   */
+  @Internal
+  public static int countItems(BaseConfigItem<?> item) {
+    if (!item.isGroup() && !item.isList()) {
+      return 0;
+    }
+    var children = item.isGroup() ? item.asGroup().getValue() : item.asList().getValue();
+    var count = children.size();
+    for (var child : children) {
+      count += countItems(child);
+    }
+    return count;
+  }
+
+  private static com.sun.management.ThreadMXBean threadBean() {
+    var bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean threads
+        && threads.isThreadAllocatedMemorySupported()
+        && threads.isThreadAllocatedMemoryEnabled()) {
+      return threads;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.query;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compiled path query over {@link dev.cashire.cashconfig.items.ConfigGroup} and
+ * {@link dev.cashire.cashconfig.items.ConfigList} trees.
+ * Compile a query once with {@link #compile(String)} and run it many times.
+ *
+ * <p>Syntax:
+ * <ul>
+ *   <li>{@code key} or {@code ["key"]}: child of a group with the given key</li>
+ *   <li>{@code [3]}: element of a list at the index, negative indexes count from the end</li>
+ *   <li>{@code *} or {@code [*]}: every child of a group or list</li>
+ *   <li>{@code ..key}: the rest of the query applied at every depth below</li>
+ * </ul>
+ * Segments are separated by {@code .}, e.g. {@code worlds[*].spawn.x} or {@code ..name}.
+ */
+public final class ConfigQuery {
+  private final String query;
+  private final Step[] steps;
+
+  private ConfigQuery(String query, Step[] steps) {
+    this.query = query;
+    this.steps = steps;
+  }
+
+  /**
+   * Compiles a query.
+   *
+   * @param query query to compile
+   * @return compiled query
+   * @throws IllegalArgumentException if the query is malformed
+   */
+  public static ConfigQuery compile(@NotNull String query) {
+    Objects.requireNonNull(query);
+    return new ConfigQuery(query, new Parser(query).parse());
+  }
+
+  /**
+   * Creates a cursor over the results of this query.
+   * The cursor can be reused for other roots with {@link QueryCursor#reset(BaseConfigItem)}.
+   *
+   * @param root item to run the query from
+   * @return cursor over the results
+   */
+  public QueryCursor cursor(@NotNull BaseConfigItem<?> root) {
+    Objects.requireNonNull(root);
+    return new QueryCursor(steps, root);
+  }
+
+  /**
+   * Gets the first result of this query.
+   *
+   * @param root item to run the query from
+   * @return first item found, null otherwise
+   */
+  public BaseConfigItem<?> first(@NotNull BaseConfigItem<?> root) {
+    var cursor = cursor(root);
+    return cursor.next() ? cursor.get() : null;
+  }
+
+  /**
+   * Gets every result of this query.
+   *
+   * @param root item to run the query from
+   * @return list of items found
+   */
+  public List<BaseConfigItem<?>> all(@NotNull BaseConfigItem<?> root) {
+    var results = new ArrayList<BaseConfigItem<?>>();
+    forEach(root, results::add);
+    return results;
+  }
+
+  /**
+   * Runs the given action on every result of this query.
+   *
+   * @param root item to run the query from
+   * @param action action to run
+   */
+  public void forEach(@NotNull BaseConfigItem<?> root, @NotNull Consumer<BaseConfigItem<?>> action) {
+    Objects.requireNonNull(action);
+    var cursor = cursor(root);
+    while (cursor.next()) {
+      action.accept(cursor.get());
+    }
+  }
+
+  /**
+   * Whether this query can only ever match one item.
+   *
+   * @return true if the query has no wildcards or recursive descent
+   */
+  public boolean isSingle() {
+    for (var step : steps) {
+      if (step.kind == Step.WILDCARD || step.kind == Step.DESCENT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return query;
+  }
+
+  /**
+   * Single step of a compiled query.
+   */
+  static final class Step {
+    static final int KEY = 0;
+    static final int INDEX = 1;
+    static final int WILDCARD = 2;
+    static final int DESCENT = 3;
+
+    final int kind;
+    final String key;
+    final int index;
+
+    Step(int kind, String key, int index) {
+      this.kind = kind;
+      this.key = key;
+      this.index = index;
+    }
+  }
+
+  /**
+   * Parses query strings into steps.
+   */
+  private static final class Parser {
+    private final String query;
+    private final List<Step> steps = new ArrayList<>();
+    private int pos;
+
+    private Parser(String query) {
+      this.query = query;
+    }
+
+    private Step[] parse() {
+      if (query.isEmpty()) {
+        throw error("Empty query");
+      }
+      while (pos < query.length()) {
+        var c = query.charAt(pos);
+        if (query.startsWith("..", pos)) {
+          pos += 2;
+          steps.add(new Step(Step.DESCENT, null, 0));
+          if (peek() == '[') {
+            bracket();
+          } else {
+            segment();
+          }
+        } else if (c == '[') {
+          bracket();
+        } else if (pos == 0) {
+          segment();
+        } else if (c == '.') {
+          pos++;
+          segment();
+        } else {
+          throw error("Unexpected '" + c + "'");
+        }
+      }
+      return steps.toArray(Step[]::new);
+    }
+
+    private char peek() {
+      return pos < query.length() ? query.charAt(pos) : 0;
+    }
+
+    private void segment() {
+      var start = pos;
+      while (pos < query.length() && ".[]".indexOf(query.charAt(pos)) < 0) {
+        pos++;
+      }
+      if (start == pos) {
+        throw error("Missing key");
+      }
+      var key = query.substring(start, pos);
+      steps.add(key.equals("*") ? new Step(Step.WILDCARD, null, 0) : new Step(Step.KEY, key, 0));
+    }
+
+    private void bracket() {
+      pos++;
+      var end = query.indexOf(']', pos);
+      if (peek() == '"' || peek() == '\'') {
+        var quote = query.charAt(pos);
+        var close = query.indexOf(quote, pos + 1);
+        if (close < 0) {
+          throw error("Unclosed quote");
+        }
+        end = close + 1;
+        if (end >= query.length() || query.charAt(end) != ']') {
+          throw error("Expected ']'");
+        }
+        steps.add(new Step(Step.KEY, query.substring(pos + 1, close), 0));
+        pos = end + 1;
+        return;
+      }
+      if (end < 0) {
+        throw error("Unclosed '['");
+      }
+      var content = query.substring(pos, end).trim();
+      if (content.equals("*")) {
+        steps.add(new Step(Step.WILDCARD, null, 0));
+      } else {
+        try {
+          steps.add(new Step(Step.INDEX, null, Integer.parseInt(content)));
+        } catch (NumberFormatException e) {
+          throw error("Invalid index '" + content + "'");
+        }
+      }
+      pos = end + 1;
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " at " + pos + " in query: " + query);
+    }
+  }
+}
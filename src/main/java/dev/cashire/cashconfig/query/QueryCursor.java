@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig.query;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.query.ConfigQuery.Step;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Streaming cursor over the results of a {@link ConfigQuery}.
+ * Results are found lazily, one per {@link #next()} call, walking the tree depth first
+ * without building intermediate lists. A cursor can be reused with {@link #reset(BaseConfigItem)}.
+ * The tree must not be structurally modified while the cursor is in use.
+ *
+ * <pre>{@code
+ * var cursor = query.cursor(root);
+ * while (cursor.next()) {
+ *   use(cursor.get());
+ * }
+ * }</pre>
+ */
+public final class QueryCursor {
+  private final Step[] steps;
+  private Frame[] frames = new Frame[8];
+  private int depth;
+  private BaseConfigItem<?> current;
+
+  QueryCursor(Step[] steps, BaseConfigItem<?> root) {
+    this.steps = steps;
+    reset(root);
+  }
+
+  /**
+   * Restarts this cursor at a new root.
+   *
+   * @param root item to run the query from
+   * @return this cursor
+   */
+  public QueryCursor reset(@NotNull BaseConfigItem<?> root) {
+    Objects.requireNonNull(root);
+    depth = -1;
+    current = null;
+    push(root, 0);
+    return this;
+  }
+
+  /**
+   * Moves to the next result.
+   *
+   * @return true if a result was found, false if there are no more results
+   */
+  public boolean next() {
+    while (depth >= 0) {
+      var frame = frames[depth];
+      if (frame.step == steps.length) {
+        depth--;
+        current = frame.item;
+        return true;
+      }
+      var step = steps[frame.step];
+      var item = frame.item;
+      switch (step.kind) {
+        case Step.KEY:
+          depth--;
+          if (item.isGroup()) {
+            var child = item.asGroup().getItem(step.key);
+            if (child != null) {
+              push(child, frame.step + 1);
+            }
+          }
+          break;
+        case Step.INDEX:
+          depth--;
+          if (item.isList()) {
+            var list = item.asList();
+            var index = step.index < 0 ? list.size() + step.index : step.index;
+            if (index >= 0 && index < list.size()) {
+              push(list.getItem(index), frame.step + 1);
+            }
+          }
+          break;
+        case Step.WILDCARD: {
+          var child = nextChild(frame);
+          if (child == null) {
+            depth--;
+          } else {
+            push(child, frame.step + 1);
+          }
+          break;
+        }
+        case Step.DESCENT: {
+          if (frame.position == -1) {
+            frame.position = 0;
+            push(item, frame.step + 1);
+            break;
+          }
+          var child = nextChild(frame);
+          if (child == null) {
+            depth--;
+          } else {
+            push(child, frame.step);
+          }
+          break;
+        }
+        default:
+          throw new IllegalStateException("Unknown step " + step.kind);
+      }
+    }
+    current = null;
+    return false;
+  }
+
+  /**
+   * Gets the current result.
+   *
+   * @return item found by the last {@link #next()}
+   * @throws NoSuchElementException if {@link #next()} didn't find a result
+   */
+  public BaseConfigItem<?> get() {
+    if (current == null) {
+      throw new NoSuchElementException();
+    }
+    return current;
+  }
+
+  private void push(BaseConfigItem<?> item, int step) {
+    depth++;
+    if (depth == frames.length) {
+      var grown = new Frame[frames.length * 2];
+      System.arraycopy(frames, 0, grown, 0, frames.length);
+      frames = grown;
+    }
+    var frame = frames[depth];
+    if (frame == null) {
+      frame = frames[depth] = new Frame();
+    }
+    frame.item = item;
+    frame.step = step;
+    frame.position = step < steps.length && steps[step].kind == Step.DESCENT ? -1 : 0;
+    frame.children = null;
+  }
+
+  private static BaseConfigItem<?> nextChild(Frame frame) {
+    if (frame.item.isList()) {
+      var list = frame.item.asList();
+      return frame.position < list.size() ? list.getItem(frame.position++) : null;
+    }
+    if (frame.item.isGroup()) {
+      if (frame.children == null) {
+        frame.children = frame.item.asGroup().iterator();
+      }
+      return frame.children.hasNext() ? frame.children.next() : null;
+    }
+    return null;
+  }
+
+  /**
+   * Position of the walk at one depth.
+   */
+  private static final class Frame {
+    private BaseConfigItem<?> item;
+    private int step;
+    private int position;
+    private Iterator<BaseConfigItem<?>> children;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import com.google.gson.JsonParser;
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.Constraint;
+import dev.cashire.cashconfig.items.ValidationException;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for atomic operations of {@link ConfigNumber} and {@link ConfigBoolean}.
+ */
+public class AtomicItemTest {
+
+  @Test
+  public void concurrentAdds() throws InterruptedException {
+    var budget = new ConfigNumber("budget", 0);
+    var threads = new ArrayList<Thread>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          budget.getAndAdd(1);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (var thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals(80_000L, budget.getVolatile().longValue());
+    Assert.assertEquals(79_990L, budget.addAndGet(-10).longValue());
+  }
+
+  @Test
+  public void wholeAndFractional() {
+    var number = new ConfigNumber("n", 1);
+    Assert.assertEquals(3L, number.addAndGet(2));
+    Assert.assertEquals(3.5, number.addAndGet(0.5));
+    number.fromJson(new JsonParser().parse("5"));
+    Assert.assertEquals(6L, number.addAndGet(1));
+  }
+
+  @Test
+  public void compareAndSet() {
+    var number = new ConfigNumber("n", 5);
+    Assert.assertTrue(number.compareAndSet(5L, 6));
+    Assert.assertFalse(number.compareAndSet(5, 7));
+    Assert.assertTrue(number.compareAndSet(6.0, 7));
+    Assert.assertEquals(7, number.getAndSet(8));
+
+    var flag = new ConfigBoolean("flag", false);
+    Assert.assertFalse(flag.compareAndSet(true, false));
+    Assert.assertTrue(flag.compareAndSet(false, true));
+    Assert.assertTrue(flag.getAndToggle());
+    Assert.assertFalse(flag.getVolatile());
+    Assert.assertFalse(flag.getAndSet(true));
+    Assert.assertTrue(flag.getValue());
+  }
+
+  @Test
+  public void notifiesConfig() {
+    var config = new Config(of(new ConfigGroup("limits", of(
+        new ConfigNumber("budget", 10), new ConfigBoolean("open", true)))), 
+        new File("unused.json"));
+    var changes = new AtomicInteger();
+    config.addListener((cfg, changed) -> changes.addAndGet(changed.size()));
+    config.getItem("limits.budget").asNumber().getAndAdd(-1);
+    config.getItem("limits.open").asBoolean().getAndToggle();
+    config.getItem("limits.open").asBoolean().compareAndSet(true, false);
+    Assert.assertEquals(2, changes.get());
+    Assert.assertTrue(config.isDirty());
+    Assert.assertEquals(9, config.getItem("limits.budget").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void concurrentAddsInConfig() throws InterruptedException {
+    var rows = new ConfigList("rows");
+    for (int i = 0; i < 8; i++) {
+      rows.addItem(new ConfigGroup("", of(new ConfigNumber("hits", 0))));
+    }
+    var index = rows.addIndex("hits", false);
+    var config = new Config(rows, new File("unused.json"));
+    var changes = new AtomicInteger();
+    config.addListener((cfg, changed) -> changes.addAndGet(changed.size()));
+    var threads = new ArrayList<Thread>();
+    for (int i = 0; i < 8; i++) {
+      var hits = rows.getItem(i).asGroup().getItem("hits").asNumber();
+      int count = 1000 + i;
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < count; j++) {
+          hits.addAndGet(1);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (var thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals(8 * 1000 + 28, changes.get());
+    for (int i = 0; i < 8; i++) {
+      Assert.assertEquals(List.of(rows.getItem(i)), index.getAll(1000 + i));
+    }
+    Assert.assertFalse(index.contains(0));
+  }
+
+  @Test
+  public void constraints() {
+    var number = new ConfigNumber("n", 1).constrain(Constraint.range(0, 2)).asNumber();
+    Assert.assertEquals(2L, number.addAndGet(1));
+    Assert.assertThrows(ValidationException.class, () -> number.getAndAdd(1));
+    Assert.assertEquals(2L, number.getVolatile());
+  }
+
+  @Test
+  public void frozen() {
+    var flag = new ConfigBoolean("flag", false);
+    flag.freeze();
+    Assert.assertThrows(UnsupportedOperationException.class, flag::getAndToggle);
+    Assert.assertFalse(flag.getVolatile());
+  }
+}
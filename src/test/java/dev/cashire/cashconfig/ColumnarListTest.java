@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+import static dev.cashire.cashconfig.Warps.warp;
+import static dev.cashire.cashconfig.Warps.warps;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for groups of a {@link ConfigList} sharing their keys.
+ */
+public class ColumnarListTest {
+
+  @Test
+  public void rowsShareKeys() {
+    var list = warps();
+    list.addItem(warp("end", 20));
+    var first = (ConfigGroup) list.getItem(0);
+    var last = (ConfigGroup) list.getItem(2);
+    Assert.assertSame(first.getItem("name").getKey(), last.getItem("name").getKey());
+    Assert.assertEquals("end", last.getItem("name").getValue());
+    Assert.assertTrue(last.hasItem("x"));
+    Assert.assertFalse(last.hasItem("y"));
+  }
+
+  @Test
+  public void column() {
+    var list = warps();
+    var names = list.column("name");
+    Assert.assertEquals(2, names.size());
+    Assert.assertEquals("spawn", names.get(0).getValue());
+    list.addItem(warp("end", 20));
+    Assert.assertEquals(3, names.size());
+    Assert.assertEquals("end", names.get(2).getValue());
+    Assert.assertNull(list.column("y").get(0));
+  }
+
+  @Test
+  public void changeKeys() {
+    var list = warps();
+    var row = (ConfigGroup) list.getItem(1);
+    Assert.assertTrue(row.addItem(new ConfigNumber("y", 5)));
+    Assert.assertEquals(3, row.size());
+    Assert.assertEquals(5, ((Number) list.column("y").get(1).getValue()).intValue());
+    Assert.assertNull(list.column("y").get(0));
+    Assert.assertNotNull(row.removeItem("name"));
+    Assert.assertNull(list.column("name").get(1));
+    Assert.assertEquals("spawn", list.column("name").get(0).getValue());
+  }
+
+  @Test
+  public void replaceItem() {
+    var list = warps();
+    var row = (ConfigGroup) list.getItem(0);
+    var previous = row.setItem(new ConfigString("name", "home"));
+    Assert.assertEquals("spawn", previous.getValue());
+    Assert.assertEquals(2, row.size());
+    Assert.assertEquals("home", list.column("name").get(0).getValue());
+  }
+
+  @Test
+  public void mixedRows() {
+    var other = new ConfigGroup("", of(new ConfigString("title", "other")));
+    var list = new ConfigList("warps", of(warp("spawn", 0), other), Type.GROUP);
+    Assert.assertEquals("other", ((ConfigGroup) list.getItem(1)).getItem("title").getValue());
+    Assert.assertNull(list.column("name").get(1));
+    Assert.assertEquals("other", list.column("title").get(1).getValue());
+  }
+
+  @Test
+  public void fromJson() {
+    var list = new ConfigList("warps");
+    list.fromJson(new JsonParser().parse(
+        "[{\"name\":\"a\",\"x\":1},{\"name\":\"b\",\"x\":2},{\"x\":3,\"name\":\"c\"}]"));
+    Assert.assertEquals("c", list.column("name").get(2).getValue());
+    var copy = new ConfigList("warps");
+    var json = new JsonArray();
+    list.toJson(json);
+    copy.fromJson(json.get(0));
+    Assert.assertEquals(3, copy.size());
+    Assert.assertTrue(copy.getItem(2).structurallyEquals(list.getItem(2)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void columnOfValues() {
+    new ConfigList("test", new ConfigString("", "a")).column("a");
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+/**
+ * Compares size and throughput of saving and reading a config for each {@link Compression}.
+ * Run with the amount of list elements as argument, e.g. {@code 1000000}.
+ */
+public final class CompressionBenchmark {
+  private static final int ROUNDS = 5;
+
+  private CompressionBenchmark() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    int elements = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    var list = new ConfigList("regions");
+    for (int i = 0; i < elements; i++) {
+      list.addItem(new ConfigGroup("", of(
+          new ConfigString("name", "region-" + i),
+          new ConfigNumber("x", i * 16),
+          new ConfigNumber("z", -i * 16))));
+    }
+    var file = File.createTempFile("benchmark", ".json");
+    file.deleteOnExit();
+    var config = new Config(of(list), file);
+    config.setCompression(Compression.NONE);
+    config.saveFile();
+    long plain = file.length();
+
+    System.out.printf("%-8s %5s %12s %7s %12s %12s%n", 
+        "type", "level", "bytes", "ratio", "save MB/s", "read MB/s");
+    run(config, file, plain, Compression.NONE, Deflater.DEFAULT_COMPRESSION);
+    for (var compression : new Compression[] {Compression.GZIP, Compression.DEFLATE}) {
+      for (int level : new int[] {1, 6, 9}) {
+        run(config, file, plain, compression, level);
+      }
+    }
+  }
+
+  private static void run(Config config, File file, long plain, Compression compression, 
+      int level) {
+    config.setCompression(compression, level);
+    config.saveFile();
+    long save = 0;
+    long read = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      config.saveFile();
+      save += System.nanoTime() - start;
+      start = System.nanoTime();
+      config.readFile();
+      read += System.nanoTime() - start;
+    }
+    // throughput of the uncompressed json, so rows compare the same amount of work
+    double megabytes = plain * ROUNDS / 1e6;
+    System.out.printf("%-8s %5d %12d %7.3f %12.1f %12.1f%n", compression, level, 
+        file.length(), (double) file.length() / plain, 
+        megabytes / (save / 1e9), megabytes / (read / 1e9));
+  }
+}
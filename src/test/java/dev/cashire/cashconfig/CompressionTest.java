@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link Compression} and {@link Config#setCompression(Compression, int)}.
+ */
+public class CompressionTest {
+  private static final File gzip = new File("compressed.json.gz");
+  private static final File plain = new File("compressed.json");
+
+  @AfterClass
+  public static void cleanup() {
+    gzip.deleteOnExit();
+    plain.deleteOnExit();
+    new File("compressed.json.gz.journal").deleteOnExit();
+  }
+
+  private static Config config(File file) {
+    var list = new ConfigList("names");
+    for (int i = 0; i < 1000; i++) {
+      list.addItem(new ConfigString("", "name-" + i));
+    }
+    return new Config(of(
+        new ConfigGroup("server", of(new ConfigNumber("port", 25565))), list), file);
+  }
+
+  private static void assertLoaded(File file) {
+    var loaded = new Config(file);
+    loaded.readFile();
+    Assert.assertEquals(25565, 
+        loaded.getItem("server.port").asNumber().getValue().intValue());
+    Assert.assertEquals(1000, loaded.getItem("names").asList().size());
+  }
+
+  @Test
+  public void detectsByExtension() throws IOException {
+    gzip.delete();
+    var config = config(gzip);
+    Assert.assertEquals(Compression.GZIP, config.getCompression());
+    config.saveFile();
+    try (var stream = new GZIPInputStream(new FileInputStream(gzip))) {
+      Assert.assertEquals('{', stream.read());
+    }
+    assertLoaded(gzip);
+  }
+
+  @Test
+  public void detectsWhenReading() throws IOException {
+    plain.delete();
+    var config = config(plain);
+    Assert.assertEquals(Compression.NONE, config.getCompression());
+    config.saveFile();
+    var size = plain.length();
+
+    config.setCompression(Compression.DEFLATE, 9);
+    config.saveFile();
+    Assert.assertTrue(plain.length() < size);
+    try (var stream = new InflaterInputStream(new FileInputStream(plain))) {
+      Assert.assertEquals('{', stream.read());
+    }
+    assertLoaded(plain);
+  }
+
+  @Test
+  public void journaled() {
+    gzip.delete();
+    var config = config(gzip);
+    config.enableJournal();
+    config.readFile();
+    config.getItem("server.port").asNumber().setValue(1);
+    config.saveFile();
+    config.getItem("server.port").asNumber().setValue(25565);
+
+    var loaded = config(gzip);
+    loaded.enableJournal();
+    loaded.readFile();
+    Assert.assertEquals(25565, 
+        loaded.getItem("server.port").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void invalidLevel() {
+    var config = config(plain);
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> config.setCompression(Compression.GZIP, 10));
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> config.setCompression(Compression.GZIP, -2));
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import dev.cashire.cashconfig.items.ConfigNumber;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ConfigCache}.
+ */
+public class ConfigCacheTest {
+  private File dir;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Before
+  public void createDir() throws IOException {
+    dir = Files.createTempDirectory("config-cache").toFile();
+  }
+
+  @After
+  public void deleteDir() throws IOException {
+    try (var files = Files.walk(dir.toPath())) {
+      files.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile)
+          .forEach(File::delete);
+    }
+  }
+
+  private Config load(String key) {
+    loads.incrementAndGet();
+    return new Config(new ConfigNumber("value", 0), new File(dir, key + ".json"));
+  }
+
+  @Test
+  public void loadsOnce() {
+    var cache = new ConfigCache<String>(this::load, 10);
+    var config = cache.get("a");
+    Assert.assertSame(config, cache.get("a"));
+    Assert.assertSame(config, cache.getIfPresent("a"));
+    Assert.assertNull(cache.getIfPresent("b"));
+    Assert.assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    var cache = new ConfigCache<String>(this::load, 2);
+    var a = cache.get("a");
+    cache.get("b");
+    cache.get("a");
+    a.getItem("value").asNumber().setValue(5);
+    cache.get("c");
+
+    Assert.assertEquals(2, cache.size());
+    Assert.assertNull(cache.getIfPresent("b"));
+
+    cache.get("d");
+    Assert.assertNull(cache.getIfPresent("a"));
+    // written back before it was dropped
+    Assert.assertEquals(5, cache.get("a").getItem("value").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void evictsOverWeight() {
+    var cache = new ConfigCache<String>(this::load, 10, config -> 4);
+    cache.get("a");
+    cache.get("b");
+    Assert.assertEquals(8, cache.weight());
+    cache.get("c");
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(8, cache.weight());
+  }
+
+  @Test
+  public void savesOnClose() {
+    var cache = new ConfigCache<String>(this::load, 10);
+    cache.get("a").getItem("value").asNumber().setValue(3);
+    cache.get("b").getItem("value").asNumber().setValue(4);
+    cache.flush();
+    Assert.assertFalse(cache.get("a").isDirty());
+    cache.get("b").getItem("value").asNumber().setValue(7);
+    cache.close();
+    Assert.assertEquals(0, cache.size());
+
+    var reloaded = load("b");
+    reloaded.readFile();
+    Assert.assertEquals(7, reloaded.getItem("value").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void deduplicatesConcurrentLoads() throws InterruptedException {
+    var started = new CountDownLatch(1);
+    var cache = new ConfigCache<String>(key -> {
+      try {
+        started.await();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return load(key);
+    }, 10);
+    var threads = new ArrayList<Thread>();
+    var results = new Config[8];
+    for (int i = 0; i < results.length; i++) {
+      var index = i;
+      var thread = new Thread(() -> results[index] = cache.get("a"));
+      threads.add(thread);
+      thread.start();
+    }
+    started.countDown();
+    for (var thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals(1, loads.get());
+    for (var result : results) {
+      Assert.assertSame(results[0], result);
+    }
+  }
+
+  @Test
+  public void rethrowsLoaderErrors() {
+    var cache = new ConfigCache<String>(key -> {
+      throw new IllegalStateException("broken " + key);
+    }, 10);
+    Assert.assertThrows(IllegalStateException.class, () -> cache.get("a"));
+    Assert.assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ConfigConstant}.
+ */
+public class ConfigConstantTest {
+  private File dir;
+  private File file;
+
+  @Before
+  public void createDir() throws IOException {
+    dir = Files.createTempDirectory("constant").toFile();
+    file = new File(dir, "config.json");
+  }
+
+  @After
+  public void deleteDir() throws IOException {
+    try (var files = Files.walk(dir.toPath())) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  private Config config() {
+    var config = new Config(of(new ConfigGroup("debug", of(
+        new ConfigBoolean("enabled", false),
+        new ConfigNumber("level", 1)))), file);
+    config.readFile();
+    return config;
+  }
+
+  private static boolean invoke(ConfigConstant<Boolean> constant) throws Throwable {
+    return (Boolean) constant.handle().invokeExact();
+  }
+
+  @Test
+  public void followsChanges() throws Throwable {
+    var config = config();
+    var enabled = config.constant("debug.enabled", Boolean.class);
+    Assert.assertFalse(invoke(enabled));
+
+    config.getItem("debug.enabled").asBoolean().setValue(true);
+    Assert.assertTrue(invoke(enabled));
+    Assert.assertTrue(enabled.get());
+
+    config.batch(tx -> tx.setValue("debug.enabled", false));
+    Assert.assertFalse(invoke(enabled));
+
+    config.setItem("debug", new ConfigBoolean("enabled", true));
+    Assert.assertTrue(invoke(enabled));
+
+    config.removeItem("debug.enabled");
+    Assert.assertNull(enabled.get());
+    Assert.assertNull((Boolean) enabled.handle().invokeExact());
+  }
+
+  @Test
+  public void followsReload() throws Throwable {
+    var config = config();
+    var level = config.constant("debug.level", Number.class);
+    Assert.assertEquals(1, level.get().intValue());
+    try (Writer writer = Files.newBufferedWriter(config.getFile().toPath(), 
+        StandardCharsets.UTF_8)) {
+      writer.write("{\"debug\":{\"enabled\":true,\"level\":3}}");
+    }
+    config.readFile();
+    Assert.assertEquals(3, ((Number) level.handle().invokeExact()).intValue());
+  }
+
+  @Test
+  public void close() throws Throwable {
+    var config = config();
+    var enabled = config.constant("debug.enabled", Boolean.class);
+    enabled.close();
+    config.getItem("debug.enabled").asBoolean().setValue(true);
+    Assert.assertFalse(invoke(enabled));
+    enabled.refresh();
+    Assert.assertTrue(invoke(enabled));
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void wrongType() throws IOException {
+    config().constant("debug.level", Boolean.class);
+  }
+
+  @Test
+  public void missingItem() {
+    var config = new Config(of(new ConfigGroup("debug")), new File("unused.json"));
+    var constant = config.constant("debug.enabled", Boolean.class);
+    Assert.assertNull(constant.get());
+    config.getItem("debug").asGroup().addItem(new ConfigBoolean("enabled", true));
+    Assert.assertTrue(constant.get());
+  }
+}
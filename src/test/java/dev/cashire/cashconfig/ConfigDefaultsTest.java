@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.Constraint;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.items.ValidationException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ConfigDefaults}.
+ */
+public class ConfigDefaultsTest {
+  private static final File file = new File("player.json");
+  private static final ConfigDefaults defaults = new ConfigDefaults(of(
+      new ConfigGroup("player", of(
+          new ConfigNumber("speed", 1).constrain(Constraint.range(0, 10)),
+          new ConfigString("title", "none"),
+          new ConfigList("homes", new ConfigString("", "spawn"))))));
+
+  @AfterClass
+  public static void cleanup() {
+    file.deleteOnExit();
+    new File("player-c.json").deleteOnExit();
+    new File("player-d.json").deleteOnExit();
+  }
+
+  @Test
+  public void sharesUnchangedItems() {
+    var first = new Config(defaults, new File("player-a.json"));
+    var second = new Config(defaults, new File("player-b.json"));
+
+    Assert.assertSame(first.getItem("player"), second.getItem("player"));
+    Assert.assertSame(defaults.getItem("player"), first.getItems().get(0));
+    Assert.assertEquals(1, first.getItems().size());
+    Assert.assertEquals("none", first.getItem("player.title").getValue());
+    Assert.assertTrue(first.hasItem("player.homes"));
+    Assert.assertEquals(first.fingerprint(), second.fingerprint());
+  }
+
+  @Test
+  public void mergedContent() {
+    file.delete();
+    var config = new Config(defaults, file);
+    var plain = new Config(of(defaults.getItem("player").copy()), new File("player-c.json"));
+    Assert.assertEquals(plain.fingerprint(), config.fingerprint());
+
+    config.batch(tx -> tx.setValue("player.title", "king"));
+    Assert.assertNotEquals(plain.fingerprint(), config.fingerprint());
+    Assert.assertEquals(List.of("/player/title"), plain.differences(config));
+    plain.batch(tx -> tx.applyPatch(plain.diff(config)));
+    Assert.assertEquals(plain.fingerprint(), config.fingerprint());
+
+    var other = new Config(defaults, new File("player-d.json"));
+    other.batch(tx -> tx.applyPatch(other.diff(plain)));
+    Assert.assertEquals(config.fingerprint(), other.fingerprint());
+    Assert.assertEquals(1, other.getItem("player").asGroup().size());
+  }
+
+  @Test
+  public void copiesOnWrite() {
+    file.delete();
+    var config = new Config(defaults, file);
+    config.readFile();
+    var speed = config.getItem("player.speed");
+    Assert.assertFalse(config.isDirty());
+    speed.asNumber().setValue(2);
+    Assert.assertTrue(config.isDirty());
+    Assert.assertSame(speed, config.getItem("player.speed"));
+    Assert.assertEquals(1, defaults.getItem("player.speed").asNumber().getValue().intValue());
+    Assert.assertEquals(1, config.getItem("player").asGroup().size());
+    Assert.assertThrows(ValidationException.class, () -> speed.asNumber().setValue(11));
+    Assert.assertEquals(2, config.getItem("player.speed").asNumber().getValue().intValue());
+
+    config.batch(tx -> tx.setValue("player.speed", 3));
+    Assert.assertEquals(3, speed.asNumber().getValue().intValue());
+    var title = config.getItem("player.title");
+    Assert.assertNotSame(title, config.getItem("player.title"));
+    Assert.assertFalse(config.getItem("player").asGroup().hasItem("title"));
+
+    config.addItem("player.homes", new ConfigString("", "base"));
+    Assert.assertEquals(2, config.getItem("player.homes").asList().size());
+    Assert.assertEquals(1, defaults.getItem("player.homes").asList().size());
+
+    config.removeItem("player.speed");
+    Assert.assertEquals(1, config.getItem("player.speed").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void savesOnlyChanges() throws IOException {
+    file.delete();
+    var config = new Config(defaults, file);
+    config.readFile();
+    config.batch(tx -> tx.setValue("player.title", "king"));
+    var saved = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    Assert.assertTrue(saved.contains("king"));
+    Assert.assertFalse(saved.contains("speed"));
+
+    var reloaded = new Config(defaults, file);
+    reloaded.readFile();
+    Assert.assertEquals("king", reloaded.getItem("player.title").asString().getValue());
+    Assert.assertEquals(1, reloaded.getItem("player").asGroup().size());
+
+    reloaded.batch(tx -> tx.setValue("player.speed", 3));
+    var again = new Config(defaults, file);
+    again.readFile();
+    // loaded items keep the constraints of their defaults
+    Assert.assertEquals(1, again.getItem("player.speed").getConstraints().size());
+  }
+
+  @Test
+  public void rollbackRemovesCopies() {
+    file.delete();
+    var config = new Config(defaults, file);
+    config.readFile();
+    Assert.assertThrows(IllegalArgumentException.class, () -> config.batch(tx -> tx
+        .setValue("player.title", "king")
+        .setValue("player.speed", "fast")));
+    Assert.assertSame(defaults.getItem("player"), config.getItem("player"));
+    Assert.assertEquals("none", config.getItem("player.title").getValue());
+  }
+
+  @Test
+  public void failedSetRemovesCopies() {
+    file.delete();
+    var config = new Config(defaults, file);
+    config.readFile();
+    config.setItem("player.speed", new ConfigString("unit", "m/s"));
+    Assert.assertFalse(config.addItem("player.title", new ConfigString("unit", "m/s")));
+    Assert.assertSame(defaults.getItem("player"), config.getItem("player"));
+    Assert.assertFalse(config.isDirty());
+  }
+
+  @Test
+  public void rejectsInvalidFile() throws IOException {
+    Files.write(file.toPath(), "{\"player\":{\"speed\":20}}".getBytes(StandardCharsets.UTF_8));
+    var config = new Config(defaults, file);
+    config.readFile();
+    Assert.assertSame(defaults.getItem("player"), config.getItem("player"));
+  }
+
+  @Test
+  public void copiesKeepConstraints() {
+    var copy = defaults.getItem("player.speed").copy();
+    Assert.assertFalse(copy.isFrozen());
+    Assert.assertEquals(1, copy.getConstraints().size());
+    Assert.assertThrows(UnsupportedOperationException.class,
+        () -> new ConfigGroup("other").addItem(defaults.getItem("player.title")));
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import dev.cashire.cashconfig.diff.ConfigDiff;
+import dev.cashire.cashconfig.diff.PatchOperation;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ConfigDiff} and {@link PatchOperation}.
+ */
+public class ConfigDiffTest {
+  private static final File source = new File("diff-source.json");
+  private static final File target = new File("diff-target.json");
+
+  @AfterClass
+  public static void cleanup() {
+    source.deleteOnExit();
+    target.deleteOnExit();
+  }
+
+  private static ConfigGroup tree(int port, String motd, String... ops) {
+    var list = new ConfigList("ops");
+    for (var op : ops) {
+      list.addItem(new ConfigString("", op));
+    }
+    return new ConfigGroup("root", of(new ConfigGroup("server", of(
+        new ConfigNumber("port", port),
+        new ConfigString("motd", motd),
+        list))));
+  }
+
+  private static JsonElement json(BaseConfigItem<?> item) {
+    var array = new JsonArray();
+    item.toJson(array);
+    return array.get(0);
+  }
+
+  @Test
+  public void equalTrees() {
+    var first = tree(25565, "hello", "a", "b");
+    Assert.assertTrue(ConfigDiff.equals(first, tree(25565, "hello", "a", "b")));
+    Assert.assertTrue(ConfigDiff.equals(new ConfigNumber("", 1), new ConfigNumber("", 1.0)));
+    Assert.assertFalse(ConfigDiff.equals(first, tree(25565, "hello", "a")));
+    Assert.assertTrue(ConfigDiff.diff(first, tree(25565, "hello", "a", "b")).isEmpty());
+    Assert.assertEquals(0, ConfigDiff.mergePatch(first, first).getAsJsonObject().size());
+  }
+
+  @Test
+  public void diffAndApply() {
+    var from = tree(25565, "hello", "a", "b", "c");
+    var to = tree(25566, "hello", "a", "x");
+    to.getItem("server").asGroup().removeItem("motd");
+    to.getItem("server").asGroup().addItem(new ConfigBoolean("whitelist", true));
+
+    var patch = ConfigDiff.diff(from, to);
+    Assert.assertEquals(Set.of(
+        PatchOperation.remove("/server/motd"),
+        PatchOperation.replace("/server/port", new JsonPrimitive(25566)),
+        PatchOperation.replace("/server/ops/1", new JsonPrimitive("x")),
+        PatchOperation.remove("/server/ops/2"),
+        PatchOperation.add("/server/whitelist", new JsonPrimitive(true))), new HashSet<>(patch));
+
+    var port = from.getItem("server").asGroup().getItem("port");
+    ConfigDiff.apply(from, patch);
+    Assert.assertTrue(ConfigDiff.equals(from, to));
+    Assert.assertSame(port, from.getItem("server").asGroup().getItem("port"));
+  }
+
+  @Test
+  public void applyIsAtomic() {
+    var tree = tree(25565, "hello", "a");
+    var before = json(tree);
+    var patch = PatchOperation.fromJson(new JsonParser().parse("["
+        + "{\"op\":\"add\",\"path\":\"/server/ops/0\",\"value\":\"first\"},"
+        + "{\"op\":\"add\",\"path\":\"/server/ops/-\",\"value\":\"last\"},"
+        + "{\"op\":\"copy\",\"from\":\"/server/motd\",\"path\":\"/server/name\"},"
+        + "{\"op\":\"move\",\"from\":\"/server/port\",\"path\":\"/port\"},"
+        + "{\"op\":\"test\",\"path\":\"/port\",\"value\":1}]").getAsJsonArray());
+    Assert.assertThrows(IllegalArgumentException.class, () -> ConfigDiff.apply(tree, patch));
+    Assert.assertEquals(before, json(tree));
+
+    var revert = ConfigDiff.apply(tree, patch.subList(0, 4));
+    var ops = tree.getItem("server").asGroup().getItem("ops").asList();
+    Assert.assertEquals("first", ops.getItem(0).getValue());
+    Assert.assertEquals("last", ops.getItem(2).getValue());
+    Assert.assertEquals("hello", tree.getItem("server").asGroup().getItem("name").getValue());
+    Assert.assertEquals(25565, tree.getItem("port").asNumber().getValue().intValue());
+    revert.run();
+    Assert.assertEquals(before, json(tree));
+  }
+
+  @Test
+  public void pointerEscapes() {
+    var tree = new ConfigGroup("root", of(new ConfigNumber("a/b~c", 1)));
+    var patch = ConfigDiff.diff(tree, new ConfigGroup("root", of(new ConfigNumber("a/b~c", 2))));
+    Assert.assertEquals("/a~1b~0c", patch.get(0).getPath());
+    ConfigDiff.apply(tree, patch);
+    Assert.assertEquals(2, tree.getItem("a/b~c").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void mergePatch() {
+    var from = tree(25565, "hello", "a", "b");
+    var to = tree(25565, "bye", "a");
+    to.getItem("server").asGroup().removeItem("port");
+
+    var patch = ConfigDiff.mergePatch(from, to);
+    Assert.assertEquals(new JsonParser().parse(
+        "{\"server\":{\"port\":null,\"motd\":\"bye\",\"ops\":[\"a\"]}}"), patch);
+
+    var motd = from.getItem("server").asGroup().getItem("motd");
+    ConfigDiff.applyMergePatch(from, patch);
+    Assert.assertTrue(ConfigDiff.equals(from, to));
+    Assert.assertSame(motd, from.getItem("server").asGroup().getItem("motd"));
+
+    ConfigDiff.applyMergePatch(from, new JsonParser().parse(
+        "{\"server\":{\"motd\":5},\"world\":{\"seed\":1,\"missing\":null}}"));
+    Assert.assertEquals(5, 
+        from.getItem("server").asGroup().getItem("motd").asNumber().getValue().intValue());
+    Assert.assertEquals(new JsonParser().parse("{\"seed\":1}"), json(from.getItem("world")));
+  }
+
+  @Test
+  public void configPatch() {
+    source.delete();
+    target.delete();
+    var config = new Config(tree(1, "a", "x").getValue(), source);
+    var other = new Config(tree(2, "b", "x", "y").getValue(), target);
+    var patch = config.diff(other);
+    Assert.assertEquals(3, patch.size());
+    config.batch(tx -> tx.applyPatch(patch));
+    Assert.assertTrue(config.diff(other).isEmpty());
+    Assert.assertEquals(0, other.mergePatch(config).size());
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.jfr.ConfigAllocationEvent;
+import dev.cashire.cashconfig.jfr.ConfigEvents;
+import dev.cashire.cashconfig.jfr.ConfigLoadEvent;
+import dev.cashire.cashconfig.jfr.ConfigLookupEvent;
+import dev.cashire.cashconfig.jfr.ConfigReloadEvent;
+import dev.cashire.cashconfig.jfr.ConfigSaveEvent;
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for the Flight Recorder events emitted by {@link Config}.
+ */
+public class ConfigEventsTest {
+  private static File file = new File("events.json");
+
+  @AfterClass
+  public static void cleanup() {
+    file.deleteOnExit();
+  }
+
+  @SafeVarargs
+  private static List<RecordedEvent> record(Runnable action, Class<? extends Event>... events) 
+      throws Exception {
+    try (var recording = new Recording()) {
+      for (var event : events) {
+        recording.enable(event).withThreshold(Duration.ZERO);
+      }
+      recording.start();
+      action.run();
+      recording.stop();
+      var dump = Files.createTempFile("config", ".jfr");
+      recording.dump(dump);
+      var recorded = RecordingFile.readAllEvents(dump);
+      Files.delete(dump);
+      return recorded;
+    }
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream()
+      .filter(e -> e.getEventType().getName().equals(name))
+      .collect(Collectors.toList());
+  }
+
+  @Test
+  public void saveAndLoad() throws Exception {
+    var config = new Config(new ConfigGroup("group", of(new ConfigString("a", "b"))), file);
+    var events = record(() -> {
+      config.saveFile();
+      config.readFile();
+      config.readFile();
+    }, ConfigSaveEvent.class, ConfigLoadEvent.class, ConfigReloadEvent.class);
+
+    var saves = named(events, "dev.cashire.cashconfig.Save");
+    Assert.assertEquals(1, saves.size());
+    Assert.assertEquals(file.getPath(), saves.get(0).getString("path"));
+    Assert.assertEquals(2, saves.get(0).getInt("itemCount"));
+    Assert.assertEquals(file.length(), saves.get(0).getLong("bytes"));
+    Assert.assertEquals(1, named(events, "dev.cashire.cashconfig.Load").size());
+    Assert.assertEquals(1, named(events, "dev.cashire.cashconfig.Reload").size());
+  }
+
+  @Test
+  public void lookup() throws Exception {
+    var config = new Config(new ConfigString("a", "b"), file);
+    var events = record(() -> {
+      config.getItem("a");
+      config.getItem("missing");
+    }, ConfigLookupEvent.class);
+
+    var lookups = named(events, "dev.cashire.cashconfig.Lookup");
+    Assert.assertEquals(2, lookups.size());
+    Assert.assertEquals("a", lookups.get(0).getString("path"));
+    Assert.assertTrue(lookups.get(0).getBoolean("found"));
+    Assert.assertFalse(lookups.get(1).getBoolean("found"));
+  }
+
+  @Test
+  public void allocationThreshold() throws Exception {
+    var config = new Config(new ConfigString("a", "b"), file);
+    config.saveFile();
+    var previous = ConfigEvents.getAllocationThreshold();
+    try {
+      ConfigEvents.setAllocationThreshold(Long.MAX_VALUE);
+      var events = record(config::readFile, ConfigAllocationEvent.class);
+      Assert.assertEquals(0, named(events, "dev.cashire.cashconfig.Allocation").size());
+      
+      ConfigEvents.setAllocationThreshold(0);
+      events = record(config::readFile, ConfigAllocationEvent.class);
+      var allocations = named(events, "dev.cashire.cashconfig.Allocation");
+      Assert.assertEquals(1, allocations.size());
+      Assert.assertTrue(allocations.get(0).getLong("allocated") >= 0);
+    } finally {
+      ConfigEvents.setAllocationThreshold(previous);
+    }
+  }
+
+  @Test
+  public void negativeThreshold() {
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> ConfigEvents.setAllocationThreshold(-1));
+  }
+}
@@ -123,6 +123,35 @@ public class ConfigGroupTest {
     Assert.assertEquals(num, test.getItem("test"));
   }
 
+  @Test
+  public void growPastCompactSize() {
+    var test = new ConfigGroup();
+    for (int i = 0; i < 20; i++) {
+      Assert.assertTrue(test.addItem(new ConfigNumber("n" + i, i)));
+    }
+    Assert.assertEquals(20, test.size());
+    Assert.assertFalse(test.addItem(new ConfigNumber("n3", 0)));
+    for (int i = 0; i < 20; i++) {
+      Assert.assertEquals(i, test.getItem("n" + i).asNumber().getValue().intValue());
+    }
+    for (int i = 0; i < 15; i++) {
+      Assert.assertNotNull(test.removeItem("n" + i));
+    }
+    Assert.assertEquals(5, test.size());
+    Assert.assertNull(test.getItem("n0"));
+    Assert.assertEquals(19, test.getItem("n19").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void smallGroupKeepsOrder() {
+    var test = new ConfigGroup("", of(new ConfigNumber("c", 1), new ConfigNumber("a", 2)));
+    test.addItem(new ConfigNumber("b", 3));
+    Assert.assertNotNull(test.removeItem("a"));
+    var json = new JsonObject();
+    test.toJson(json);
+    Assert.assertEquals("{\"\":{\"c\":1,\"b\":3}}", json.toString());
+  }
+
   @Test
   public void isItem() {
     var test = new ConfigGroup();
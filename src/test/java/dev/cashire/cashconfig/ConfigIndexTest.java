@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+import static dev.cashire.cashconfig.Warps.warp;
+import static dev.cashire.cashconfig.Warps.warps;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigIndex;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigString;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ConfigIndex}.
+ */
+public class ConfigIndexTest {
+
+  @Test
+  public void getByKey() {
+    var list = warps();
+    var index = list.addIndex("name", true);
+    Assert.assertEquals(2, index.size());
+    Assert.assertSame(list.getItem(1), index.get("mine"));
+    Assert.assertNull(index.get("end"));
+    Assert.assertSame(index, list.getIndex("name"));
+    Assert.assertSame(index, list.addIndex("name", true));
+  }
+
+  @Test
+  public void numbersCompareByValue() {
+    var list = warps();
+    list.addIndex("x", false);
+    Assert.assertSame(list.getItem(1), list.findItem("x", 10.0));
+    Assert.assertSame(list.getItem(1), list.findItem("x", 10L));
+  }
+
+  @Test
+  public void findWithoutIndex() {
+    var list = warps();
+    Assert.assertSame(list.getItem(0), list.findItem("name", "spawn"));
+    Assert.assertNull(list.findItem("name", "end"));
+  }
+
+  @Test
+  public void addAndRemove() {
+    var list = warps();
+    var index = list.addIndex("name", true);
+    var end = warp("end", 5);
+    list.addItem(end);
+    Assert.assertSame(end, index.get("end"));
+    list.removeItem(0);
+    Assert.assertFalse(index.contains("spawn"));
+    Assert.assertSame(end, index.get("end"));
+  }
+
+  @Test
+  public void uniqueConstraint() {
+    var list = warps();
+    list.addIndex("name", true);
+    Assert.assertThrows(IllegalArgumentException.class, () -> list.addItem(warp("mine", 2)));
+    Assert.assertEquals(2, list.size());
+    list.addItem(warp("end", 10));
+    Assert.assertThrows(IllegalArgumentException.class, () -> list.addIndex("x", true));
+    Assert.assertNull(list.getIndex("x"));
+  }
+
+  @Test
+  public void valueChange() {
+    var list = warps();
+    var index = list.addIndex("name", true);
+    var name = list.getItem(0).asGroup().getItem("name").asString();
+    name.setValue("hub");
+    Assert.assertSame(list.getItem(0), index.get("hub"));
+    Assert.assertFalse(index.contains("spawn"));
+
+    Assert.assertThrows(IllegalArgumentException.class, () -> name.setValue("mine"));
+    Assert.assertEquals("hub", name.getValue());
+    Assert.assertSame(list.getItem(0), index.get("hub"));
+    Assert.assertSame(list.getItem(1), index.get("mine"));
+  }
+
+  @Test
+  public void groupChange() {
+    var list = warps();
+    var index = list.addIndex("name", true);
+    var group = list.getItem(0).asGroup();
+    group.removeItem("name");
+    Assert.assertFalse(index.contains("spawn"));
+    group.addItem(new ConfigString("name", "hub"));
+    Assert.assertSame(group, index.get("hub"));
+    Assert.assertFalse(group.addItem(new ConfigString("name", "mine")));
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> group.setItem(new ConfigString("name", "mine")));
+    Assert.assertEquals("hub", group.getItem("name").getValue());
+  }
+
+  @Test
+  public void fromJson() {
+    var list = warps();
+    var index = list.addIndex("name", true);
+    var json = new JsonArray();
+    for (var name : new String[] {"a", "b", "c"}) {
+      var obj = new JsonObject();
+      obj.addProperty("name", name);
+      json.add(obj);
+    }
+    list.fromJson(json);
+    Assert.assertEquals(3, index.size());
+    Assert.assertSame(list.getItem(2), index.get("c"));
+
+    var duplicate = new JsonObject();
+    duplicate.addProperty("name", "a");
+    json.add(duplicate);
+    Assert.assertThrows(IllegalArgumentException.class, () -> list.fromJson(json));
+    Assert.assertEquals(3, list.size());
+  }
+
+  @Test
+  public void onlyGroups() {
+    var list = new ConfigList("", of(new ConfigString()), Type.STRING);
+    Assert.assertThrows(IllegalArgumentException.class, () -> list.addIndex("name", false));
+  }
+
+  @Test
+  public void removeIndex() {
+    var list = warps();
+    list.addIndex("name", true);
+    Assert.assertTrue(list.removeIndex("name"));
+    Assert.assertFalse(list.removeIndex("name"));
+    list.addItem(warp("mine", 1));
+    Assert.assertEquals(3, list.size());
+  }
+}
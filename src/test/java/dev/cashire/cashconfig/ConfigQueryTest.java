@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.query.ConfigQuery;
+import java.io.File;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ConfigQuery}.
+ */
+public class ConfigQueryTest {
+
+  private static ConfigGroup world(String name, int x) {
+    return new ConfigGroup("", of(
+        new ConfigString("name", name), 
+        new ConfigGroup("spawn", of(new ConfigNumber("x", x), new ConfigNumber("y", 64)))));
+  }
+
+  private static ConfigGroup root() {
+    var worlds = new ConfigList("worlds", 
+        of(world("overworld", 1), world("nether", 2), world("end", 3)), Type.GROUP);
+    var names = new ConfigList("names", 
+        of(new ConfigString("", "a"), new ConfigString("", "b")), Type.STRING);
+    return new ConfigGroup("root", of(worlds, names, new ConfigString("name", "server")));
+  }
+
+  private static List<Object> values(String query) {
+    return ConfigQuery.compile(query).all(root()).stream()
+      .map(BaseConfigItem::getValue)
+      .map(v -> v instanceof Number n ? (Object) n.intValue() : v)
+      .collect(Collectors.toList());
+  }
+
+  @Test
+  public void keys() {
+    Assert.assertEquals(List.of("server"), values("name"));
+    Assert.assertEquals(List.of("server"), values("[\"name\"]"));
+    Assert.assertEquals(List.of(), values("missing.key"));
+  }
+
+  @Test
+  public void indexes() {
+    Assert.assertEquals(List.of("nether"), values("worlds[1].name"));
+    Assert.assertEquals(List.of("end"), values("worlds[-1].name"));
+    Assert.assertEquals(List.of(), values("worlds[3].name"));
+    Assert.assertEquals(List.of("b"), values("names[1]"));
+  }
+
+  @Test
+  public void wildcards() {
+    Assert.assertEquals(List.of(1, 2, 3), values("worlds[*].spawn.x"));
+    Assert.assertEquals(List.of(1, 2, 3), values("worlds.*.spawn.x"));
+    Assert.assertEquals(List.of("a", "b"), values("names[*]"));
+    Assert.assertEquals(3, values("*").size());
+  }
+
+  @Test
+  public void recursiveDescent() {
+    var names = values("..name");
+    Assert.assertEquals(4, names.size());
+    Assert.assertTrue(names.containsAll(List.of("overworld", "nether", "end", "server")));
+    Assert.assertEquals(List.of(1, 2, 3), values("..x"));
+    Assert.assertEquals(List.of(1, 2, 3), values("worlds..x"));
+    Assert.assertEquals(List.of(64, 64, 64), values("..spawn.y"));
+  }
+
+  @Test
+  public void cursorReuse() {
+    var query = ConfigQuery.compile("worlds[*].name");
+    var cursor = query.cursor(root());
+    var count = 0;
+    while (cursor.next()) {
+      Assert.assertTrue(cursor.get().isString());
+      count++;
+    }
+    Assert.assertEquals(3, count);
+    Assert.assertThrows(NoSuchElementException.class, cursor::get);
+    cursor.reset(new ConfigGroup("root", of(new ConfigList("worlds"))));
+    Assert.assertFalse(cursor.next());
+  }
+
+  @Test
+  public void single() {
+    Assert.assertTrue(ConfigQuery.compile("worlds[1].name").isSingle());
+    Assert.assertFalse(ConfigQuery.compile("worlds[*].name").isSingle());
+    Assert.assertFalse(ConfigQuery.compile("..name").isSingle());
+  }
+
+  @Test
+  public void malformed() {
+    for (var query : new String[] {"", "a..", "a.", "a[", "a[x]", "a[\"b]", "a]b", ".a"}) {
+      Assert.assertThrows(query, IllegalArgumentException.class, 
+          () -> ConfigQuery.compile(query));
+    }
+  }
+
+  @Test
+  public void configQuery() {
+    var config = new Config(root().getValue(), new File("query.json"));
+    var cursor = config.query("worlds[*].spawn.x");
+    var sum = 0;
+    while (cursor.next()) {
+      sum += cursor.get().asNumber().getValue().intValue();
+    }
+    Assert.assertEquals(6, sum);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import com.google.gson.JsonParseException;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.Constraint;
+import dev.cashire.cashconfig.items.ValidationException;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ConfigRegistry}.
+ */
+public class ConfigRegistryTest {
+  private static final int COUNT = 8;
+  private static final ArrayList<File> files = new ArrayList<>();
+
+  @AfterClass
+  public static void cleanup() {
+    files.forEach(File::deleteOnExit);
+  }
+
+  private static ArrayList<Config> createConfigs() {
+    var configs = new ArrayList<Config>();
+    for (int i = 0; i < COUNT; i++) {
+      var file = new File("registry" + i + ".json");
+      files.add(file);
+      new Config(new ConfigNumber("value", i), file).saveFile();
+      configs.add(new Config(new ConfigNumber("value", -1), file));
+    }
+    return configs;
+  }
+
+  @Test
+  public void loadAll() throws Exception {
+    for (var virtual : new boolean[] {true, false}) {
+      var registry = new ConfigRegistry(2, virtual);
+      var configs = createConfigs();
+      var futures = new ArrayList<>();
+      for (var config : configs) {
+        futures.add(registry.register(config));
+      }
+      Assert.assertEquals(COUNT, registry.size());
+
+      var report = registry.loadAll().get(10, TimeUnit.SECONDS);
+      Assert.assertEquals(COUNT, report.getLoadTimes().size());
+      Assert.assertTrue(report.getFailures().isEmpty());
+      for (int i = 0; i < COUNT; i++) {
+        var config = configs.get(i);
+        Assert.assertTrue(registry.getFuture(config).isDone());
+        Assert.assertEquals(config, registry.getFuture(config).get());
+        Assert.assertEquals(i, config.getItem("value", Type.NUMBER).asNumber().getValue().intValue());
+        Assert.assertTrue(report.getLoadTimes().containsKey(config));
+      }
+    }
+  }
+
+  @Test
+  public void reportsFailures() throws Exception {
+    var broken = new File("registry-broken.json");
+    var invalid = new File("registry-invalid.json");
+    files.add(broken);
+    files.add(invalid);
+    Files.writeString(broken.toPath(), "{\"value\": ");
+    Files.writeString(invalid.toPath(), "{\"value\": 100}");
+    var registry = new ConfigRegistry(2, false);
+    var unreadable = new Config(new ConfigNumber("value", 1), broken);
+    var constrained = new Config(
+        new ConfigNumber("value", 1).constrain(Constraint.range(0, 10)), invalid);
+    var loaded = createConfigs().get(0);
+    registry.register(unreadable);
+    registry.register(constrained);
+    registry.register(loaded);
+
+    var report = registry.loadAll().get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(3, report.getLoadTimes().size());
+    Assert.assertEquals(Set.of(unreadable, constrained), report.getFailures().keySet());
+    Assert.assertTrue(report.getFailures().get(unreadable) instanceof JsonParseException);
+    Assert.assertTrue(report.getFailures().get(constrained) instanceof ValidationException);
+    var error = Assert.assertThrows(ExecutionException.class,
+        () -> registry.getFuture(constrained).get());
+    Assert.assertSame(report.getFailures().get(constrained), error.getCause());
+    Assert.assertEquals(1, constrained.getItem("value").asNumber().getValue().intValue());
+    Assert.assertSame(loaded, registry.getFuture(loaded).get());
+  }
+
+  @Test
+  public void sameFile() throws Exception {
+    var registry = new ConfigRegistry(2, false);
+    var first = createConfigs().get(3);
+    var second = new Config(new ConfigNumber("value", -1), first.getFile());
+    registry.register(first);
+    registry.register(second);
+
+    var report = registry.loadAll().get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(2, report.getLoadTimes().size());
+    Assert.assertTrue(report.getLoadTimes().containsKey(first));
+    Assert.assertTrue(report.getLoadTimes().containsKey(second));
+    Assert.assertEquals(3, second.getItem("value").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void registerTwice() {
+    var registry = new ConfigRegistry();
+    var config = new Config(new File("registry.json"));
+    Assert.assertFalse(registry.isRegistered(config));
+    var future = registry.register(config);
+    Assert.assertSame(future, registry.register(config));
+    Assert.assertTrue(registry.isRegistered(config));
+    Assert.assertNull(registry.getFuture(new Config(new File("registry.json"))));
+  }
+
+  @Test
+  public void loadNothing() throws Exception {
+    var registry = new ConfigRegistry();
+    var report = registry.loadAll().get(10, TimeUnit.SECONDS);
+    Assert.assertTrue(report.getLoadTimes().isEmpty());
+  }
+
+  @Test
+  public void invalidParallelism() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new ConfigRegistry(0, false));
+  }
+}
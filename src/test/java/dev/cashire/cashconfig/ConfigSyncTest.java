@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ConfigSync}.
+ */
+public class ConfigSyncTest {
+  private static final File sender = new File("sync-sender.json");
+  private static final File receiver = new File("sync-receiver.json");
+
+  @AfterClass
+  public static void cleanup() {
+    sender.deleteOnExit();
+    receiver.deleteOnExit();
+  }
+
+  private static Config config(File file, int players) {
+    var ops = new ConfigList("ops");
+    for (int i = 0; i < players; i++) {
+      ops.addItem(new ConfigString("", "player" + i));
+    }
+    return new Config(new ConfigGroup("server", of(
+        new ConfigNumber("port", 25565),
+        new ConfigNumber("rate", 0.5),
+        new ConfigBoolean("whitelist", true),
+        ops)), file);
+  }
+
+  @Test
+  public void snapshotThenDeltas() {
+    var source = config(sender, 100);
+    var target = new Config(new ConfigGroup("server"), receiver);
+    var sync = new ConfigSync(source);
+    var replica = new ConfigSync(target);
+
+    var snapshot = sync.encode(replica.version());
+    Assert.assertTrue(replica.apply(snapshot));
+    Assert.assertEquals(source.fingerprint(), target.fingerprint());
+    Assert.assertEquals(source.toJson(), target.toJson());
+
+    source.getItem("server.port").asNumber().setValue(25566);
+    source.getItem("server.ops").asList().addItem(new ConfigString("", "admin"));
+    var delta = sync.encode(replica.version());
+    Assert.assertTrue(delta.length < snapshot.length / 10);
+    Assert.assertTrue(replica.apply(delta));
+    Assert.assertEquals(source.toJson(), target.toJson());
+    Assert.assertEquals(25566, target.getItem("server.port").asNumber().getValue().intValue());
+
+    var unchanged = sync.encode(replica.version());
+    Assert.assertTrue(unchanged.length < 32);
+    Assert.assertTrue(replica.apply(unchanged));
+  }
+
+  @Test
+  public void divergedReceiverGetsSnapshot() {
+    var source = config(sender, 3);
+    var target = config(receiver, 3);
+    var sync = new ConfigSync(source);
+    var replica = new ConfigSync(target);
+    Assert.assertEquals(source.fingerprint(), target.fingerprint());
+    var base = replica.version();
+    sync.encode(base);
+
+    source.getItem("server.whitelist").asBoolean().setValue(false);
+    var delta = sync.encode(base);
+    target.getItem("server.rate").asNumber().setValue(0.75);
+    Assert.assertFalse(replica.apply(delta));
+    Assert.assertTrue(target.getItem("server.whitelist").asBoolean().getValue());
+
+    var snapshot = sync.encode(replica.version());
+    Assert.assertTrue(replica.apply(snapshot));
+    Assert.assertEquals(source.toJson(), target.toJson());
+  }
+
+  @Test
+  public void keepsNumbersAsWritten() {
+    var source = config(sender, 0);
+    source.getItem("server").asGroup().addItem(new ConfigNumber("big", 
+        new BigDecimal("12345678901234567890.5")));
+    source.getItem("server").asGroup().addItem(new ConfigNumber("negative", -42));
+    var target = new Config(new ConfigGroup("server"), receiver);
+    Assert.assertTrue(new ConfigSync(target).apply(new ConfigSync(source).snapshot()));
+    Assert.assertEquals(source.fingerprint(), target.fingerprint());
+  }
+
+  @Test
+  public void rejectsMalformedMessages() {
+    var replica = new ConfigSync(config(receiver, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> replica.apply(new byte[0]));
+    Assert.assertThrows(IllegalArgumentException.class, () -> replica.apply(new byte[] {9}));
+    var snapshot = new ConfigSync(config(sender, 2)).snapshot();
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> replica.apply(Arrays.copyOf(snapshot, snapshot.length - 1)));
+  }
+
+  @Test
+  public void rejectsLongMessages() throws IOException {
+    var replica = new ConfigSync(config(receiver, 0));
+    // claims a message of 2 GB
+    var huge = new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+    Assert.assertThrows(IOException.class, () -> replica.read(new ByteArrayInputStream(huge)));
+
+    var sync = new ConfigSync(config(sender, 10));
+    var out = new ByteArrayOutputStream();
+    sync.write(out, 0);
+    replica.setMaxMessageSize(sync.snapshot().length - 1);
+    Assert.assertThrows(IOException.class, 
+        () -> replica.read(new ByteArrayInputStream(out.toByteArray())));
+    replica.setMaxMessageSize(sync.snapshot().length);
+    Assert.assertTrue(replica.read(new ByteArrayInputStream(out.toByteArray())));
+    Assert.assertThrows(IllegalArgumentException.class, () -> replica.setMaxMessageSize(0));
+  }
+
+  @Test
+  public void overPipes() throws Exception {
+    var source = config(sender, 10);
+    var target = new Config(new ConfigGroup("server"), receiver);
+    var sync = new ConfigSync(source);
+    var replica = new ConfigSync(target);
+    var toSender = new PipedOutputStream();
+    var senderIn = new DataInputStream(new PipedInputStream(toSender, 1 << 16));
+    var toReceiver = new PipedOutputStream();
+    var receiverIn = new PipedInputStream(toReceiver, 1 << 16);
+    var receiverOut = new DataOutputStream(toSender);
+
+    for (int round = 0; round < 3; round++) {
+      source.getItem("server.port").asNumber().setValue(1000 + round);
+      receiverOut.writeLong(replica.version());
+      sync.write(toReceiver, senderIn.readLong());
+      Assert.assertTrue(replica.read(receiverIn));
+      Assert.assertEquals(source.fingerprint(), target.fingerprint());
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.Constraint;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.items.ValidationException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link Constraint}.
+ */
+public class ConstraintTest {
+  private static final File file = new File("constraint.json");
+
+  @AfterClass
+  public static void cleanup() {
+    file.deleteOnExit();
+  }
+
+  @Test
+  public void numbers() {
+    var port = new ConfigNumber("port", 25565).constrain(Constraint.range(1, 65535));
+    port.setValue(80);
+    var e = Assert.assertThrows(ValidationException.class, () -> port.setValue(70000));
+    Assert.assertEquals("port", e.getPath());
+    Assert.assertEquals(80, port.getValue());
+    Assert.assertThrows(ValidationException.class, () -> port.fromJson(new JsonPrimitive(0.5)));
+    Assert.assertEquals(80, port.getValue());
+
+    var ratio = new ConfigNumber("ratio", 0.5).constrain(Constraint.min(0), Constraint.max(1.5));
+    ratio.setValue(1.5);
+    Assert.assertThrows(ValidationException.class, () -> ratio.setValue(1.5000001));
+    Assert.assertThrows(ValidationException.class, () -> ratio.setValue(Double.NaN));
+    Assert.assertThrows(IllegalArgumentException.class, () -> Constraint.range(2, 1));
+  }
+
+  @Test
+  public void strings() {
+    var name = new ConfigString("name", "abc")
+        .constrain(Constraint.pattern("[a-z]+"), Constraint.length(1, 5));
+    name.setValue("hello");
+    Assert.assertThrows(ValidationException.class, () -> name.setValue("Hello"));
+    Assert.assertThrows(ValidationException.class, () -> name.setValue("toolong"));
+    Assert.assertEquals(2, name.getConstraints().size());
+    Assert.assertThrows(ValidationException.class, 
+        () -> new ConfigString("mode", "x").constrain(Constraint.oneOf("a", "b")));
+  }
+
+  @Test
+  public void allowedNumbers() {
+    var level = new ConfigNumber("level", 1).constrain(Constraint.oneOf(1, 2, 3));
+    level.fromJson(new JsonParser().parse("2.0"));
+    Assert.assertThrows(ValidationException.class, () -> level.setValue(4));
+  }
+
+  @Test
+  public void listSize() {
+    var ops = new ConfigList("ops", of(), Type.STRING);
+    ops.constrain(Constraint.size(0, 2));
+    ops.addItem(new ConfigString("", "a"));
+    ops.addItem(new ConfigString("", "b"));
+    Assert.assertThrows(ValidationException.class, () -> ops.addItem(new ConfigString("", "c")));
+    Assert.assertEquals(2, ops.size());
+    Assert.assertThrows(ValidationException.class, 
+        () -> ops.fromJson(new JsonParser().parse("[\"a\",\"b\",\"c\"]")));
+    Assert.assertEquals(2, ops.size());
+  }
+
+  @Test
+  public void paths() {
+    var name = new ConfigString("name", "a").constrain(Constraint.length(1, 3));
+    var odd = new ConfigNumber("a.b", 1).constrain(Constraint.max(1));
+    new ConfigGroup("root", of(new ConfigGroup("server", of(
+        new ConfigList("users", of(new ConfigGroup("", of(name)), new ConfigGroup("", of())), 
+            Type.GROUP), odd))));
+    Assert.assertEquals("server.users[0].name", 
+        Assert.assertThrows(ValidationException.class, () -> name.setValue("")).getPath());
+    Assert.assertEquals("server[\"a.b\"]", 
+        Assert.assertThrows(ValidationException.class, () -> odd.setValue(2)).getPath());
+  }
+
+  @Test
+  public void invalidFileIsNotLoaded() throws IOException {
+    file.delete();
+    Files.writeString(file.toPath(), "{\"server\":{\"motd\":\"changed\",\"port\":0}}");
+    var config = new Config(new ConfigGroup("server", of(
+        new ConfigString("motd", "hello"),
+        new ConfigNumber("port", 25565).constrain(Constraint.range(1, 65535)))), file);
+    config.readFile();
+    Assert.assertEquals("hello", config.getItem("server.motd").getValue());
+    Assert.assertEquals(25565, config.getItem("server.port").getValue());
+
+    Assert.assertThrows(ValidationException.class, 
+        () -> config.batch(tx -> tx.setValue("server.motd", "x").setValue("server.port", -1)));
+    Assert.assertEquals("hello", config.getItem("server.motd").getValue());
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.diff.ConfigDiff;
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for content hashes and {@link Config#fingerprint()}.
+ */
+public class ContentHashTest {
+  private static final File first = new File("hash-first.json");
+  private static final File second = new File("hash-second.json");
+
+  @AfterClass
+  public static void cleanup() {
+    first.deleteOnExit();
+    second.deleteOnExit();
+  }
+
+  private static ConfigGroup server(int port, String... ops) {
+    var list = new ConfigList("ops");
+    for (var op : ops) {
+      list.addItem(new ConfigString("", op));
+    }
+    return new ConfigGroup("server", of(
+        new ConfigNumber("port", port),
+        new ConfigBoolean("whitelist", true),
+        list));
+  }
+
+  @Test
+  public void equalContentEqualHash() {
+    var server = server(25565, "a", "b");
+    Assert.assertEquals(server.contentHash(), server(25565, "a", "b").contentHash());
+    Assert.assertNotEquals(server.contentHash(), server(25565, "b", "a").contentHash());
+    Assert.assertNotEquals(server.contentHash(), server(25566, "a", "b").contentHash());
+    Assert.assertEquals(new ConfigNumber("a", 1).contentHash(), 
+        new ConfigNumber("b", 1).contentHash());
+    Assert.assertNotEquals(new ConfigString("", "1").contentHash(), 
+        new ConfigNumber("", 1).contentHash());
+
+    var reordered = new ConfigGroup("server", of(
+        server(25565, "a", "b").getItem("ops"),
+        new ConfigBoolean("whitelist", true),
+        new ConfigNumber("port", 25565)));
+    Assert.assertEquals(server.contentHash(), reordered.contentHash());
+  }
+
+  @Test
+  public void hashIsStable() {
+    // Nodes compare fingerprints, so the hash must not change between versions.
+    Assert.assertEquals(3352290672729609845L, server(25565, "a", "b").contentHash());
+  }
+
+  @Test
+  public void updatesAlongPath() {
+    var root = new ConfigGroup("root", of(server(25565, "a"), 
+        new ConfigGroup("world", of(new ConfigString("seed", "x")))));
+    var hash = root.contentHash();
+    var world = root.getItem("world").contentHash();
+    var op = root.getItem("server").asGroup().getItem("ops").asList().getItem(0).asString();
+
+    op.setValue("b");
+    Assert.assertNotEquals(hash, root.contentHash());
+    Assert.assertEquals(world, root.getItem("world").contentHash());
+    op.setValue("a");
+    Assert.assertEquals(hash, root.contentHash());
+
+    root.getItem("server").asGroup().removeItem("whitelist");
+    Assert.assertNotEquals(hash, root.contentHash());
+    root.getItem("server").asGroup().addItem(new ConfigBoolean("whitelist", true));
+    Assert.assertEquals(hash, root.contentHash());
+  }
+
+  @Test
+  public void locatesDifferences() {
+    var source = new ConfigGroup("root", of(server(25565, "a", "b", "c"), 
+        new ConfigString("motd", "hi")));
+    var target = new ConfigGroup("root", of(server(25566, "a", "x"), 
+        new ConfigNumber("motd", 1), new ConfigString("name", "x")));
+    Assert.assertEquals(List.of("/server/port", "/server/ops/1", "/server/ops/2", "/motd", 
+        "/name"), ConfigDiff.differences(source, target));
+    Assert.assertTrue(ConfigDiff.differences(source, source).isEmpty());
+  }
+
+  @Test
+  public void fingerprint() {
+    var config = new Config(server(25565, "a"), first);
+    var other = new Config(server(25565, "a"), second);
+    Assert.assertEquals(config.fingerprint(), other.fingerprint());
+    Assert.assertTrue(config.differences(other).isEmpty());
+
+    other.getItem("server.ops").asList().addItem(new ConfigString("", "b"));
+    Assert.assertNotEquals(config.fingerprint(), other.fingerprint());
+    Assert.assertEquals(List.of("/server/ops/1"), config.differences(other));
+  }
+}
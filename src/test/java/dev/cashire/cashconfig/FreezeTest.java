@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link Config#freeze()}.
+ */
+public class FreezeTest {
+  private File dir;
+  private File file;
+
+  @Before
+  public void createDir() throws IOException {
+    dir = Files.createTempDirectory("freeze").toFile();
+    file = new File(dir, "config.json");
+  }
+
+  @After
+  public void deleteDir() throws IOException {
+    try (var files = Files.walk(dir.toPath())) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  private static ConfigGroup wide(String key, int size) {
+    List<BaseConfigItem<?>> items = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      items.add(new ConfigNumber("key" + i, i));
+    }
+    return new ConfigGroup(key, items);
+  }
+
+  private Config config() {
+    var config = new Config(of(wide("wide", 100), new ConfigGroup("small", of(
+        new ConfigString("motd", "hello")))), file);
+    config.readFile();
+    return config;
+  }
+
+  @Test
+  public void lookups() throws IOException {
+    var config = config();
+    config.freeze();
+    Assert.assertTrue(config.isFrozen());
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i, config.getItem("wide.key" + i).asNumber().getValue().intValue());
+    }
+    Assert.assertFalse(config.hasItem("wide.key100"));
+    Assert.assertFalse(config.hasItem("wide.other"));
+    Assert.assertEquals("hello", config.getItem("small.motd").getValue());
+    Assert.assertEquals(100, config.getItem("wide").asGroup().size());
+    Assert.assertEquals(100, config.getItem("wide").asGroup().getValue().size());
+  }
+
+  @Test
+  public void rejectsChanges() throws IOException {
+    var config = config();
+    config.freeze();
+    var motd = config.getItem("small.motd");
+    Assert.assertThrows(UnsupportedOperationException.class, 
+        () -> motd.asString().setValue("bye"));
+    Assert.assertThrows(IllegalStateException.class, 
+        () -> config.setItem("small", new ConfigString("motd", "bye")));
+    Assert.assertThrows(IllegalStateException.class, 
+        () -> config.batch(tx -> tx.setValue("small.motd", "bye")));
+    Assert.assertThrows(IllegalStateException.class, () -> config.readFile());
+    Assert.assertEquals("hello", motd.getValue());
+    config.saveFile();
+  }
+
+  @Test
+  public void unfreeze() throws IOException {
+    var config = config();
+    config.freeze();
+    config.unfreeze();
+    Assert.assertFalse(config.isFrozen());
+    var wide = config.getItem("wide").asGroup();
+    Assert.assertTrue(wide.addItem(new ConfigNumber("key100", 100)));
+    Assert.assertNotNull(wide.removeItem("key0"));
+    config.batch(tx -> tx.setValue("wide.key5", 50));
+    config.readFile();
+    Assert.assertEquals(50, config.getItem("wide.key5").asNumber().getValue().intValue());
+    Assert.assertEquals(100, config.getItem("wide.key100").asNumber().getValue().intValue());
+    Assert.assertFalse(config.hasItem("wide.key0"));
+  }
+
+  @Test
+  public void equalHashCodes() {
+    // "Aa" and "BB" have the same hash code, so no perfect hash exists for them
+    List<BaseConfigItem<?>> items = new ArrayList<>();
+    items.add(new ConfigString("Aa", "a"));
+    items.add(new ConfigString("BB", "b"));
+    for (int i = 0; i < 10; i++) {
+      items.add(new ConfigNumber("key" + i, i));
+    }
+    var group = new ConfigGroup("", items);
+    group.freeze();
+    Assert.assertEquals("a", group.getItem("Aa").getValue());
+    Assert.assertEquals("b", group.getItem("BB").getValue());
+    Assert.assertEquals(9, group.getItem("key9").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void sharedDefaultsStayFrozen() {
+    var defaults = new ConfigDefaults(of(wide("wide", 20)));
+    var config = new Config(defaults, new File("unused.json"));
+    config.freeze();
+    config.unfreeze();
+    Assert.assertTrue(defaults.getItem("wide.key3").isFrozen());
+    Assert.assertEquals(3, config.getItem("wide.key3").asNumber().getValue().intValue());
+  }
+}
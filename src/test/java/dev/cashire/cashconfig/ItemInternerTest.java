@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.items.ItemInterner;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ItemInterner} and structural hashes.
+ */
+public class ItemInternerTest {
+  private static ConfigGroup biome(String name) {
+    return new ConfigGroup(name, of(
+        new ConfigNumber(new String("temperature"), 0.8),
+        new ConfigString(new String("grass"), new String("green")),
+        new ConfigList(new String("mobs"), new ConfigString("", new String("cow")))));
+  }
+
+  @Test
+  public void comparesStructure() {
+    var plains = biome("plains");
+    var forest = biome("forest");
+    Assert.assertNotSame(plains, forest);
+    Assert.assertNotEquals(plains, forest);
+    Assert.assertTrue(plains.structurallyEquals(forest));
+    Assert.assertEquals(plains.structuralHash(), forest.structuralHash());
+
+    forest.getItem("mobs").asList().getItem(0).asString().setValue("wolf");
+    Assert.assertFalse(plains.structurallyEquals(forest));
+    forest.getItem("mobs").asList().getItem(0).asString().setValue("cow");
+    Assert.assertTrue(plains.structurallyEquals(forest));
+
+    forest.getItem("temperature").asNumber().setValue(1);
+    Assert.assertFalse(plains.structurallyEquals(forest));
+    Assert.assertFalse(plains.structurallyEquals(new ConfigGroup("plains")));
+  }
+
+  @Test
+  public void noticesLoadedValues() {
+    var plains = biome("plains");
+    var hash = plains.structuralHash();
+    plains.fromJson(new JsonParser().parse("{\"grass\":\"brown\"}"));
+    Assert.assertNotEquals(hash, plains.structuralHash());
+    Assert.assertFalse(plains.structurallyEquals(biome("other")));
+  }
+
+  @Test
+  public void sharesKeysAndValues() {
+    var root = new ConfigGroup("root", of(biome("plains"), biome("forest"), biome("desert")));
+    var desert = root.getItem("desert").asGroup();
+    desert.getItem("grass").asString().setValue(new String("green"));
+    desert.getItem("temperature").asNumber().setValue(2.0);
+    var json = json(root);
+
+    new ItemInterner().intern(root);
+    var plains = root.getItem("plains").asGroup();
+    var forest = root.getItem("forest").asGroup();
+    Assert.assertSame(plains.getItem("grass").getValue(), forest.getItem("grass").getValue());
+    Assert.assertSame(plains.getItem("grass").getKey(), forest.getItem("grass").getKey());
+    Assert.assertSame(plains.getItem("grass").getValue(), desert.getItem("grass").getValue());
+    Assert.assertSame(plains.getItem("mobs").asList().getItem(0).getValue(),
+        forest.getItem("mobs").asList().getItem(0).getValue());
+    Assert.assertSame(plains.getItem("grass").getKey(), desert.getItem("grass").getKey());
+    Assert.assertNotSame(plains.getItem("grass"), forest.getItem("grass"));
+    Assert.assertEquals(json, json(root));
+    Assert.assertSame(plains.getItem("grass"), plains.getItem(new String("grass")));
+
+    forest.getItem("grass").asString().setValue("dark");
+    Assert.assertEquals("green", plains.getItem("grass").getValue());
+  }
+
+  @Test
+  public void deduplicatesConfig() {
+    var config = new Config(of(biome("plains"), biome("forest")), "interned.json");
+    config.deduplicate();
+    Assert.assertSame(config.getItem("plains.grass").getValue(),
+        config.getItem("forest.grass").getValue());
+  }
+
+  private static String json(ConfigGroup group) {
+    var object = new JsonObject();
+    group.toJson(object);
+    return object.toString();
+  }
+}
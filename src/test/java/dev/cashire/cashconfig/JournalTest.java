@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link Config#enableJournal(int)}.
+ */
+public class JournalTest {
+  private static final File file = new File("journaled.json");
+  private static final File journal = new File("journaled.json.journal");
+
+  @AfterClass
+  public static void cleanup() {
+    file.deleteOnExit();
+    journal.deleteOnExit();
+  }
+
+  private static Config config(boolean fresh, int maxRecords) {
+    if (fresh) {
+      file.delete();
+      journal.delete();
+    }
+    var config = new Config(new ConfigGroup("server", of(
+        new ConfigNumber("port", 25565),
+        new ConfigString("motd", "hello"),
+        new ConfigList("ops", new ConfigString("", "admin")))), file);
+    config.enableJournal(maxRecords);
+    config.readFile();
+    return config;
+  }
+
+  private static int records() throws IOException {
+    return Files.readAllLines(journal.toPath()).size();
+  }
+
+  @Test
+  public void appendsInsteadOfRewriting() throws IOException {
+    var config = config(true, 100);
+    var saved = Files.readAllBytes(file.toPath());
+    Assert.assertTrue(config.isJournaled());
+
+    config.getItem("server.port").asNumber().setValue(1);
+    config.getItem("server.ops").asList().addItem(new ConfigString("", "notch"));
+    config.getItem("server.ops").asList().removeItem(0);
+    config.removeItem("server.motd");
+
+    Assert.assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+    Assert.assertEquals(4, records());
+
+    var loaded = config(false, 100);
+    Assert.assertEquals(1, loaded.getItem("server.port").asNumber().getValue().intValue());
+    Assert.assertFalse(loaded.hasItem("server.motd"));
+    var ops = loaded.getItem("server.ops").asList();
+    Assert.assertEquals(1, ops.size());
+    Assert.assertEquals("notch", ops.getItem(0).getValue());
+  }
+
+  @Test
+  public void recordsInsertions() throws IOException {
+    var config = config(true, 100);
+    config.getItem("server.ops").asList().addItem(0, new ConfigString("", "jeb"));
+    Assert.assertEquals(1, records());
+
+    var ops = config(false, 100).getItem("server.ops").asList();
+    Assert.assertEquals(2, ops.size());
+    Assert.assertEquals("jeb", ops.getItem(0).getValue());
+    Assert.assertEquals("admin", ops.getItem(1).getValue());
+  }
+
+  @Test
+  public void compactsWhenFull() throws IOException {
+    var config = config(true, 3);
+    var port = config.getItem("server.port").asNumber();
+    port.setValue(1);
+    port.setValue(2);
+    Assert.assertEquals(2, records());
+    port.setValue(3);
+    Assert.assertEquals(0, records());
+
+    var loaded = config(false, 3);
+    Assert.assertEquals(3, loaded.getItem("server.port").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void saveFileCompacts() throws IOException {
+    var config = config(true, 100);
+    config.setItem("server", new ConfigString("name", "test"));
+    Assert.assertEquals(1, records());
+    config.saveFile();
+    Assert.assertEquals(0, records());
+    Assert.assertEquals("test", config(false, 100).getItem("server.name").getValue());
+  }
+
+  @Test
+  public void ignoresTornRecord() throws IOException {
+    var config = config(true, 100);
+    config.getItem("server.motd").asString().setValue("bye");
+    Files.write(journal.toPath(), "{\"op\":\"set\",\"pa".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    var loaded = config(false, 100);
+    Assert.assertEquals("bye", loaded.getItem("server.motd").getValue());
+  }
+
+  @Test
+  public void skipsCompactedRecords() throws IOException {
+    var config = config(true, 100);
+    config.getItem("server.ops").asList().removeItem(0);
+    var removal = Files.readAllLines(journal.toPath()).get(0);
+    config.getItem("server.ops").asList().addItem(new ConfigString("", "notch"));
+    config.saveFile();
+
+    // crash after the file was replaced but before the journal was emptied
+    var bytes = Files.readAllBytes(file.toPath());
+    var crc = new CRC32();
+    crc.update(bytes);
+    Files.write(journal.toPath(), of(removal, "{\"op\":\"compact\",\"crc\":" + crc.getValue()
+        + ",\"length\":" + bytes.length + "}"));
+
+    var ops = config(false, 100).getItem("server.ops").asList();
+    Assert.assertEquals(1, ops.size());
+    Assert.assertEquals("notch", ops.getItem(0).getValue());
+  }
+
+  @Test
+  public void batchWritesOnCommit() throws IOException {
+    var config = config(true, 100);
+    var saved = Files.readAllBytes(file.toPath());
+    config.batch(tx -> tx
+        .setValue("server.port", 2)
+        .setValue("server.motd", "batched"));
+    Assert.assertEquals(2, records());
+    Assert.assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+
+    Assert.assertThrows(IllegalArgumentException.class, () -> config.batch(tx -> tx
+        .setValue("server.port", 3)
+        .removeItem("server.missing")));
+    Assert.assertEquals(2, records());
+
+    var loaded = config(false, 100);
+    Assert.assertEquals(2, loaded.getItem("server.port").asNumber().getValue().intValue());
+    Assert.assertEquals("batched", loaded.getItem("server.motd").getValue());
+  }
+
+  @Test
+  public void disableCompactsAndDeletes() {
+    var config = config(true, 100);
+    config.getItem("server.port").asNumber().setValue(7);
+    config.disableJournal();
+    Assert.assertFalse(config.isJournaled());
+    Assert.assertFalse(journal.exists());
+
+    var loaded = new Config(file);
+    loaded.readFile();
+    Assert.assertEquals(7, loaded.getItem("server.port").asNumber().getValue().intValue());
+  }
+}
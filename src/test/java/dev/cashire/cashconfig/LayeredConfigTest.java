@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link LayeredConfig}.
+ */
+public class LayeredConfigTest {
+  private static Config defaults() {
+    return new Config(new ConfigGroup("server", of(
+        new ConfigNumber("port", 25565),
+        new ConfigString("motd", "hello"),
+        new ConfigList("ops", new ConfigString("", "admin")))), "layer-defaults.json");
+  }
+
+  private static Config world() {
+    return new Config(new ConfigGroup("server", of(
+        new ConfigNumber("port", 25566))), "layer-world.json");
+  }
+
+  @Test
+  public void resolvesFromHighestLayer() {
+    var defaults = defaults();
+    var world = world();
+    var layered = new LayeredConfig(defaults, world);
+
+    Assert.assertSame(world.getItem("server.port"), layered.getItem("server.port"));
+    Assert.assertSame(world, layered.getLayer("server.port"));
+    Assert.assertSame(defaults.getItem("server.motd"), layered.getItem("server.motd"));
+    Assert.assertSame(defaults, layered.getLayer("server.motd"));
+    Assert.assertNull(layered.getItem("server.missing"));
+    Assert.assertFalse(layered.hasItem("missing.port"));
+  }
+
+  @Test
+  public void invalidatesWhenLayerChanges() {
+    var defaults = defaults();
+    var world = world();
+    var layered = new LayeredConfig(defaults, world);
+    Assert.assertSame(defaults, layered.getLayer("server.motd"));
+
+    var motd = new ConfigString("motd", "world");
+    world.addItem("server", motd);
+    Assert.assertSame(motd, layered.getItem("server.motd"));
+
+    world.removeItem("server.motd");
+    Assert.assertSame(defaults.getItem("server.motd"), layered.getItem("server.motd"));
+
+    var top = new Config(new ConfigGroup("server", of(new ConfigString("motd", "top"))),
+        "layer-top.json");
+    layered.addLayer(top);
+    Assert.assertSame(top, layered.getLayer("server.motd"));
+    Assert.assertTrue(layered.removeLayer(top));
+    Assert.assertSame(defaults, layered.getLayer("server.motd"));
+
+    layered.close();
+    world.addItem("server", motd);
+    Assert.assertSame(motd, layered.getItem("server.motd"));
+  }
+
+  @Test
+  public void flattensLayers() {
+    var layered = new LayeredConfig(defaults(), world());
+    var flat = layered.flatten(new File("layer-flat.json"));
+
+    Assert.assertEquals(25566, flat.getItem("server.port").asNumber().getValue().intValue());
+    Assert.assertEquals("hello", flat.getItem("server.motd").asString().getValue());
+    Assert.assertEquals(1, flat.getItem("server.ops").asList().getValue().size());
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.NoSuchElementException;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ListReader} and {@link ListWriter}.
+ */
+public class ListStreamTest {
+  private static final File file = new File("stream.json");
+  private static final File gzip = new File("stream.json.gz");
+
+  @AfterClass
+  public static void cleanup() {
+    file.deleteOnExit();
+    gzip.deleteOnExit();
+  }
+
+  private static Config config(File file) {
+    file.delete();
+    var config = new Config(of(
+        new ConfigNumber("version", 2),
+        new ConfigGroup("world", of(
+            new ConfigString("name", "overworld"),
+            new ConfigList("blocks", of(), Type.GROUP)))), file);
+    config.readFile();
+    return config;
+  }
+
+  @Test
+  public void writeAndRead() throws IOException {
+    var config = config(file);
+    try (var writer = config.writeList("world.blocks")) {
+      for (int i = 0; i < 10_000; i++) {
+        writer.add(new ConfigGroup("", of(new ConfigNumber("x", i), new ConfigNumber("y", -i))));
+      }
+      Assert.assertEquals(10_000, writer.size());
+    }
+
+    try (var reader = config.streamList("world.blocks")) {
+      long sum = 0;
+      while (reader.hasNext()) {
+        Assert.assertEquals(Type.GROUP, reader.peekType());
+        var block = reader.next().asGroup();
+        sum += block.getItem("x").asNumber().getValue().longValue();
+      }
+      Assert.assertEquals(10_000, reader.getIndex());
+      Assert.assertEquals(49_995_000L, sum);
+      Assert.assertThrows(NoSuchElementException.class, reader::next);
+    }
+
+    var loaded = new Config(file);
+    loaded.readFile();
+    Assert.assertEquals("overworld", loaded.getItem("world.name").getValue());
+    Assert.assertEquals(2, loaded.getItem("version").asNumber().getValue().intValue());
+    Assert.assertEquals(10_000, loaded.getItem("world.blocks").asList().size());
+  }
+
+  @Test
+  public void primitives() throws IOException {
+    var config = config(gzip);
+    try (var writer = config.writeList("world.heights")) {
+      for (int i = 0; i < 1000; i++) {
+        writer.add(i);
+      }
+      Assert.assertThrows(IllegalArgumentException.class, () -> writer.add("text"));
+    }
+    try (var reader = config.streamList("world.heights")) {
+      reader.skip();
+      Assert.assertEquals(1, reader.nextLong());
+      Assert.assertEquals(2.0, reader.nextDouble(), 0);
+      Assert.assertEquals("3", reader.nextString());
+      Assert.assertEquals(4, reader.getIndex());
+    }
+  }
+
+  @Test
+  public void discard() throws IOException {
+    var config = config(file);
+    var saved = Files.readAllBytes(file.toPath());
+    var writer = config.writeList("world.blocks");
+    writer.add(new ConfigGroup("", of(new ConfigNumber("x", 1))));
+    writer.discard();
+    Assert.assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+    Assert.assertFalse(new File("stream.json.tmp").exists());
+  }
+
+  @Test
+  public void invalidPaths() throws IOException {
+    var config = config(file);
+    Assert.assertThrows(IllegalArgumentException.class, () -> config.streamList("world.name"));
+    Assert.assertThrows(IllegalArgumentException.class, () -> config.streamList("missing"));
+    Assert.assertThrows(IllegalArgumentException.class, () -> config.writeList("version.x"));
+    Assert.assertThrows(IllegalArgumentException.class, () -> config.writeList("world.name"));
+  }
+}
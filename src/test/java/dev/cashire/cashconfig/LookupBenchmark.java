@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares lookups in a config before and after {@link Config#freeze()}, for groups of
+ * different sizes. Run with the amount of lookups per round as argument, e.g. {@code 10000000}.
+ */
+public final class LookupBenchmark {
+  private static final int ROUNDS = 5;
+  private static final int[] SIZES = {4, 16, 64, 256};
+
+  private LookupBenchmark() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    var file = File.createTempFile("benchmark", ".json");
+    file.deleteOnExit();
+    System.out.printf("%6s %14s %14s %14s %14s%n", "size", 
+        "group ns", "frozen ns", "config ns", "frozen ns");
+    for (int size : SIZES) {
+      List<BaseConfigItem<?>> items = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        items.add(new ConfigNumber("setting-" + i, i));
+      }
+      var config = new Config(of(new ConfigGroup("group", items)), file);
+      var group = config.getItem("group").asGroup();
+      var keys = new String[size];
+      var paths = new String[size];
+      for (int i = 0; i < size; i++) {
+        // new strings, so lookups can't compare references
+        keys[i] = new String("setting-" + i);
+        paths[i] = "group." + keys[i];
+      }
+      double groupTime = groupLookups(group, keys, lookups);
+      double configTime = configLookups(config, paths, lookups / 10);
+      config.freeze();
+      double frozenGroupTime = groupLookups(group, keys, lookups);
+      double frozenConfigTime = configLookups(config, paths, lookups / 10);
+      System.out.printf("%6d %14.1f %14.1f %14.1f %14.1f%n", size, 
+          groupTime, frozenGroupTime, configTime, frozenConfigTime);
+    }
+  }
+
+  private static double groupLookups(ConfigGroup group, String[] keys, int lookups) {
+    long best = Long.MAX_VALUE;
+    long sum = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < lookups; i++) {
+        sum += group.getItem(keys[i % keys.length]).hashCode();
+      }
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    consume(sum);
+    return (double) best / lookups;
+  }
+
+  private static double configLookups(Config config, String[] paths, int lookups) {
+    long best = Long.MAX_VALUE;
+    long sum = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < lookups; i++) {
+        sum += config.getItem(paths[i % paths.length]).hashCode();
+      }
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    consume(sum);
+    return (double) best / lookups;
+  }
+
+  private static void consume(long value) {
+    if (value == 42) {
+      System.out.println();
+    }
+  }
+}
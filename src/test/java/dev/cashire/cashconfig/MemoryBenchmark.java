@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.items.StringPool;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained by config trees made of small groups, and by a list of strings
+ * before and after packing it into a {@link StringPool}.
+ * Run with the amount of trees as argument, e.g. {@code 20000}.
+ */
+public final class MemoryBenchmark {
+
+  private MemoryBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    int trees = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    long before = used();
+    var retained = new ArrayList<ConfigGroup>(trees);
+    for (int i = 0; i < trees; i++) {
+      retained.add(tree(i));
+    }
+    long after = used();
+    int groups = count(retained.get(0));
+    System.out.printf("%d trees, %d groups each%n", trees, groups);
+    System.out.printf("%12s %12s%n", "bytes/tree", "bytes/group");
+    double perTree = (double) (after - before) / trees;
+    System.out.printf("%12.0f %12.1f%n", perTree, perTree / groups);
+    // keep the trees reachable until they were measured
+    System.out.println(retained.size() == trees ? "" : "?");
+    strings(trees * 10);
+  }
+
+  /**
+   * A list of ids where every id appears about ten times, like item ids in a loot table.
+   */
+  private static void strings(int values) {
+    long before = used();
+    var list = new ConfigList("ids", null, BaseConfigItem.Type.STRING);
+    for (int i = 0; i < values; i++) {
+      list.addItem(new ConfigString("", "minecraft:block." + (i * 7919 % (values / 10))));
+    }
+    long plain = used();
+    var pool = new StringPool();
+    pool.pack(list);
+    long packed = used();
+    System.out.printf("%d strings, %d distinct%n", values, pool.size());
+    System.out.printf("%12s %12s%n", "plain b/str", "packed b/str");
+    System.out.printf("%12.1f %12.1f%n", 
+        (double) (plain - before) / values, (double) (packed - before) / values);
+    System.out.println(list.size() == values ? "" : "?");
+  }
+
+  /**
+   * A player config: a few settings groups and a list of homes.
+   */
+  private static ConfigGroup tree(int seed) {
+    List<BaseConfigItem<?>> homes = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      homes.add(new ConfigGroup("", of(
+          new ConfigString("name", "home-" + i),
+          new ConfigNumber("x", seed + i),
+          new ConfigNumber("y", 64),
+          new ConfigNumber("z", -seed - i))));
+    }
+    return new ConfigGroup("root", of(
+        new ConfigGroup("chat", of(
+            new ConfigBoolean("enabled", true),
+            new ConfigString("prefix", "[" + seed + "]"),
+            new ConfigNumber("radius", 100))),
+        new ConfigGroup("movement", of(
+            new ConfigNumber("speed", 1.5),
+            new ConfigBoolean("fly", false))),
+        new ConfigList("homes", homes, BaseConfigItem.Type.GROUP)));
+  }
+
+  private static int count(BaseConfigItem<?> item) {
+    int groups = 0;
+    if (item.isGroup()) {
+      groups++;
+      for (var child : item.asGroup()) {
+        groups += count(child);
+      }
+    } else if (item.isList()) {
+      for (var child : item.asList()) {
+        groups += count(child);
+      }
+    }
+    return groups;
+  }
+
+  private static long used() {
+    var runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.items.ParallelCodec;
+
+/**
+ * Compares serializing and loading a large list with {@link ParallelCodec} against the
+ * sequential path. Run with the amount of list elements as argument, e.g. {@code 200000}.
+ */
+public final class ParallelBenchmark {
+  private static final int ROUNDS = 5;
+  private static final int THRESHOLD = 512;
+
+  private ParallelBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    var list = list(size);
+    var codec = new ParallelCodec(THRESHOLD);
+    var json = codec.toJson(list);
+    System.out.printf("%d elements, %d threads%n", size, 
+        Runtime.getRuntime().availableProcessors());
+    System.out.printf("%10s %14s %14s%n", "", "sequential ms", "parallel ms");
+    System.out.printf("%10s %14.1f %14.1f%n", "toJson", 
+        time(() -> encode(list)), time(() -> codec.toJson(list)));
+    System.out.printf("%10s %14.1f %14.1f%n", "fromJson", 
+        time(() -> new ConfigList("entries").fromJson(json)), 
+        time(() -> codec.fromJson(new ConfigList("entries"), json)));
+    // loads into the existing elements
+    System.out.printf("%10s %14.1f %14.1f%n", "reload", 
+        time(() -> list.fromJson(json)), time(() -> codec.fromJson(list, json)));
+  }
+
+  private static ConfigList list(int size) {
+    var entries = new ConfigList("entries");
+    for (int i = 0; i < size; i++) {
+      entries.addItem(new ConfigGroup("", of(
+          new ConfigString("name", "entry" + i),
+          new ConfigNumber("weight", i * 0.5),
+          new ConfigBoolean("enabled", i % 2 == 0),
+          new ConfigList("tags", new ConfigString("", "tag" + i)))));
+    }
+    return entries;
+  }
+
+  private static JsonElement encode(BaseConfigItem<?> item) {
+    var holder = new JsonArray();
+    item.toJson(holder);
+    return holder.get(0);
+  }
+
+  private static double time(Runnable task) {
+    // warm up
+    task.run();
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      task.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best / 1e6;
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.items.ParallelCodec;
+import java.io.File;
+import java.util.ArrayList;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link ParallelCodec}.
+ */
+public class ParallelCodecTest {
+  private static final File file = new File("parallel.json");
+
+  @AfterClass
+  public static void cleanup() {
+    file.deleteOnExit();
+  }
+
+  private static ConfigGroup largeTree() {
+    var entries = new ConfigList("entries");
+    for (int i = 0; i < 500; i++) {
+      entries.addItem(new ConfigGroup("", of(
+          new ConfigString("name", "entry" + i),
+          new ConfigNumber("weight", i * 0.5),
+          new ConfigBoolean("enabled", i % 2 == 0),
+          new ConfigList("tags", of(new ConfigString("", "tag" + i), new ConfigString()), Type.STRING))));
+    }
+    var wide = new ArrayList<BaseConfigItem<?>>();
+    for (int i = 0; i < 300; i++) {
+      wide.add(new ConfigNumber("key" + i, i));
+    }
+    return new ConfigGroup("root", of(entries, new ConfigGroup("wide", wide)));
+  }
+
+  private static String sequential(BaseConfigItem<?> item) {
+    var arr = new JsonArray();
+    item.toJson(arr);
+    return new GsonBuilder().create().toJson(arr.get(0));
+  }
+
+  @Test
+  public void toJsonMatchesSequential() {
+    var tree = largeTree();
+    var codec = new ParallelCodec(16);
+    var json = new GsonBuilder().create().toJson(codec.toJson(tree));
+    Assert.assertEquals(sequential(tree), json);
+  }
+
+  @Test
+  public void fromJsonMatchesSequential() {
+    var codec = new ParallelCodec(16);
+    var element = codec.toJson(largeTree());
+
+    var expected = new ConfigGroup("root");
+    expected.fromJson(element);
+    var actual = new ConfigGroup("root");
+    codec.fromJson(actual, element);
+    Assert.assertEquals(sequential(expected), sequential(actual));
+    Assert.assertEquals(500, actual.getItem("entries").asList().size());
+    Assert.assertEquals(Type.GROUP, actual.getItem("entries").asList().getSubType());
+  }
+
+  @Test
+  public void fromJsonKeepsTypedList() {
+    var arr = new JsonArray();
+    for (int i = 0; i < 64; i++) {
+      arr.add(i);
+      arr.add("skipped");
+    }
+    var list = new ConfigList("", null, Type.NUMBER);
+    new ParallelCodec(4).fromJson(list, arr);
+    Assert.assertEquals(64, list.size());
+  }
+
+  @Test
+  public void fromJsonReusesListElements() {
+    var codec = new ParallelCodec(16);
+    var tree = largeTree();
+    var entries = tree.getItem("entries").asList();
+    var first = entries.getItem(0);
+    var last = entries.getItem(499);
+    var element = codec.toJson(largeTree()).getAsJsonObject();
+    element.getAsJsonArray("entries").get(0).getAsJsonObject().addProperty("name", "renamed");
+
+    codec.fromJson(tree, element);
+    Assert.assertSame(first, entries.getItem(0));
+    Assert.assertSame(last, entries.getItem(499));
+    Assert.assertEquals("renamed", first.asGroup().getItem("name").getValue());
+    Assert.assertEquals(sequential(tree), new GsonBuilder().create().toJson(element));
+  }
+
+  @Test
+  public void fromJsonRestoresReusedElements() {
+    var codec = new ParallelCodec(16);
+    var entries = largeTree().getItem("entries").asList();
+    entries.addIndex("name", true);
+    var element = codec.toJson(entries).getAsJsonArray();
+    element.get(0).getAsJsonObject().addProperty("name", "changed");
+    element.get(400).getAsJsonObject().addProperty("name", "changed");
+
+    Assert.assertThrows(IllegalArgumentException.class, () -> codec.fromJson(entries, element));
+    Assert.assertEquals("entry0", entries.getItem(0).asGroup().getItem("name").getValue());
+    Assert.assertEquals("entry400", entries.getItem(400).asGroup().getItem("name").getValue());
+  }
+
+  @Test
+  public void configRoundTrip() {
+    var config = new Config(largeTree().getValue(), file);
+    config.setParallelThreshold(8);
+    Assert.assertEquals(8, config.getParallelThreshold());
+    config.saveFile();
+
+    var loaded = new Config(file);
+    loaded.setParallelThreshold(8);
+    loaded.readFile();
+    Assert.assertEquals(500, loaded.getItem("entries").asList().size());
+    Assert.assertEquals("entry7", loaded.getItem("entries").asList().getItem(7)
+        .asGroup().getItem("name").getValue());
+    Assert.assertEquals(300, loaded.getItem("wide").asGroup().size());
+    loaded.setParallelThreshold(0);
+    Assert.assertEquals(0, loaded.getParallelThreshold());
+  }
+
+  @Test
+  public void invalidThreshold() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new ParallelCodec(1));
+  }
+}
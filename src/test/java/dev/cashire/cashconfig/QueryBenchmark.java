@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.query.ConfigQuery;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compares {@link ConfigQuery} cursors with hand-written traversals of the same tree.
+ * Run with the amount of worlds as argument, e.g. {@code 10000}.
+ */
+public final class QueryBenchmark {
+  private static final int ROUNDS = 20;
+
+  private QueryBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    var root = tree(size);
+    var spawns = ConfigQuery.compile("worlds[*].spawn.x");
+    var names = ConfigQuery.compile("..name");
+    var last = ConfigQuery.compile("worlds[-1].name");
+    var spawnCursor = spawns.cursor(root);
+    var nameCursor = names.cursor(root);
+    var lastCursor = last.cursor(root);
+
+    System.out.printf("%d worlds%n", size);
+    System.out.printf("%18s %12s %12s %10s%n", "query", "cursor ns", "by hand ns", "results");
+    print(spawns, size, root, group -> {
+      long sum = 0;
+      spawnCursor.reset(group);
+      while (spawnCursor.next()) {
+        sum += spawnCursor.get().asNumber().getValue().longValue();
+      }
+      return sum;
+    }, group -> {
+      long sum = 0;
+      for (var world : group.asGroup().getItem("worlds").asList()) {
+        var spawn = world.asGroup().getItem("spawn");
+        sum += spawn.asGroup().getItem("x").asNumber().getValue().longValue();
+      }
+      return sum;
+    });
+    print(names, 2 * size, root, group -> {
+      long count = 0;
+      nameCursor.reset(group);
+      while (nameCursor.next()) {
+        count += nameCursor.get().hashCode() & 1;
+      }
+      return count;
+    }, QueryBenchmark::countNames);
+    print(last, 1, root, group -> {
+      lastCursor.reset(group);
+      lastCursor.next();
+      return lastCursor.get().hashCode();
+    }, group -> {
+      var worlds = group.asGroup().getItem("worlds").asList();
+      return worlds.getItem(worlds.size() - 1).asGroup().getItem("name").hashCode();
+    });
+  }
+
+  private static ConfigGroup tree(int size) {
+    var worlds = new ConfigList("worlds");
+    for (int i = 0; i < size; i++) {
+      worlds.addItem(new ConfigGroup("", of(
+          new ConfigString("name", "world" + i),
+          new ConfigGroup("spawn", of(
+              new ConfigNumber("x", i), new ConfigNumber("y", 64), new ConfigNumber("z", -i))),
+          new ConfigGroup("owner", of(new ConfigString("name", "player" + i))))));
+    }
+    return new ConfigGroup("root", of(worlds));
+  }
+
+  /**
+   * Same as {@code ..name}: every item called name at any depth.
+   */
+  private static long countNames(BaseConfigItem<?> item) {
+    long count = 0;
+    if (item.isGroup()) {
+      for (var child : item.asGroup()) {
+        if ("name".equals(child.getKey())) {
+          count += child.hashCode() & 1;
+        }
+        count += countNames(child);
+      }
+    } else if (item.isList()) {
+      for (var child : item.asList()) {
+        count += countNames(child);
+      }
+    }
+    return count;
+  }
+
+  private static void print(ConfigQuery query, int results, ConfigGroup root, 
+      ToLongFunction<ConfigGroup> cursor, ToLongFunction<ConfigGroup> byHand) {
+    double cursorTime = time(root, cursor);
+    double handTime = time(root, byHand);
+    System.out.printf("%18s %12.1f %12.1f %10d%n", query, cursorTime / results, 
+        handTime / results, results);
+  }
+
+  private static double time(ConfigGroup root, ToLongFunction<ConfigGroup> task) {
+    long best = Long.MAX_VALUE;
+    long sum = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      sum += task.applyAsLong(root);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    consume(sum);
+    return best;
+  }
+
+  private static void consume(long value) {
+    if (value == 42) {
+      System.out.println();
+    }
+  }
+}
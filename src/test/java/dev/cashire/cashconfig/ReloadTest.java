@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+import static dev.cashire.cashconfig.Warps.warps;
+
+import com.google.gson.JsonParser;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.items.Constraint;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Junit Test for reloading lists in place.
+ */
+public class ReloadTest {
+  private File dir;
+  private File file;
+
+  @Before
+  public void createDir() throws IOException {
+    dir = Files.createTempDirectory("reload").toFile();
+    file = new File(dir, "config.json");
+  }
+
+  @After
+  public void deleteDir() throws IOException {
+    try (var files = Files.walk(dir.toPath())) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  private static void load(ConfigList list, String json) {
+    list.fromJson(new JsonParser().parse(json));
+  }
+
+  @Test
+  public void reusesElements() {
+    var list = warps();
+    var spawn = list.getItem(0).asGroup();
+    var spawnName = spawn.getItem("name");
+    load(list, "[{\"name\":\"home\",\"x\":1},{\"name\":\"mine\",\"x\":10},"
+        + "{\"name\":\"end\",\"x\":20}]");
+    Assert.assertEquals(3, list.size());
+    Assert.assertSame(spawn, list.getItem(0));
+    Assert.assertSame(spawnName, spawn.getItem("name"));
+    Assert.assertEquals("home", spawnName.getValue());
+    Assert.assertSame(list, spawn.getParent());
+    Assert.assertEquals("end", list.column("name").get(2).getValue());
+  }
+
+  @Test
+  public void removesVanished() {
+    var list = warps();
+    var mine = list.getItem(1);
+    load(list, "[{\"name\":\"spawn\"}]");
+    Assert.assertEquals(1, list.size());
+    Assert.assertNull(mine.getParent());
+    var spawn = list.getItem(0).asGroup();
+    Assert.assertEquals(1, spawn.size());
+    Assert.assertFalse(spawn.hasItem("x"));
+  }
+
+  @Test
+  public void replacesOtherTypes() {
+    var list = warps();
+    var x = list.getItem(0).asGroup().getItem("x");
+    load(list, "[{\"name\":\"spawn\",\"x\":\"far\"},{\"name\":\"mine\",\"x\":10}]");
+    var replaced = list.getItem(0).asGroup().getItem("x");
+    Assert.assertNotSame(x, replaced);
+    Assert.assertEquals("far", replaced.getValue());
+  }
+
+  @Test
+  public void rejectedReloadKeepsValues() {
+    var list = warps();
+    list.addIndex("name", true);
+    var spawn = list.getItem(0).asGroup();
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> load(list, "[{\"name\":\"mine\",\"x\":5},{\"name\":\"mine\",\"x\":10}]"));
+    Assert.assertEquals(2, list.size());
+    Assert.assertEquals("spawn", spawn.getItem("name").getValue());
+    Assert.assertEquals(0, spawn.getItem("x").asNumber().getValue().intValue());
+    Assert.assertSame(spawn, list.getIndex("name").get("spawn"));
+  }
+
+  @Test
+  public void rejectedReloadRestoresNestedLists() {
+    var list = new ConfigList("warps", of(
+        new ConfigGroup("", of(new ConfigString("name", "spawn"), new ConfigList("tags"))),
+        new ConfigGroup("", of(new ConfigString("name", "mine"), new ConfigList("tags")))), 
+        Type.GROUP);
+    list.addIndex("name", true);
+    Assert.assertThrows(IllegalArgumentException.class, () -> load(list, 
+        "[{\"name\":\"end\",\"tags\":[1]},{\"name\":\"end\",\"tags\":[2]}]"));
+    Assert.assertEquals("spawn", list.getItem(0).asGroup().getItem("name").getValue());
+    Assert.assertEquals("mine", list.getItem(1).asGroup().getItem("name").getValue());
+    Assert.assertEquals(0, list.getItem(1).asGroup().getItem("tags").asList().size());
+    Assert.assertSame(list.getItem(1), list.getIndex("name").get("mine"));
+  }
+
+  @Test
+  public void rejectedByConstraint() {
+    var list = new ConfigList("ports", of(
+        new ConfigNumber("", 80).constrain(Constraint.range(1, 65535)),
+        new ConfigNumber("", 443).constrain(Constraint.range(1, 65535))), Type.NUMBER);
+    Assert.assertThrows(IllegalArgumentException.class, () -> load(list, "[8080, 0]"));
+    Assert.assertEquals(80, list.getItem(0).asNumber().getValue().intValue());
+    Assert.assertEquals(443, list.getItem(1).asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void readFileKeepsReferences() throws IOException {
+    var config = new Config(of(warps()), file);
+    config.readFile();
+    var mine = config.getItem("warps").asList().getItem(1).asGroup();
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      writer.write("{\"warps\":[{\"name\":\"spawn\",\"x\":0},{\"name\":\"mine\",\"x\":12}]}");
+    }
+    config.readFile();
+    Assert.assertSame(mine, config.getItem("warps").asList().getItem(1));
+    Assert.assertEquals(12, mine.getItem("x").asNumber().getValue().intValue());
+  }
+
+  @Test
+  public void readFileRejectsReusedElements() throws IOException {
+    var server = new ConfigGroup("", of(
+        new ConfigNumber("port", 80).constrain(Constraint.range(1, 65535))));
+    var config = new Config(of(new ConfigString("name", "old"),
+        new ConfigList("servers", of(server), Type.GROUP)), file);
+    config.readFile();
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      writer.write("{\"name\":\"new\",\"servers\":[{\"port\":99999}]}");
+    }
+    config.readFile();
+    Assert.assertEquals("old", config.getItem("name").getValue());
+    Assert.assertEquals(80, server.getItem("port").asNumber().getValue().intValue());
+  }
+}
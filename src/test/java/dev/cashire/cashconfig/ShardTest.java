@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link Config#enableSharding(File)}.
+ */
+public class ShardTest {
+  private File dir;
+  private File file;
+  private File shards;
+
+  @Before
+  public void createDir() throws IOException {
+    dir = Files.createTempDirectory("config-shards").toFile();
+    file = new File(dir, "config.json");
+    shards = new File(dir, "groups");
+  }
+
+  @After
+  public void deleteDir() throws IOException {
+    try (var files = Files.walk(dir.toPath())) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  private Config config() {
+    List<BaseConfigItem<?>> items = of(
+        new ConfigNumber("version", 1),
+        new ConfigGroup("server", of(new ConfigNumber("port", 25565))),
+        new ConfigGroup("world", of(new ConfigString("name", "overworld"))));
+    var config = new Config(items, file);
+    config.enableSharding(shards);
+    config.readFile();
+    return config;
+  }
+
+  private static String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+
+  private static void write(File file, String json) throws IOException {
+    Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void storesGroupsInOwnFiles() throws IOException {
+    var config = config();
+    Assert.assertTrue(config.isSharded());
+    Assert.assertTrue(read(file).contains("version"));
+    Assert.assertFalse(read(file).contains("server"));
+    Assert.assertTrue(read(new File(shards, "server.json")).contains("25565"));
+    Assert.assertTrue(read(new File(shards, "world.json")).contains("overworld"));
+  }
+
+  @Test
+  public void loadsGroupsOnFirstUse() throws IOException {
+    config();
+    var config = config();
+    // the group wasn't read yet, so the change on disk is picked up
+    write(new File(shards, "world.json"), "{\"name\":\"nether\"}");
+    Assert.assertEquals("nether", config.getItem("world.name").asString().getValue());
+    Assert.assertEquals(25565, config.getItem("server.port").asNumber().getValue().intValue());
+    Assert.assertFalse(config.isDirty());
+  }
+
+  @Test
+  public void savesOnlyChangedGroups() throws IOException {
+    config();
+    var config = config();
+    var world = new File(shards, "world.json");
+    config.getItem("world.name");
+    Files.delete(world.toPath());
+
+    config.getItem("server.port").asNumber().setValue(1);
+    config.saveFile();
+    Assert.assertTrue(read(new File(shards, "server.json")).contains("1"));
+    Assert.assertFalse(world.exists());
+
+    config.getItem("world.name").asString().setValue("end");
+    config.batch(tx -> tx.setValue("version", 2));
+    Assert.assertTrue(read(world).contains("end"));
+    Assert.assertTrue(read(file).contains("2"));
+  }
+
+  @Test
+  public void deletesRemovedGroups() {
+    var config = config();
+    config.removeItem("world");
+    config.saveFile();
+    Assert.assertFalse(new File(shards, "world.json").exists());
+  }
+
+  @Test
+  public void rejectsJournal() {
+    var config = config();
+    Assert.assertThrows(IllegalStateException.class, () -> config.enableJournal(10));
+  }
+}
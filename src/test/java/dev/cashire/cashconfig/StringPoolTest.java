@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import dev.cashire.cashconfig.items.BaseConfigItem.Type;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigString;
+import dev.cashire.cashconfig.items.Constraint;
+import dev.cashire.cashconfig.items.ItemInterner;
+import dev.cashire.cashconfig.items.StringPool;
+import java.io.File;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link StringPool}.
+ */
+public class StringPoolTest {
+
+  private static ConfigList names(String... names) {
+    var list = new ConfigList("names", null, Type.STRING);
+    for (var name : names) {
+      list.addItem(new ConfigString("", name));
+    }
+    return list;
+  }
+
+  @Test
+  public void packsValues() {
+    var list = names("stone", "dirt", "stone", "grüne Wiese", "", "stone");
+    var pool = new StringPool();
+    pool.pack(list);
+    Assert.assertEquals(4, pool.size());
+    // ü takes two bytes
+    Assert.assertEquals(5 + 4 + 12, pool.byteSize());
+    var item = list.getItem(3).asString();
+    Assert.assertTrue(item.isPacked());
+    Assert.assertEquals("grüne Wiese", item.getValue());
+    Assert.assertEquals("", list.getItem(4).getValue());
+    var json = new JsonObject();
+    list.toJson(json);
+    Assert.assertEquals(new JsonParser().parse(
+        "{\"names\":[\"stone\",\"dirt\",\"stone\",\"grüne Wiese\",\"\",\"stone\"]}"), json);
+  }
+
+  @Test
+  public void manyValues() {
+    var list = names();
+    for (int i = 0; i < 10_000; i++) {
+      list.addItem(new ConfigString("", "key." + (i % 3000)));
+    }
+    var pool = new StringPool();
+    pool.pack(list);
+    Assert.assertEquals(3000, pool.size());
+    for (int i = 0; i < 10_000; i++) {
+      Assert.assertEquals("key." + (i % 3000), list.getItem(i).getValue());
+    }
+  }
+
+  @Test
+  public void changeUnpacks() {
+    var list = names("a", "b");
+    var pool = new StringPool();
+    pool.pack(list);
+    var item = list.getItem(0).asString();
+    item.setValue("c");
+    Assert.assertFalse(item.isPacked());
+    Assert.assertEquals("c", item.getValue());
+    var other = list.getItem(1).asString();
+    other.fromJson(new JsonParser().parse("\"d\""));
+    Assert.assertEquals("d", other.getValue());
+    Assert.assertEquals(2, pool.size());
+  }
+
+  @Test
+  public void constraintsAndStructure() {
+    var item = new ConfigString("motd", "hello").constrain(Constraint.length(0, 10)).asString();
+    var group = new ConfigGroup("", of(item));
+    var copy = new ConfigGroup("", of(new ConfigString("motd", "hello")));
+    new StringPool().pack(group);
+    Assert.assertTrue(group.structurallyEquals(copy));
+    Assert.assertEquals(group.structuralHash(), copy.structuralHash());
+    Assert.assertThrows(IllegalArgumentException.class, () -> item.setValue("far too long"));
+    Assert.assertEquals("hello", item.getValue());
+  }
+
+  @Test
+  public void internerSharesPackedValues() {
+    var first = new ConfigGroup("", of(new ConfigString("name", "a")));
+    var second = new ConfigGroup("", of(new ConfigString("name", "a")));
+    var root = new ConfigList("rows", of(first, second), Type.GROUP);
+    new StringPool().pack(root);
+    new ItemInterner().intern(root);
+    Assert.assertTrue(second.getItem("name").asString().isPacked());
+    Assert.assertEquals("a", second.getItem("name").getValue());
+  }
+
+  @Test
+  public void packConfig() {
+    var config = new Config(of(names("x", "y", "x")), new File("unused.json"));
+    var pool = config.packStrings();
+    Assert.assertEquals(2, pool.size());
+    Assert.assertEquals("y", config.getItem("names").asList().getItem(1).getValue());
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2021 Josh Cash
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.cashire.cashconfig;
+
+import static com.google.common.collect.ImmutableList.of;
+
+import dev.cashire.cashconfig.items.BaseConfigItem;
+import dev.cashire.cashconfig.items.ConfigBoolean;
+import dev.cashire.cashconfig.items.ConfigGroup;
+import dev.cashire.cashconfig.items.ConfigList;
+import dev.cashire.cashconfig.items.ConfigNumber;
+import dev.cashire.cashconfig.items.ConfigString;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit Test for {@link Transaction} and {@link Config#batch(java.util.function.Consumer)}.
+ */
+public class TransactionTest {
+  private static final File file = new File("transaction.json");
+
+  @AfterClass
+  public static void cleanup() {
+    file.deleteOnExit();
+  }
+
+  private static Config config() {
+    file.delete();
+    return new Config(new ConfigGroup("server", of(
+        new ConfigNumber("port", 25565), 
+        new ConfigString("motd", "hello"),
+        new ConfigList("ops"))), file);
+  }
+
+  @Test
+  public void applyBatch() {
+    var config = config();
+    var notified = new ArrayList<List<BaseConfigItem<?>>>();
+    config.addListener((c, changed) -> notified.add(changed));
+    config.batch(tx -> tx
+        .setValue("server.port", 25566)
+        .removeItem("server.motd")
+        .addItem("server", new ConfigBoolean("whitelist", true))
+        .setItem("server.ops", new ConfigString("", "admin"))
+        .setItem(new ConfigString("name", "test")));
+
+    Assert.assertEquals(25566, config.getItem("server.port").getValue());
+    Assert.assertFalse(config.hasItem("server.motd"));
+    Assert.assertEquals(true, config.getItem("server.whitelist").getValue());
+    Assert.assertEquals(1, config.getItem("server.ops").asList().size());
+    Assert.assertEquals("test", config.getItem("name").getValue());
+    Assert.assertEquals(1, notified.size());
+    Assert.assertEquals(5, notified.get(0).size());
+    Assert.assertFalse(config.isDirty());
+
+    var loaded = new Config(file);
+    loaded.readFile();
+    Assert.assertEquals(25566, loaded.getItem("server.port").asNumber().getValue().intValue());
+    Assert.assertFalse(loaded.hasItem("server.motd"));
+  }
+
+  @Test
+  public void rollback() {
+    var config = config();
+    var notified = new ArrayList<List<BaseConfigItem<?>>>();
+    config.addListener((c, changed) -> notified.add(changed));
+    Assert.assertThrows(IllegalArgumentException.class, () -> config.batch(tx -> tx
+        .setValue("server.port", 1)
+        .removeItem("server.motd")
+        .setItem("server.ops", new ConfigString("", "admin"))
+        .addItem("server", new ConfigNumber("port", 2))));
+
+    Assert.assertEquals(25565, config.getItem("server.port").getValue());
+    Assert.assertEquals("hello", config.getItem("server.motd").getValue());
+    Assert.assertEquals(0, config.getItem("server.ops").asList().size());
+    Assert.assertTrue(notified.isEmpty());
+    Assert.assertFalse(config.isDirty());
+    Assert.assertFalse(file.exists());
+  }
+
+  @Test
+  public void expectFingerprint() {
+    var config = config();
+    var fingerprint = config.fingerprint();
+    config.getItem("server.port").asNumber().setValue(1);
+    Assert.assertThrows(ConcurrentModificationException.class, () -> config.batch(tx -> tx
+        .expectFingerprint(fingerprint)
+        .setValue("server.motd", "changed")));
+    Assert.assertEquals("hello", config.getItem("server.motd").getValue());
+    config.batch(tx -> tx
+        .expectFingerprint(config.fingerprint())
+        .setValue("server.motd", "changed"));
+    Assert.assertEquals("changed", config.getItem("server.motd").getValue());
+  }
+
+  @Test
+  public void validation() {
+    var config = config();
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> config.batch(tx -> tx.setValue("server.port", "text")));
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> config.batch(tx -> tx.removeItem("server.missing")));
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> config.batch(tx -> tx.setItem("server.port", new ConfigNumber("x"))));
+    Assert.assertThrows(IllegalArgumentException.class, 
+        () -> config.batch(tx -> tx.setValue("server..port", 1)));
+    Assert.assertEquals(25565, config.getItem("server.port").getValue());
+  }
+
+  @Test
+  public void emptyBatch() {
+    var config = config();
+    config.batch(tx -> Assert.assertEquals(0, tx.size()));
+    Assert.assertFalse(file.exists());
+  }
+
+  @Test
+  public void listenersAndDirty() {
+    var config = config();
+    var notified = new ArrayList<List<BaseConfigItem<?>>>();
+    ConfigListener listener = (c, changed) -> notified.add(changed);
+    config.addListener(listener);
+    Assert.assertFalse(config.isDirty());
+    config.getItem("server.port").asNumber().setValue(1);
+    Assert.assertTrue(config.isDirty());
+    Assert.assertEquals(1, notified.size());
+    Assert.assertSame(config.getItem("server.port"), notified.get(0).get(0));
+    config.saveFile();
+    Assert.assertFalse(config.isDirty());
+    Assert.assertTrue(config.removeListener(listener));
+    config.addItem(new ConfigString("other"));
+    Assert.assertEquals(1, notified.size());
+    Assert.assertTrue(config.isDirty());
+  }
+
+  @Test
+  public void failedSaveStaysDirty() {
+    var config = new Config(new ConfigNumber("port", 1), new File("missing", "transaction.json"));
+    config.getItem("port").asNumber().setValue(2);
+    config.saveFile();
+    Assert.assertTrue(config.isDirty());
+  }
+
+  @Test
+  public void savesDontOvertakeBatches() throws InterruptedException {
+    var config = config();
+    var saver = new Thread(() -> {
+      for (int i = 0; i < 200; i++) {
+        config.saveFile();
+      }
+    });
+    saver.start();
+    for (int i = 0; i < 200; i++) {
+      var port = i;
+      config.batch(tx -> tx.setValue("server.port", port));
+    }
+    saver.join();
+    var loaded = new Config(new ConfigGroup("server", of(new ConfigNumber("port", 0))), file);
+    loaded.readFile();
+    Assert.assertEquals(199, loaded.getItem("server.port").asNumber().getValue().intValue());
+  }
+}